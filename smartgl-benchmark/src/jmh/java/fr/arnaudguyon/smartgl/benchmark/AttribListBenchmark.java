@@ -0,0 +1,59 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import fr.arnaudguyon.smartgl.opengl.VertexList;
+
+/**
+ * Copy of the vertices of a list to the direct buffer sent to OpenGL
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AttribListBenchmark {
+
+    @Param({"4", "1000", "100000"})
+    public int mNbVertices;
+
+    private VertexList mVertexList;
+
+    @Setup
+    public void setup() {
+        mVertexList = new VertexList();
+        mVertexList.init(mNbVertices);
+        for (int i = 0; i < mNbVertices; ++i) {
+            mVertexList.add(i, i * 0.5f, -i);
+        }
+    }
+
+    @Benchmark
+    public FloatBuffer finalizeBuffer() {
+        mVertexList.finalizeBuffer();
+        return mVertexList.getFloatBuffer();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import fr.arnaudguyon.smartgl.math.Circle;
+import fr.arnaudguyon.smartgl.math.Point2D;
+import fr.arnaudguyon.smartgl.math.Vector2D;
+import fr.arnaudguyon.smartgl.opengl.CollisionCircle;
+import fr.arnaudguyon.smartgl.opengl.CollisionRectangle;
+import fr.arnaudguyon.smartgl.opengl.Sprite;
+
+/**
+ * Collision tests between sprites, and the slide of a circle along a segment. The shapes overlap,
+ * so that the tests go to the end of their computations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollisionBenchmark {
+
+    private Sprite mBall;
+    private Sprite mOtherBall;
+    private Sprite mWall;
+    private CollisionCircle mBallCircle;
+    private CollisionCircle mOtherBallCircle;
+    private CollisionRectangle mWallRectangle;
+    private Circle mCircle;
+    private Vector2D mSegment;
+
+    @Setup
+    public void setup() {
+        mBall = new Sprite(40, 40);
+        mBall.setPos(100, 100);
+        mBallCircle = new CollisionCircle(mBall, 0.5f, 0.5f, 0.5f);
+        mOtherBall = new Sprite(40, 40);
+        mOtherBall.setPos(120, 110);
+        mOtherBallCircle = new CollisionCircle(mOtherBall, 0.5f, 0.5f, 0.5f);
+        mWall = new Sprite(200, 20);
+        mWall.setPos(50, 130);
+        mWallRectangle = new CollisionRectangle(mWall, 0, 0, 1, 1);
+        mCircle = new Circle(new Point2D(50, 50), 10);
+        mSegment = new Vector2D(40, 0, 60, 100);
+    }
+
+    @Benchmark
+    public boolean circleCircle() {
+        mBallCircle.computePositionAndSize();
+        mOtherBallCircle.computePositionAndSize();
+        return mBallCircle.collide(mOtherBallCircle);
+    }
+
+    @Benchmark
+    public boolean rectangleCircle() {
+        mBallCircle.computePositionAndSize();
+        mWallRectangle.computePositionAndSize();
+        return mWallRectangle.collide(mBallCircle);
+    }
+
+    @Benchmark
+    public float circleSlideH() {
+        mCircle.setPos(50, 50);     // moved by the previous call
+        return mCircle.collideWithVectorSlideH(mSegment);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import fr.arnaudguyon.smartgl.opengl.Object3D;
+import fr.arnaudguyon.smartgl.opengl.Sprite;
+
+/**
+ * Computation of the local transformation matrix of the objects, done each time they move
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MatrixBenchmark {
+
+    private final float[] mMatrix = new float[16];
+    private Object3D mObject3D;
+    private Sprite mSprite;
+
+    @Setup
+    public void setup() {
+        mObject3D = new Object3D();
+        mObject3D.setPos(1, 2, -10);
+        mObject3D.setRotation(10, 20, 30);
+        mObject3D.setScale(1, 2, 3);
+        mSprite = new Sprite(64, 32);
+        mSprite.setPivot(0.5f, 0.5f);
+        mSprite.setPos(100, 200);
+        mSprite.setRotation(45);
+        mSprite.setScale(2, 2);
+    }
+
+    @Benchmark
+    public float[] object3DComputeMatrix() {
+        mObject3D.computeMatrix(mMatrix);
+        return mMatrix;
+    }
+
+    @Benchmark
+    public float[] spriteComputeMatrix() {
+        mSprite.computeMatrix(mMatrix);
+        return mMatrix;
+    }
+}
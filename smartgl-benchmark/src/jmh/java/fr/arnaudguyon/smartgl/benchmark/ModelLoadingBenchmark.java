@@ -0,0 +1,83 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import fr.arnaudguyon.smartgl.opengl.Object3D;
+import fr.arnaudguyon.smartgl.tools.ColladaModel;
+import fr.arnaudguyon.smartgl.tools.WavefrontModel;
+
+/**
+ * Parsing of the models of the sample application, and their conversion to Object3D.
+ * The files are read once in memory: the disk is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModelLoadingBenchmark {
+
+    @Param({"bus_obj.txt", "earth_obj.txt", "space_cruiser_collada.htm"})
+    public String mFileName;
+
+    private byte[] mContent;
+    private boolean mIsCollada;
+    private WavefrontModel mWavefrontModel;
+    private ColladaModel mColladaModel;
+
+    @Setup
+    public void setup() throws IOException {
+        File rawDir = new File(System.getProperty("smartgl.raw", "../smartglapp/src/main/res/raw"));
+        mContent = Files.readAllBytes(new File(rawDir, mFileName).toPath());
+        mIsCollada = mFileName.startsWith("space_cruiser_collada");
+        if (mIsCollada) {
+            mColladaModel = parseCollada();
+        } else {
+            mWavefrontModel = parseWavefront();
+        }
+    }
+
+    private WavefrontModel parseWavefront() {
+        return new WavefrontModel.Builder(new ByteArrayInputStream(mContent)).create();
+    }
+
+    private ColladaModel parseCollada() {
+        return new ColladaModel.Builder(new ByteArrayInputStream(mContent)).create();
+    }
+
+    @Benchmark
+    public Object parse() {
+        return mIsCollada ? parseCollada() : parseWavefront();
+    }
+
+    @Benchmark
+    public Object3D toObject3D() {
+        return mIsCollada ? mColladaModel.toObject3D() : mWavefrontModel.toObject3D();
+    }
+}
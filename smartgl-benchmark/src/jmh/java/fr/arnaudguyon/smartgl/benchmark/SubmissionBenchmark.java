@@ -0,0 +1,125 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import fr.arnaudguyon.smartgl.opengl.ColorList;
+import fr.arnaudguyon.smartgl.opengl.Face3D;
+import fr.arnaudguyon.smartgl.opengl.Object3D;
+import fr.arnaudguyon.smartgl.opengl.RenderPassObject3D;
+import fr.arnaudguyon.smartgl.opengl.RenderPassSprite;
+import fr.arnaudguyon.smartgl.opengl.SmartGLRenderer;
+import fr.arnaudguyon.smartgl.opengl.Sprite;
+import fr.arnaudguyon.smartgl.opengl.Texture;
+import fr.arnaudguyon.smartgl.opengl.VertexList;
+
+/**
+ * A whole onDrawFrame, from the culling and the sort of the objects down to glDrawArrays, against the NullGL
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubmissionBenchmark {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+
+    @Param({"100", "1000"})
+    public int mNbObjects;
+
+    @Param({"SPRITES", "BATCHED_SPRITES", "OBJECTS_3D"})
+    public String mScene;
+
+    private SmartGLRenderer mRenderer;
+
+    // Uploaded to the NullGL, so that the sprites are drawn without any Bitmap
+    private static class NullTexture extends Texture {
+        NullTexture() {
+            super(32, 32, null);
+        }
+
+        @Override
+        protected boolean bindTexture() {
+            createGLTexture();
+            return true;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        mRenderer = new SmartGLRenderer(null);
+        mRenderer.onSurfaceCreated(null, null);
+        mRenderer.onSurfaceChanged(null, WIDTH, HEIGHT);
+        if ("OBJECTS_3D".equals(mScene)) {
+            RenderPassObject3D renderPass = new RenderPassObject3D(RenderPassObject3D.ShaderType.SHADER_COLOR, true, false);
+            for (int i = 0; i < mNbObjects; ++i) {
+                Object3D object3D = createQuad();
+                object3D.setPos((i % 20) - 10, (i / 20) % 10 - 5, -20);
+                renderPass.addObject(object3D);
+            }
+            mRenderer.addRenderPass(renderPass);
+        } else {
+            RenderPassSprite renderPass = new RenderPassSprite();
+            renderPass.setBatching("BATCHED_SPRITES".equals(mScene));
+            Texture texture = new NullTexture();
+            for (int i = 0; i < mNbObjects; ++i) {
+                Sprite sprite = new Sprite(32, 32);
+                sprite.setTexture(texture);
+                sprite.setPos((i * 37) % WIDTH, (i * 53) % HEIGHT);
+                renderPass.addSprite(sprite);
+            }
+            mRenderer.addRenderPass(renderPass);
+        }
+        mRenderer.onDrawFrame(null);    // loads the pass and uploads the texture
+    }
+
+    private static Object3D createQuad() {
+        VertexList vertexList = new VertexList();
+        vertexList.init(4);
+        vertexList.add(-0.5f, -0.5f, 0);
+        vertexList.add(0.5f, -0.5f, 0);
+        vertexList.add(-0.5f, 0.5f, 0);
+        vertexList.add(0.5f, 0.5f, 0);
+        vertexList.finalizeBuffer();
+        ColorList colorList = new ColorList();
+        colorList.init(4);
+        for (int i = 0; i < 4; ++i) {
+            colorList.add(1, 0.5f, 0, 1);
+        }
+        colorList.finalizeBuffer();
+        Face3D face = new Face3D();
+        face.setVertexList(vertexList);
+        face.setColorList(colorList);
+        Object3D object3D = new Object3D();
+        object3D.addFace(face);
+        return object3D;
+    }
+
+    @Benchmark
+    public void drawFrame() {
+        mRenderer.onDrawFrame(null);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.math;
+
+/**
+ * Bounding volume in local coordinates: an axis aligned box (AABB) and a bounding sphere centered on the box.
+ */
+public class Bounds3D {
+
+	private float mMinX, mMinY, mMinZ;
+	private float mMaxX, mMaxY, mMaxZ;
+	private float mCenterX, mCenterY, mCenterZ;
+	private float mRadius;
+	private boolean mEmpty = true;
+
+	public Bounds3D() {
+	}
+
+	public Bounds3D(Bounds3D other) {
+		set(other);
+	}
+
+	public void setEmpty() {
+		mEmpty = true;
+		mMinX = mMinY = mMinZ = 0;
+		mMaxX = mMaxY = mMaxZ = 0;
+		mCenterX = mCenterY = mCenterZ = 0;
+		mRadius = 0;
+	}
+
+	public boolean isEmpty() {
+		return mEmpty;
+	}
+
+	public void set(Bounds3D other) {
+		mEmpty = other.mEmpty;
+		mMinX = other.mMinX;
+		mMinY = other.mMinY;
+		mMinZ = other.mMinZ;
+		mMaxX = other.mMaxX;
+		mMaxY = other.mMaxY;
+		mMaxZ = other.mMaxZ;
+		mCenterX = other.mCenterX;
+		mCenterY = other.mCenterY;
+		mCenterZ = other.mCenterZ;
+		mRadius = other.mRadius;
+	}
+
+	/**
+	 * Computes the bounds of a list of points
+	 * @param points            x,y,z coordinates, and optionally other values
+	 * @param floatsPerElement  number of floats per point (at least 3)
+	 * @param nbElements        number of points
+	 */
+	public void set(float[] points, int floatsPerElement, int nbElements) {
+		if ((points == null) || (nbElements <= 0) || (floatsPerElement < 3)) {
+			setEmpty();
+			return;
+		}
+		float minX = points[0], minY = points[1], minZ = points[2];
+		float maxX = minX, maxY = minY, maxZ = minZ;
+		int index = floatsPerElement;
+		for (int i = 1; i < nbElements; ++i) {
+			final float x = points[index];
+			final float y = points[index + 1];
+			final float z = points[index + 2];
+			if (x < minX) minX = x; else if (x > maxX) maxX = x;
+			if (y < minY) minY = y; else if (y > maxY) maxY = y;
+			if (z < minZ) minZ = z; else if (z > maxZ) maxZ = z;
+			index += floatsPerElement;
+		}
+		setBox(minX, minY, minZ, maxX, maxY, maxZ);
+
+		// tighter than the half diagonal of the box
+		float maxDistance2 = 0;
+		index = 0;
+		for (int i = 0; i < nbElements; ++i) {
+			final float dx = points[index] - mCenterX;
+			final float dy = points[index + 1] - mCenterY;
+			final float dz = points[index + 2] - mCenterZ;
+			final float distance2 = dx * dx + dy * dy + dz * dz;
+			if (distance2 > maxDistance2) {
+				maxDistance2 = distance2;
+			}
+			index += floatsPerElement;
+		}
+		mRadius = (float) Math.sqrt(maxDistance2);
+	}
+
+	/**
+	 * Extends these bounds so that they also contain other bounds
+	 * @param other the bounds to add
+	 */
+	public void union(Bounds3D other) {
+		if (other.mEmpty) {
+			return;
+		}
+		if (mEmpty) {
+			set(other);
+			return;
+		}
+		final float oldCenterX = mCenterX, oldCenterY = mCenterY, oldCenterZ = mCenterZ;
+		final float oldRadius = mRadius;
+		setBox(Math.min(mMinX, other.mMinX), Math.min(mMinY, other.mMinY), Math.min(mMinZ, other.mMinZ),
+				Math.max(mMaxX, other.mMaxX), Math.max(mMaxY, other.mMaxY), Math.max(mMaxZ, other.mMaxZ));
+		final float radius1 = distance(oldCenterX, oldCenterY, oldCenterZ) + oldRadius;
+		final float radius2 = distance(other.mCenterX, other.mCenterY, other.mCenterZ) + other.mRadius;
+		mRadius = Math.max(radius1, radius2);
+	}
+
+	/**
+	 * Sets these bounds to other bounds transformed by a matrix: the box containing the transformed box,
+	 * and the sphere scaled by the largest scale of the matrix
+	 * @param other  the bounds to transform, can be these bounds
+	 * @param matrix column major transformation, see Mat4
+	 */
+	public void setTransformed(Bounds3D other, float[] matrix) {
+		if (other.mEmpty) {
+			setEmpty();
+			return;
+		}
+		final float[] m = matrix;
+		final float cx = other.mCenterX, cy = other.mCenterY, cz = other.mCenterZ;
+		final float ex = (other.mMaxX - other.mMinX) / 2;
+		final float ey = (other.mMaxY - other.mMinY) / 2;
+		final float ez = (other.mMaxZ - other.mMinZ) / 2;
+		final float x = m[0] * cx + m[4] * cy + m[8] * cz + m[12];
+		final float y = m[1] * cx + m[5] * cy + m[9] * cz + m[13];
+		final float z = m[2] * cx + m[6] * cy + m[10] * cz + m[14];
+		final float rx = Math.abs(m[0]) * ex + Math.abs(m[4]) * ey + Math.abs(m[8]) * ez;
+		final float ry = Math.abs(m[1]) * ex + Math.abs(m[5]) * ey + Math.abs(m[9]) * ez;
+		final float rz = Math.abs(m[2]) * ex + Math.abs(m[6]) * ey + Math.abs(m[10]) * ez;
+		final float scale2X = m[0] * m[0] + m[1] * m[1] + m[2] * m[2];
+		final float scale2Y = m[4] * m[4] + m[5] * m[5] + m[6] * m[6];
+		final float scale2Z = m[8] * m[8] + m[9] * m[9] + m[10] * m[10];
+		final float radius = other.mRadius * (float) Math.sqrt(Math.max(scale2X, Math.max(scale2Y, scale2Z)));
+		setBox(x - rx, y - ry, z - rz, x + rx, y + ry, z + rz);
+		mRadius = radius;
+	}
+
+	private void setBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		mEmpty = false;
+		mMinX = minX;
+		mMinY = minY;
+		mMinZ = minZ;
+		mMaxX = maxX;
+		mMaxY = maxY;
+		mMaxZ = maxZ;
+		mCenterX = (minX + maxX) / 2;
+		mCenterY = (minY + maxY) / 2;
+		mCenterZ = (minZ + maxZ) / 2;
+	}
+
+	private float distance(float x, float y, float z) {
+		final float dx = x - mCenterX;
+		final float dy = y - mCenterY;
+		final float dz = z - mCenterZ;
+		return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+
+	public float getMinX() {
+		return mMinX;
+	}
+
+	public float getMinY() {
+		return mMinY;
+	}
+
+	public float getMinZ() {
+		return mMinZ;
+	}
+
+	public float getMaxX() {
+		return mMaxX;
+	}
+
+	public float getMaxY() {
+		return mMaxY;
+	}
+
+	public float getMaxZ() {
+		return mMaxZ;
+	}
+
+	public float getCenterX() {
+		return mCenterX;
+	}
+
+	public float getCenterY() {
+		return mCenterY;
+	}
+
+	public float getCenterZ() {
+		return mCenterZ;
+	}
+
+	/**
+	 * @return the radius of the bounding sphere, centered on the box
+	 */
+	public float getRadius() {
+		return mRadius;
+	}
+}
@@ -71,19 +71,30 @@ public class Circle {
 		}
 
 		// before segment [AB]
-		Vector2D CA = new Vector2D(mCenter, seg.getStart());
-		if ((CA.getSize() >= mRadius) && (CA.dot(seg) >= 0)) {
+		// CA, CB and the normal of the segment are kept in floats, this is called for each segment at every frame
+		final float caX = seg.getXStart() - mCenter.mX;
+		final float caY = seg.getYStart() - mCenter.mY;
+		final float caSize = (float) Math.sqrt((caX * caX) + (caY * caY));
+		if ((caSize >= mRadius) && (((caX * seg.getDX()) + (caY * seg.getDY())) >= 0)) {
 			return 0;
 		}
 		// after segment [AB]
-		Vector2D CB = new Vector2D(mCenter, seg.getStop());
-		if ((CB.getSize() >= mRadius) && (CB.dot(seg) <= 0)) {
+		final float cbX = seg.getXStop() - mCenter.mX;
+		final float cbY = seg.getYStop() - mCenter.mY;
+		final float cbSize = (float) Math.sqrt((cbX * cbX) + (cbY * cbY));
+		if ((cbSize >= mRadius) && (((cbX * seg.getDX()) + (cbY * seg.getDY())) <= 0)) {
 			return 0;
 		}
 
 		// too far from line
-		Vector2D normal = seg.normale();
-		float dist = CA.dot(normal);
+		float normalX = 0;	// like seg.normale(): a null segment has a null normal
+		float normalY = 0;
+		final float segSize = seg.getSize();
+		if (segSize > 0) {
+			normalX = -seg.getDY() / segSize;
+			normalY = seg.getDX() / segSize;
+		}
+		float dist = (caX * normalX) + (caY * normalY);
 		float absDist = Math.abs(dist);
 		if (absDist >= mRadius) {
 			return 0;
@@ -0,0 +1,248 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.math;
+
+/**
+ * 4x4 matrix operations on flat float arrays, column major like android.opengl.Matrix, so that both can be mixed.
+ * Pure Java (no Android dependency) so that it can be tested and benchmarked on a desktop JVM.
+ * Nothing is allocated, and the results can be written in one of the sources.
+ * Angles are in degrees.
+ */
+public final class Mat4 {
+
+	private static final double DEG_TO_RAD = Math.PI / 180;
+
+	private Mat4() {
+	}
+
+	public static void setIdentity(float[] m, int offset) {
+		for (int i = 0; i < 16; ++i) {
+			m[offset + i] = 0;
+		}
+		m[offset] = 1;
+		m[offset + 5] = 1;
+		m[offset + 10] = 1;
+		m[offset + 15] = 1;
+	}
+
+	public static void setIdentity(float[] m) {
+		setIdentity(m, 0);
+	}
+
+	/**
+	 * result = lhs * rhs. result can be lhs or rhs.
+	 */
+	public static void multiply(float[] result, int resultOffset, float[] lhs, int lhsOffset, float[] rhs, int rhsOffset) {
+		final float l0 = lhs[lhsOffset], l1 = lhs[lhsOffset + 1], l2 = lhs[lhsOffset + 2], l3 = lhs[lhsOffset + 3];
+		final float l4 = lhs[lhsOffset + 4], l5 = lhs[lhsOffset + 5], l6 = lhs[lhsOffset + 6], l7 = lhs[lhsOffset + 7];
+		final float l8 = lhs[lhsOffset + 8], l9 = lhs[lhsOffset + 9], l10 = lhs[lhsOffset + 10], l11 = lhs[lhsOffset + 11];
+		final float l12 = lhs[lhsOffset + 12], l13 = lhs[lhsOffset + 13], l14 = lhs[lhsOffset + 14], l15 = lhs[lhsOffset + 15];
+		for (int column = 0; column < 4; ++column) {
+			final int r = rhsOffset + column * 4;
+			final float r0 = rhs[r], r1 = rhs[r + 1], r2 = rhs[r + 2], r3 = rhs[r + 3];
+			final int o = resultOffset + column * 4;
+			result[o] = l0 * r0 + l4 * r1 + l8 * r2 + l12 * r3;
+			result[o + 1] = l1 * r0 + l5 * r1 + l9 * r2 + l13 * r3;
+			result[o + 2] = l2 * r0 + l6 * r1 + l10 * r2 + l14 * r3;
+			result[o + 3] = l3 * r0 + l7 * r1 + l11 * r2 + l15 * r3;
+		}
+	}
+
+	public static void multiply(float[] result, float[] lhs, float[] rhs) {
+		multiply(result, 0, lhs, 0, rhs, 0);
+	}
+
+	/**
+	 * result = m * (x, y, z, w)
+	 * @param result4 receives x, y, z, w
+	 */
+	public static void multiplyVector(float[] result4, float[] m, float x, float y, float z, float w) {
+		result4[0] = m[0] * x + m[4] * y + m[8] * z + m[12] * w;
+		result4[1] = m[1] * x + m[5] * y + m[9] * z + m[13] * w;
+		result4[2] = m[2] * x + m[6] * y + m[10] * z + m[14] * w;
+		result4[3] = m[3] * x + m[7] * y + m[11] * z + m[15] * w;
+	}
+
+	/**
+	 * Sets m = translate * rotateX * rotateY * rotateZ * scale in a single pass,
+	 * the same result as setIdentityM, translateM, 3 rotateM and scaleM of android.opengl.Matrix.
+	 */
+	public static void setTRS(float[] m, int offset, float posX, float posY, float posZ,
+							  float rotX, float rotY, float rotZ, float scaleX, float scaleY, float scaleZ) {
+		float cosX = 1, sinX = 0, cosY = 1, sinY = 0, cosZ = 1, sinZ = 0;
+		if (rotX != 0) {
+			final double radians = rotX * DEG_TO_RAD;
+			cosX = (float) Math.cos(radians);
+			sinX = (float) Math.sin(radians);
+		}
+		if (rotY != 0) {
+			final double radians = rotY * DEG_TO_RAD;
+			cosY = (float) Math.cos(radians);
+			sinY = (float) Math.sin(radians);
+		}
+		if (rotZ != 0) {
+			final double radians = rotZ * DEG_TO_RAD;
+			cosZ = (float) Math.cos(radians);
+			sinZ = (float) Math.sin(radians);
+		}
+		final float sinXsinY = sinX * sinY;
+		final float cosXsinY = cosX * sinY;
+		m[offset] = cosY * cosZ * scaleX;
+		m[offset + 1] = (sinXsinY * cosZ + cosX * sinZ) * scaleX;
+		m[offset + 2] = (sinX * sinZ - cosXsinY * cosZ) * scaleX;
+		m[offset + 3] = 0;
+		m[offset + 4] = -cosY * sinZ * scaleY;
+		m[offset + 5] = (cosX * cosZ - sinXsinY * sinZ) * scaleY;
+		m[offset + 6] = (cosXsinY * sinZ + sinX * cosZ) * scaleY;
+		m[offset + 7] = 0;
+		m[offset + 8] = sinY * scaleZ;
+		m[offset + 9] = -sinX * cosY * scaleZ;
+		m[offset + 10] = cosX * cosY * scaleZ;
+		m[offset + 11] = 0;
+		m[offset + 12] = posX;
+		m[offset + 13] = posY;
+		m[offset + 14] = posZ;
+		m[offset + 15] = 1;
+	}
+
+	public static void setTRS(float[] m, float posX, float posY, float posZ,
+							  float rotX, float rotY, float rotZ, float scaleX, float scaleY, float scaleZ) {
+		setTRS(m, 0, posX, posY, posZ, rotX, rotY, rotZ, scaleX, scaleY, scaleZ);
+	}
+
+	/**
+	 * Sets m = translate(pos) * rotateZ * translate(-pivot) * scale, the transformation of a 2D object
+	 * rotating around a pivot given in scaled pixels.
+	 */
+	public static void setTransform2D(float[] m, float posX, float posY, float angle,
+									  float pivotX, float pivotY, float scaleX, float scaleY) {
+		float cos = 1, sin = 0;
+		if (angle != 0) {
+			final double radians = angle * DEG_TO_RAD;
+			cos = (float) Math.cos(radians);
+			sin = (float) Math.sin(radians);
+		}
+		m[0] = cos * scaleX;
+		m[1] = sin * scaleX;
+		m[2] = 0;
+		m[3] = 0;
+		m[4] = -sin * scaleY;
+		m[5] = cos * scaleY;
+		m[6] = 0;
+		m[7] = 0;
+		m[8] = 0;
+		m[9] = 0;
+		m[10] = 1;
+		m[11] = 0;
+		m[12] = posX - (cos * pivotX - sin * pivotY);
+		m[13] = posY - (sin * pivotX + cos * pivotY);
+		m[14] = 0;
+		m[15] = 1;
+	}
+
+	/**
+	 * result = inverse of m, with the cofactors. result can be m.
+	 * @return false if m can't be inverted, then result is not modified
+	 */
+	public static boolean invert(float[] result, float[] m) {
+		final float m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3];
+		final float m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7];
+		final float m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11];
+		final float m12 = m[12], m13 = m[13], m14 = m[14], m15 = m[15];
+
+		// 2x2 determinants of the first two columns, and of the last two columns
+		final float a0 = m0 * m5 - m1 * m4;
+		final float a1 = m0 * m6 - m2 * m4;
+		final float a2 = m0 * m7 - m3 * m4;
+		final float a3 = m1 * m6 - m2 * m5;
+		final float a4 = m1 * m7 - m3 * m5;
+		final float a5 = m2 * m7 - m3 * m6;
+		final float b0 = m8 * m13 - m9 * m12;
+		final float b1 = m8 * m14 - m10 * m12;
+		final float b2 = m8 * m15 - m11 * m12;
+		final float b3 = m9 * m14 - m10 * m13;
+		final float b4 = m9 * m15 - m11 * m13;
+		final float b5 = m10 * m15 - m11 * m14;
+
+		final float determinant = a0 * b5 - a1 * b4 + a2 * b3 + a3 * b2 - a4 * b1 + a5 * b0;
+		if (determinant == 0) {
+			return false;
+		}
+		final float r = 1 / determinant;
+		result[0] = (m5 * b5 - m6 * b4 + m7 * b3) * r;
+		result[1] = (-m1 * b5 + m2 * b4 - m3 * b3) * r;
+		result[2] = (m13 * a5 - m14 * a4 + m15 * a3) * r;
+		result[3] = (-m9 * a5 + m10 * a4 - m11 * a3) * r;
+		result[4] = (-m4 * b5 + m6 * b2 - m7 * b1) * r;
+		result[5] = (m0 * b5 - m2 * b2 + m3 * b1) * r;
+		result[6] = (-m12 * a5 + m14 * a2 - m15 * a1) * r;
+		result[7] = (m8 * a5 - m10 * a2 + m11 * a1) * r;
+		result[8] = (m4 * b4 - m5 * b2 + m7 * b0) * r;
+		result[9] = (-m0 * b4 + m1 * b2 - m3 * b0) * r;
+		result[10] = (m12 * a4 - m13 * a2 + m15 * a0) * r;
+		result[11] = (-m8 * a4 + m9 * a2 - m11 * a0) * r;
+		result[12] = (-m4 * b3 + m5 * b1 - m6 * b0) * r;
+		result[13] = (m0 * b3 - m1 * b1 + m2 * b0) * r;
+		result[14] = (-m12 * a3 + m13 * a1 - m14 * a0) * r;
+		result[15] = (m8 * a3 - m9 * a1 + m10 * a0) * r;
+		return true;
+	}
+
+	/**
+	 * m = m * translate(x, y, z)
+	 */
+	public static void translate(float[] m, float x, float y, float z) {
+		for (int row = 0; row < 4; ++row) {
+			m[12 + row] += m[row] * x + m[4 + row] * y + m[8 + row] * z;
+		}
+	}
+
+	/**
+	 * Same result as android.opengl.Matrix.orthoM
+	 */
+	public static void setOrtho(float[] m, float left, float right, float bottom, float top, float near, float far) {
+		if ((left == right) || (bottom == top) || (near == far)) {
+			throw new IllegalArgumentException("empty ortho volume");
+		}
+		final float rWidth = 1 / (right - left);
+		final float rHeight = 1 / (top - bottom);
+		final float rDepth = 1 / (far - near);
+		setIdentity(m);
+		m[0] = 2 * rWidth;
+		m[5] = 2 * rHeight;
+		m[10] = -2 * rDepth;
+		m[12] = -(right + left) * rWidth;
+		m[13] = -(top + bottom) * rHeight;
+		m[14] = -(far + near) * rDepth;
+	}
+
+	/**
+	 * Same result as android.opengl.Matrix.perspectiveM
+	 * @param fovY vertical field of view, in degrees
+	 */
+	public static void setPerspective(float[] m, float fovY, float aspect, float near, float far) {
+		final float f = 1 / (float) Math.tan(fovY * (Math.PI / 360));
+		final float rangeReciprocal = 1 / (near - far);
+		for (int i = 0; i < 16; ++i) {
+			m[i] = 0;
+		}
+		m[0] = f / aspect;
+		m[5] = f;
+		m[10] = (far + near) * rangeReciprocal;
+		m[11] = -1;
+		m[14] = 2 * far * near * rangeReciprocal;
+	}
+}
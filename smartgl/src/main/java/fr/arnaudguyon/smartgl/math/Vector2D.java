@@ -140,10 +140,9 @@ public class Vector2D {
 	}
 
 	public float computeAngle() {
-		Vector2D other = new Vector2D(this);
-		other.normalize();
-		float cos = other.mDX;
-		float sin = other.mDY;
+		// same as the normalized vector, without allocating it
+		float cos = (mSize > 0) ? (mDX / mSize) : 0;
+		float sin = (mSize > 0) ? (mDY / mSize) : 0;
 		if (cos != 0) {
 			float acos = (float) Math.acos(cos);
 			return (sin > 0) ? acos : -acos;
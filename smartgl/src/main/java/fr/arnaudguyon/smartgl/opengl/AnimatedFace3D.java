@@ -17,8 +17,6 @@ package fr.arnaudguyon.smartgl.opengl;
 
 import java.util.ArrayList;
 
-import android.os.SystemClock;
-
 public class AnimatedFace3D extends Face3D {
 
     public interface AnimatedFaceListener {
@@ -37,6 +35,7 @@ public class AnimatedFace3D extends Face3D {
 	private int mFrameNumber;
 	private ArrayList<Frame> mFrames = new ArrayList<>();
 	private long mNextChangeDate;
+	private boolean mFrameSet;	// by setFrame(), its duration starts at the next frame rendered
 	
 	public AnimatedFace3D(AnimatedFaceListener owner) { // owner just to be conscious of implementing listener
 		super();
@@ -59,8 +58,7 @@ public class AnimatedFace3D extends Face3D {
 			mFrameNumber = frameNumber;
 			Frame frame = mFrames.get(mFrameNumber);
 			setUVList(frame.mUVs);
-			final long now = SystemClock.uptimeMillis();
-			mNextChangeDate = now + frame.mDuration;
+			mFrameSet = true;
 		}
 	}
 	
@@ -71,8 +69,11 @@ public class AnimatedFace3D extends Face3D {
 			return;
 		}
 		
-		final long now = SystemClock.uptimeMillis();
-		if ((mNextChangeDate == 0) || (now >= mNextChangeDate)) {
+		final long now = renderer.getFrameTime();	// same date for all the faces of the frame
+		if (mFrameSet) {
+			mFrameSet = false;
+			mNextChangeDate = now + mFrames.get(mFrameNumber).mDuration;
+		} else if ((mNextChangeDate == 0) || (now >= mNextChangeDate)) {
 			//if (mFrames.size() > 0) {
 				if (mFrameNumber >= mFrames.size() - 1) {
 					mFrameNumber = 0;
@@ -15,6 +15,8 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
+import androidx.annotation.NonNull;
+
 public class AnimatedSprite extends Sprite implements AnimatedFace3D.AnimatedFaceListener {
 
 	public AnimatedSprite(int width, int height) {
@@ -49,6 +51,19 @@ public class AnimatedSprite extends Sprite implements AnimatedFace3D.AnimatedFac
 		}
 	}
 	
+	/**
+	 * Adds a frame from a TextureAtlas. All the frames must be in the same page.
+	 * @param duration duration of the frame in seconds, 0 for a manual animation
+	 * @param region   the picture of the frame, see TextureAtlas.getRegion
+	 */
+	public void addFrame(float duration, @NonNull AtlasRegion region) {
+		Face3D face = getFace();
+		if ((face != null) && (face.getTexture() == null)) {
+			face.setTexture(region.getTexture());
+		}
+		addFrame(duration, region.getUMin(), region.getVMin(), region.getUMax(), region.getVMax());
+	}
+
 	public final int getFrameNumber() {
 		AnimatedFace3D aniFace = (AnimatedFace3D) getFace();
 		return (aniFace != null) ? aniFace.getFrameNumber() : 0;
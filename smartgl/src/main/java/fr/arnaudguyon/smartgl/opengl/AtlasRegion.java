@@ -0,0 +1,99 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A picture inside a TextureAtlas page: the page Texture and the UVs of the picture.
+ * Used by Sprite.setRegion and AnimatedSprite.addFrame instead of computing the UVs by hand.
+ */
+public class AtlasRegion {
+
+    private final String mName;
+    private final Texture mTexture;
+    private final int mX;
+    private final int mY;
+    private final int mWidth;
+    private final int mHeight;
+    private final float mUMin;
+    private final float mVMin;
+    private final float mUMax;
+    private final float mVMax;
+
+    /**
+     * @param name    name of the picture in the atlas
+     * @param texture the page containing the picture
+     * @param x       left of the picture in the page, in pixels
+     * @param y       top of the picture in the page, in pixels
+     * @param width   width of the picture, in pixels
+     * @param height  height of the picture, in pixels
+     */
+    public AtlasRegion(String name, @NonNull Texture texture, int x, int y, int width, int height) {
+        mName = name;
+        mTexture = texture;
+        mX = x;
+        mY = y;
+        mWidth = width;
+        mHeight = height;
+        final float pageWidth = texture.getWidth();
+        final float pageHeight = texture.getHeight();
+        mUMin = x / pageWidth;
+        mVMin = y / pageHeight;
+        mUMax = (x + width) / pageWidth;
+        mVMax = (y + height) / pageHeight;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public @NonNull Texture getTexture() {
+        return mTexture;
+    }
+
+    public int getX() {
+        return mX;
+    }
+
+    public int getY() {
+        return mY;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public float getUMin() {
+        return mUMin;
+    }
+
+    public float getVMin() {
+        return mVMin;
+    }
+
+    public float getUMax() {
+        return mUMax;
+    }
+
+    public float getVMax() {
+        return mVMax;
+    }
+}
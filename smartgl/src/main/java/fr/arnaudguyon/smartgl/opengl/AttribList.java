@@ -15,18 +15,37 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
+import android.opengl.GLES20;
+
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 
+import fr.arnaudguyon.smartgl.tools.Tracer;
+
 // parent class for VertexList, UVList, ColorList
 public class AttribList {
 
+	private static final GL sGL = GLBackend.get();
+
+	private final static int NO_BUFFER = 0;
+
 	private int mFloatsPerElement;
 	private FloatBuffer mFloatBuffer;
 	private float[] mInternalBuffer;
 	private int mCurrentIndex;
 
+	// Buffer Object (VBO) mode: data is uploaded once to the GPU instead of being sent at every frame
+	private boolean mUseBufferObject = false;
+	private final int[] mBufferId = { NO_BUFFER };
+	private int mBufferSize;	// in bytes, as uploaded to the GPU
+	private boolean mBufferDirty = false;
+
+	// Buffer Objects of destroyed lists and instanced objects, deleted by the OpenGL Thread at the beginning of the next frame
+	private static final Object sReleasedLock = new Object();
+	private static int[] sReleasedBuffers = new int[16];
+	private static int sNbReleasedBuffers;
+
 	private AttribList() {
 		mFloatBuffer = null;
 		mInternalBuffer = null;
@@ -118,17 +137,122 @@ public class AttribList {
 	}
 
 	public final void finalizeBuffer() {
+		Tracer.begin("AttribList.finalizeBuffer");
 		mCurrentIndex = mInternalBuffer.length;
 		mFloatBuffer = ByteBuffer.allocateDirect(mCurrentIndex * Display.BYTES_PER_FLOAT).order(ByteOrder.nativeOrder()).asFloatBuffer();
 		mFloatBuffer.put(mInternalBuffer).position(0);
+		mBufferDirty = true;
+		onBufferChanged();
+		Tracer.end();
 	}
 
 	public final int getNbElements() {
 		return mCurrentIndex / mFloatsPerElement;
 	}
 
+	/**
+	 * Copies the internal buffer again after it has been modified (see getInternalBuffer).
+	 * In Buffer Object mode the GPU copy is refreshed with glBufferSubData before the next draw.
+	 */
+	public final void updateBuffer() {
+		mFloatBuffer.put(mInternalBuffer).position(0);
+		mBufferDirty = true;
+		onBufferChanged();
+	}
+
+	// Called after finalizeBuffer and updateBuffer. Can be called from the constructor of AttribList.
+	protected void onBufferChanged() {
+	}
+
+	/**
+	 * Uses a GPU Buffer Object (VBO) for this list. The data is uploaded once to a GL_ARRAY_BUFFER
+	 * the first time the list is drawn, instead of being sent to the driver at every frame.
+	 * Best suited for static geometry, like models loaded with WavefrontModel.
+	 * Can be called from any thread: when disabled, the Buffer Object is deleted the next time the list is drawn.
+	 * @param useBufferObject true to upload the data in a Buffer Object
+	 */
+	public final void setUseBufferObject(boolean useBufferObject) {
+		mUseBufferObject = useBufferObject;
+	}
+
+	public final boolean usesBufferObject() {
+		return mUseBufferObject;
+	}
+
+	// Called from the OpenGL Thread. Binds the Buffer Object to GL_ARRAY_BUFFER, and uploads the data if needed
+	/* package */ final void bindBufferObject(GLStateCache stateCache) {
+		final int size = mCurrentIndex * Display.BYTES_PER_FLOAT;
+		if (mBufferId[0] == NO_BUFFER) {
+			sGL.glGenBuffers(1, mBufferId, 0);
+			stateCache.invalidateArrayBuffer();	// the name of a deleted buffer can be reused
+			stateCache.bindArrayBuffer(mBufferId[0]);
+			mFloatBuffer.position(0);
+			sGL.glBufferData(GLES20.GL_ARRAY_BUFFER, size, mFloatBuffer, GLES20.GL_STATIC_DRAW);
+			mBufferSize = size;
+		} else {
+			stateCache.bindArrayBuffer(mBufferId[0]);
+			if (mBufferDirty) {
+				mFloatBuffer.position(0);
+				if (size == mBufferSize) {
+					sGL.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, size, mFloatBuffer);
+				} else {	// finalizeBuffer called again with another size
+					sGL.glBufferData(GLES20.GL_ARRAY_BUFFER, size, mFloatBuffer, GLES20.GL_STATIC_DRAW);
+					mBufferSize = size;
+				}
+			}
+		}
+		mBufferDirty = false;
+	}
+
+	// Called from the OpenGL Thread, when the list is drawn without its Buffer Object
+	/* package */ final void deleteBufferObject(GLStateCache stateCache) {
+		if (mBufferId[0] != NO_BUFFER) {
+			sGL.glDeleteBuffers(1, mBufferId, 0);
+			mBufferId[0] = NO_BUFFER;
+			stateCache.invalidateArrayBuffer();	// the name can be reused by glGenBuffers
+		}
+	}
+
+	/**
+	 * Releases the buffers of the list, which must not be drawn anymore. Can be called from any thread:
+	 * the Buffer Object is deleted by the OpenGL Thread at the beginning of the next frame.
+	 */
 	public final void destroyFloatBuffer() {
+		if (mBufferId[0] != NO_BUFFER) {
+			releaseBufferObject(mBufferId[0]);
+			mBufferId[0] = NO_BUFFER;
+		}
 		mFloatBuffer.clear();
 	}
 
+	// Called from any thread: the Buffer Object is deleted by the OpenGL Thread at the beginning of the next frame
+	/* package */ static void releaseBufferObject(int bufferId) {
+		synchronized (sReleasedLock) {
+			if (sNbReleasedBuffers == sReleasedBuffers.length) {
+				int[] releasedBuffers = new int[sNbReleasedBuffers * 2];
+				System.arraycopy(sReleasedBuffers, 0, releasedBuffers, 0, sNbReleasedBuffers);
+				sReleasedBuffers = releasedBuffers;
+			}
+			sReleasedBuffers[sNbReleasedBuffers++] = bufferId;
+		}
+	}
+
+	// Called from the OpenGL Thread at the beginning of each frame
+	/* package */ static void deleteReleasedBufferObjects(GLStateCache stateCache) {
+		synchronized (sReleasedLock) {
+			if (sNbReleasedBuffers > 0) {
+				sGL.glDeleteBuffers(sNbReleasedBuffers, sReleasedBuffers, 0);
+				sNbReleasedBuffers = 0;
+				stateCache.invalidateArrayBuffer();
+			}
+		}
+	}
+
+	// Called from the OpenGL Thread when a new context is created: the names of the lost context are meaningless
+	/* package */ static void forgetReleasedBufferObjects() {
+		synchronized (sReleasedLock) {
+			sNbReleasedBuffers = 0;
+		}
+	}
+
 }
@@ -0,0 +1,88 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Texture shared through a TextureCache. It keeps how to create its Bitmap, so it can be deleted from the GPU
+ * at any time and uploaded again the next time it is drawn.
+ */
+/* package */ class CachedTexture extends Texture {
+
+    private final TextureCache mCache;
+    private final String mKey;
+    private final TextureCache.BitmapProvider mProvider;
+    private int mRefCount;      // guarded by the cache
+    private long mDrawnFrame;   // OpenGL Thread only
+
+    /* package */ CachedTexture(@NonNull TextureCache cache, @NonNull String key, @NonNull TextureCache.BitmapProvider provider) {
+        super(0, 0, null);
+        mCache = cache;
+        mKey = key;
+        mProvider = provider;
+    }
+
+    /* package */ String getKey() {
+        return mKey;
+    }
+
+    /* package */ int getRefCount() {
+        return mRefCount;
+    }
+
+    /* package */ void setRefCount(int refCount) {
+        mRefCount = refCount;
+    }
+
+    /* package */ long getDrawnFrame() {
+        return mDrawnFrame;
+    }
+
+    /* package */ void setDrawnFrame(long frameNumber) {
+        mDrawnFrame = frameNumber;
+    }
+
+    @Override
+    /* package */ void onBind() {
+        mCache.onDrawn(this);
+    }
+
+    @Override
+    protected boolean bindTexture() {
+        Bitmap bitmap = mProvider.createBitmap();
+        if (bitmap == null) {
+            return false;
+        }
+        setBitmap(bitmap.getWidth(), bitmap.getHeight(), bitmap);
+        if (!super.bindTexture()) {
+            return false;
+        }
+        mCache.onUploaded(this);
+        return true;
+    }
+
+    /**
+     * Gives back the reference obtained from the TextureCache. The texture stays in the cache,
+     * and is deleted from the GPU when the memory budget is exceeded.
+     */
+    @Override
+    public void release() {
+        mCache.release(this);
+    }
+}
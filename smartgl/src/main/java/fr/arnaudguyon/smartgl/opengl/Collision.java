@@ -37,6 +37,6 @@ public abstract class Collision {
     //public abstract float getPosX();
     //public abstract float getPosY();
     public boolean displayAtScreen() {
-        return (mOwner.isVisible() && (mOwner.getAlpha() > 0));
+        return (mOwner.isVisibleInHierarchy() && (mOwner.getWorldAlpha() > 0));
     }
 }
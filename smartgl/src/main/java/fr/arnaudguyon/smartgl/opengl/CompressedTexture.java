@@ -0,0 +1,233 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.opengl.GLES20;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RawRes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import fr.arnaudguyon.smartgl.tools.CompressedImage;
+
+/**
+ * Texture uploaded as it is stored on the GPU (ETC1, ETC2, ASTC), from a KTX or PKM file.
+ * The data never goes through a Bitmap: less memory, faster loading, and less bandwidth when rendering.
+ * <p>
+ * The same picture can be given in several formats, like "planet_astc.ktx", "planet_etc2.ktx", "planet_etc1.pkm".
+ * The best format supported by the device is chosen when the texture is bound, on the OpenGL Thread,
+ * and only this file is read.
+ */
+public class CompressedTexture extends Texture {
+
+    private static final String TAG = "CompressedTexture";
+    private static final GL sGL = GLBackend.get();
+
+    private Context mContext;
+    private String[] mAssetNames;
+    private int[] mRawIds;
+    private int[] mFormats;
+    private int mFormat;
+    private CompressedImage mImage;
+
+    /**
+     * The image is released once uploaded: if the texture is unbound later (released, evicted by a TextureCache,
+     * or lost with the OpenGL context), it can't be uploaded again. Use the asset or raw constructors for textures
+     * that must survive that, they read their file again.
+     * @param image an already parsed image, for example read in a background thread
+     */
+    public CompressedTexture(@NonNull CompressedImage image) {
+        super(image.getWidth(), image.getHeight(), null);
+        mImage = image;
+    }
+
+    /**
+     * @param context    any context
+     * @param assetNames the same picture in different formats, in the assets of the application
+     */
+    public CompressedTexture(@NonNull Context context, @NonNull String... assetNames) {
+        super(0, 0, null);
+        mContext = context.getApplicationContext();
+        mAssetNames = assetNames;
+        readHeaders(assetNames.length);
+    }
+
+    /**
+     * @param context any context
+     * @param rawIds  the same picture in different formats, in res/raw
+     */
+    public CompressedTexture(@NonNull Context context, @NonNull @RawRes int... rawIds) {
+        super(0, 0, null);
+        mContext = context.getApplicationContext();
+        mRawIds = rawIds;
+        readHeaders(rawIds.length);
+    }
+
+    /**
+     * @return the internal format of the uploaded texture, or of the preloaded image, 0 if unknown yet
+     */
+    public int getFormat() {
+        return (mImage != null) ? mImage.getFormat() : mFormat;
+    }
+
+    @Override
+    protected boolean bindTexture() {
+        if (mImage == null) {
+            mImage = loadBestImage();
+        }
+        if (mImage == null) {
+            return false;
+        }
+        CompressedImage image = mImage;
+        mImage = null;
+        mFormat = image.getFormat();
+        createGLTexture();
+        final int nbLevels = image.getNbLevels();
+        int byteSize = 0;
+        for (int level = 0; level < nbLevels; ++level) {
+            ByteBuffer data = image.getLevel(level);
+            byteSize += data.remaining();
+            if (!data.isDirect()) {
+                ByteBuffer direct = ByteBuffer.allocateDirect(data.remaining()).order(ByteOrder.nativeOrder());
+                direct.put(data);
+                direct.flip();
+                data = direct;
+            }
+            sGL.glCompressedTexImage2D(GLES20.GL_TEXTURE_2D, level, mFormat, image.getLevelWidth(level), image.getLevelHeight(level), 0, data.remaining(), data);
+        }
+        setHasMipmaps((nbLevels > 1) && isCompleteMipChain(image));
+        setByteSize(byteSize);
+        return true;
+    }
+
+    @Override
+    protected boolean canGenerateMipmaps() {
+        return false;
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        mImage = null;
+    }
+
+    // An incomplete chain would make the texture black with a mipmap filter
+    private static boolean isCompleteMipChain(CompressedImage image) {
+        final int size = Math.max(image.getWidth(), image.getHeight());
+        final int nbLevels = 32 - Integer.numberOfLeadingZeros(size);
+        return (image.getNbLevels() >= nbLevels);
+    }
+
+    private int getNbSources() {
+        return (mAssetNames != null) ? mAssetNames.length : ((mRawIds != null) ? mRawIds.length : 0);
+    }
+
+    private InputStream openSource(int index) throws IOException {
+        if (mAssetNames != null) {
+            return mContext.getAssets().open(mAssetNames[index]);
+        } else {
+            return mContext.getResources().openRawResource(mRawIds[index]);
+        }
+    }
+
+    private int getSourceLength(int index) {
+        if (mRawIds != null) {
+            try {
+                AssetFileDescriptor descriptor = mContext.getResources().openRawResourceFd(mRawIds[index]);
+                if (descriptor != null) {
+                    final long length = descriptor.getLength();
+                    descriptor.close();
+                    return (int) length;
+                }
+            } catch (Exception e) {
+                // compressed in the apk, size unknown
+            }
+        }
+        return 0;
+    }
+
+    // Only the headers: the formats of all the sources, and the size of the picture
+    private void readHeaders(int nbSources) {
+        mFormats = new int[nbSources];
+        byte[] header = new byte[CompressedImage.HEADER_SIZE];
+        for (int i = 0; i < nbSources; ++i) {
+            InputStream inputStream = null;
+            try {
+                inputStream = openSource(i);
+                int size = 0;
+                int read;
+                while ((size < header.length) && ((read = inputStream.read(header, size, header.length - size)) > 0)) {
+                    size += read;
+                }
+                CompressedImage image = CompressedImage.parseHeader(ByteBuffer.wrap(header, 0, size));
+                mFormats[i] = image.getFormat();
+                if (getWidth() == 0) {
+                    setSize(image.getWidth(), image.getHeight());   // all the sources are the same picture
+                }
+            } catch (IOException e) {
+                // unreadable source, its format stays 0 and it will never be chosen
+            } finally {
+                close(inputStream);
+            }
+        }
+    }
+
+    // Called from bindTexture(), on the OpenGL Thread or the thread of the TextureLoader
+    private @Nullable CompressedImage loadBestImage() {
+        if (getNbSources() == 0) {
+            return null;
+        }
+        GLCapabilities capabilities = getUploadCapabilities();
+        if (capabilities == null) {
+            return null;
+        }
+        final int index = capabilities.chooseCompressedFormat(mFormats);
+        if (index < 0) {
+            Log.e(TAG, "no supported compressed format");
+            return null;
+        }
+        InputStream inputStream = null;
+        try {
+            inputStream = openSource(index);
+            CompressedImage image = CompressedImage.parse(CompressedImage.read(inputStream, getSourceLength(index)));
+            setSize(image.getWidth(), image.getHeight());
+            return image;
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            close(inputStream);
+        }
+        return null;
+    }
+
+    private static void close(@Nullable InputStream inputStream) {
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
+import fr.arnaudguyon.smartgl.math.Bounds3D;
+
 /**
  * @author Arnaud Guyon
  * 
@@ -85,12 +87,50 @@ public class Face3D {
 		return mVisible;
 	}
 
-	public void releaseResources() {
+	/**
+	 * @return the bounds of the VertexList in local coordinates, or null if there are no vertices yet
+	 */
+	final public Bounds3D getBounds() {
+		return (mVertexList != null) ? mVertexList.getBounds() : null;
+	}
 
-		if (mTexture != null) {
-			mTexture.unbindTexture();
+	/**
+	 * Uploads the Vertex, UV, Color and Normal lists of this face to GPU Buffer Objects (VBO)
+	 * @param useBufferObjects true to use Buffer Objects
+	 * @see AttribList#setUseBufferObject(boolean)
+	 */
+	public void setUseBufferObjects(boolean useBufferObjects) {
+		if (mVertexList != null) {
+			mVertexList.setUseBufferObject(useBufferObjects);
+		}
+		if (mUVList != null) {
+			mUVList.setUseBufferObject(useBufferObjects);
+		}
+		if (mColorList != null) {
+			mColorList.setUseBufferObject(useBufferObjects);
+		}
+		if (mNormalList != null) {
+			mNormalList.setUseBufferObject(useBufferObjects);
+		}
+	}
+
+	/**
+	 * Deletes the texture from the GPU. A texture shared by a TextureCache is not deleted: the face gives back
+	 * its reference and forgets the texture, the cache deletes it once it is not used anymore.
+	 */
+	/* package */ void releaseTexture() {
+		if (mTexture instanceof CachedTexture) {
+			mTexture.release();
 			mTexture = null;
+		} else if (mTexture != null) {
+			mTexture.unbindTexture();
 		}
+	}
+
+	public void releaseResources() {
+
+		releaseTexture();
+		mTexture = null;
 
 		if (mVertexList != null) {
 			mVertexList.destroyFloatBuffer();
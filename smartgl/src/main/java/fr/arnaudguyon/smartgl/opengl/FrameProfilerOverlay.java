@@ -0,0 +1,114 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import fr.arnaudguyon.smartgl.tools.FrameProfiler;
+
+/**
+ * Pass drawing the duration of the last frames as a bar graph, on top of the scene if it is the last pass.
+ * Green bars are under the frame budget, orange ones under twice the budget, red ones above.
+ * The horizontal line is the budget, the top of the graph twice the budget.
+ * Add it to the renderer like any other pass, and enable the profiler.
+ */
+public class FrameProfilerOverlay extends RenderPassSprite {
+
+    private static final int NB_BARS = 60;
+    private static final long DEFAULT_BUDGET_NANOS = 1000000000L / 60;
+
+    private static final int COLOR_BACKGROUND = 0x80000000;
+    private static final int COLOR_GOOD = 0xFF40E040;
+    private static final int COLOR_SLOW = 0xFFFFA000;
+    private static final int COLOR_BAD = 0xFFFF3030;
+    private static final int COLOR_BUDGET = 0xC0FFFFFF;
+
+    private final FrameProfiler mProfiler;
+    private final Sprite[] mBars = new Sprite[NB_BARS];
+    private final Texture mGoodTexture;
+    private final Texture mSlowTexture;
+    private final Texture mBadTexture;
+    private long mBudgetNanos = DEFAULT_BUDGET_NANOS;
+
+    /**
+     * @param profiler the profiler of the renderer, see OpenGLRenderer.getProfiler()
+     * @param x        left of the graph, in pixels
+     * @param y        top of the graph, in pixels
+     * @param width    width of the graph
+     * @param height   height of the graph
+     */
+    public FrameProfilerOverlay(@NonNull FrameProfiler profiler, int x, int y, int width, int height) {
+        mProfiler = profiler;
+        mGoodTexture = createTexture(COLOR_GOOD);
+        mSlowTexture = createTexture(COLOR_SLOW);
+        mBadTexture = createTexture(COLOR_BAD);
+
+        Sprite background = new Sprite(width, height);
+        background.setTexture(createTexture(COLOR_BACKGROUND));
+        background.setPos(x, y);
+        background.setDisplayPriority(2);
+        addSprite(background);
+
+        final int barWidth = Math.max(1, width / NB_BARS);
+        for (int i = 0; i < NB_BARS; ++i) {
+            Sprite bar = new Sprite(barWidth, height);
+            bar.setPivot(0, 1);     // grows from the bottom
+            bar.setPos(x + width - (i + 1) * barWidth, y + height);
+            bar.setScale(1, 0);
+            bar.setTexture(mGoodTexture);
+            bar.setDisplayPriority(1);
+            addSprite(bar);
+            mBars[i] = bar;
+        }
+
+        Sprite budget = new Sprite(width, 1);
+        budget.setTexture(createTexture(COLOR_BUDGET));
+        budget.setPos(x, y + height / 2);
+        budget.setDisplayPriority(0);
+        addSprite(budget);
+    }
+
+    /**
+     * @param budgetNanos duration of a frame at the target frame rate, 1/60s by default
+     */
+    public void setBudget(long budgetNanos) {
+        mBudgetNanos = Math.max(1, budgetNanos);
+    }
+
+    // Called by the renderer before drawing the pass, on the OpenGL thread. The newest frame is on the right.
+    /* package */ void update() {
+        for (int i = 0; i < NB_BARS; ++i) {
+            final long duration = mProfiler.getSample(FrameProfiler.FRAME, i);
+            Sprite bar = mBars[i];
+            bar.setScale(1, Math.min(1, duration / (2f * mBudgetNanos)));
+            if (duration <= mBudgetNanos) {
+                bar.setTexture(mGoodTexture);
+            } else if (duration <= 2 * mBudgetNanos) {
+                bar.setTexture(mSlowTexture);
+            } else {
+                bar.setTexture(mBadTexture);
+            }
+        }
+    }
+
+    private static Texture createTexture(int color) {
+        Bitmap bitmap = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(color);
+        return new Texture(bitmap);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import androidx.annotation.NonNull;
+
+import fr.arnaudguyon.smartgl.math.Bounds3D;
+
+/**
+ * The 6 planes of the view volume, extracted from a projection * camera matrix.
+ * Used to skip the objects which are entirely out of the screen.
+ */
+public class Frustum {
+
+    private static final int NB_PLANES = 6;
+
+    // a, b, c, d for each plane: a*x + b*y + c*z + d >= 0 inside the frustum. Normals are normalized.
+    private final float[] mPlanes = new float[NB_PLANES * 4];
+
+    /**
+     * Extracts the planes of a view projection matrix (Gribb / Hartmann method)
+     * @param viewProjMatrix projection * camera matrix, column major (like android.opengl.Matrix)
+     */
+    public void set(@NonNull float[] viewProjMatrix) {
+        final float[] m = viewProjMatrix;
+        setPlane(0, m[3] + m[0], m[7] + m[4], m[11] + m[8], m[15] + m[12]);   // left
+        setPlane(1, m[3] - m[0], m[7] - m[4], m[11] - m[8], m[15] - m[12]);   // right
+        setPlane(2, m[3] + m[1], m[7] + m[5], m[11] + m[9], m[15] + m[13]);   // bottom
+        setPlane(3, m[3] - m[1], m[7] - m[5], m[11] - m[9], m[15] - m[13]);   // top
+        setPlane(4, m[3] + m[2], m[7] + m[6], m[11] + m[10], m[15] + m[14]);  // near
+        setPlane(5, m[3] - m[2], m[7] - m[6], m[11] - m[10], m[15] - m[14]);  // far
+    }
+
+    private void setPlane(int plane, float a, float b, float c, float d) {
+        float length = (float) Math.sqrt(a * a + b * b + c * c);
+        if (length == 0) {
+            length = 1;
+        }
+        final int index = plane * 4;
+        mPlanes[index] = a / length;
+        mPlanes[index + 1] = b / length;
+        mPlanes[index + 2] = c / length;
+        mPlanes[index + 3] = d / length;
+    }
+
+    /**
+     * Tests local bounds transformed by a model matrix. The bounding sphere is tested first,
+     * then the transformed box when the sphere crosses a plane.
+     * @param bounds      the bounds in local coordinates
+     * @param modelMatrix the transformation of the object
+     * @return false if the bounds are entirely outside of the frustum
+     */
+    public boolean intersects(@NonNull Bounds3D bounds, @NonNull float[] modelMatrix) {
+        if (bounds.isEmpty()) {
+            return false;
+        }
+        final float[] m = modelMatrix;
+        final float cx = bounds.getCenterX();
+        final float cy = bounds.getCenterY();
+        final float cz = bounds.getCenterZ();
+        final float wx = m[0] * cx + m[4] * cy + m[8] * cz + m[12];
+        final float wy = m[1] * cx + m[5] * cy + m[9] * cz + m[13];
+        final float wz = m[2] * cx + m[6] * cy + m[10] * cz + m[14];
+
+        final float scale2X = m[0] * m[0] + m[1] * m[1] + m[2] * m[2];
+        final float scale2Y = m[4] * m[4] + m[5] * m[5] + m[6] * m[6];
+        final float scale2Z = m[8] * m[8] + m[9] * m[9] + m[10] * m[10];
+        final float radius = bounds.getRadius() * (float) Math.sqrt(Math.max(scale2X, Math.max(scale2Y, scale2Z)));
+
+        final float ex = (bounds.getMaxX() - bounds.getMinX()) / 2;
+        final float ey = (bounds.getMaxY() - bounds.getMinY()) / 2;
+        final float ez = (bounds.getMaxZ() - bounds.getMinZ()) / 2;
+
+        for (int plane = 0; plane < NB_PLANES; ++plane) {
+            final int index = plane * 4;
+            final float a = mPlanes[index];
+            final float b = mPlanes[index + 1];
+            final float c = mPlanes[index + 2];
+            final float distance = a * wx + b * wy + c * wz + mPlanes[index + 3];
+            if (distance >= radius) {
+                continue;   // sphere entirely inside this plane
+            }
+            if (distance < -radius) {
+                return false;
+            }
+            // projected half size of the transformed box on the plane normal
+            final float extent = ex * Math.abs(a * m[0] + b * m[1] + c * m[2])
+                    + ey * Math.abs(a * m[4] + b * m[5] + c * m[6])
+                    + ez * Math.abs(a * m[8] + b * m[9] + c * m[10]);
+            if (distance < -extent) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.graphics.Bitmap;
+
+import java.nio.Buffer;
+
+import javax.microedition.khronos.egl.EGLContext;
+
+/**
+ * The OpenGL calls made by SmartGL. They all go through the instance returned by GLBackend.get(), so that the
+ * renderer can run without a GPU: AndroidGL sends them to GLES20 / GLES30, NullGL drops them, RecordingGL counts them.
+ * The methods have the same names and parameters as in GLES20 / GLES30 (GLUtils for texImage2D).
+ */
+public interface GL {
+
+    // EGL
+
+    /**
+     * @return the OpenGL context of the calling thread, used as a key for the objects that can't be shared
+     */
+    EGLContext eglGetCurrentContext();
+
+    // State
+
+    void glEnable(int cap);
+
+    void glDisable(int cap);
+
+    void glBlendFunc(int sfactor, int dfactor);
+
+    void glCullFace(int mode);
+
+    void glDepthFunc(int func);
+
+    void glClearDepthf(float depth);
+
+    void glClearColor(float red, float green, float blue, float alpha);
+
+    void glClear(int mask);
+
+    void glViewport(int x, int y, int width, int height);
+
+    void glGetFloatv(int pname, float[] params, int offset);
+
+    String glGetString(int name);
+
+    void glFinish();
+
+    // Shaders and programs
+
+    int glCreateShader(int type);
+
+    void glShaderSource(int shader, String string);
+
+    void glCompileShader(int shader);
+
+    void glGetShaderiv(int shader, int pname, int[] params, int offset);
+
+    String glGetShaderInfoLog(int shader);
+
+    void glDeleteShader(int shader);
+
+    int glCreateProgram();
+
+    void glAttachShader(int program, int shader);
+
+    void glDetachShader(int program, int shader);
+
+    void glLinkProgram(int program);
+
+    void glGetProgramiv(int program, int pname, int[] params, int offset);
+
+    String glGetProgramInfoLog(int program);
+
+    void glDeleteProgram(int program);
+
+    void glUseProgram(int program);
+
+    int glGetAttribLocation(int program, String name);
+
+    int glGetUniformLocation(int program, String name);
+
+    void glProgramParameteri(int program, int pname, int value);
+
+    void glGetProgramBinary(int program, int bufSize, int[] length, int lengthOffset, int[] binaryFormat, int binaryFormatOffset, Buffer binary);
+
+    void glProgramBinary(int program, int binaryFormat, Buffer binary, int length);
+
+    // Uniforms and attributes
+
+    void glUniform1f(int location, float x);
+
+    void glUniform3fv(int location, int count, float[] v, int offset);
+
+    void glUniform4fv(int location, int count, float[] v, int offset);
+
+    void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset);
+
+    void glEnableVertexAttribArray(int index);
+
+    void glDisableVertexAttribArray(int index);
+
+    void glVertexAttrib4f(int index, float x, float y, float z, float w);
+
+    void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, Buffer ptr);
+
+    void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset);
+
+    void glVertexAttribDivisor(int index, int divisor);
+
+    // Buffers
+
+    void glGenBuffers(int n, int[] buffers, int offset);
+
+    void glDeleteBuffers(int n, int[] buffers, int offset);
+
+    void glBindBuffer(int target, int buffer);
+
+    void glBufferData(int target, int size, Buffer data, int usage);
+
+    void glBufferSubData(int target, int offset, int size, Buffer data);
+
+    // Textures
+
+    void glGenTextures(int n, int[] textures, int offset);
+
+    void glDeleteTextures(int n, int[] textures, int offset);
+
+    void glActiveTexture(int texture);
+
+    void glBindTexture(int target, int texture);
+
+    void glTexParameterf(int target, int pname, float param);
+
+    void glTexParameteri(int target, int pname, int param);
+
+    void glGenerateMipmap(int target);
+
+    void texImage2D(int target, int level, Bitmap bitmap, int border);
+
+    void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data);
+
+    // Drawing
+
+    void glDrawArrays(int mode, int first, int count);
+
+    void glDrawArraysInstanced(int mode, int first, int count, int instanceCount);
+
+    void glDrawElements(int mode, int count, int type, Buffer indices);
+
+    void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels);
+
+    // Sync
+
+    long glFenceSync(int condition, int flags);
+
+    int glClientWaitSync(long sync, int flags, long timeout);
+
+    void glDeleteSync(long sync);
+}
@@ -0,0 +1,57 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Chooses once the GL used by the whole library. It is kept in static final fields, so that only one implementation
+ * is ever loaded: the calls stay monomorphic and are inlined by the JIT.
+ * AndroidGL by default. To run without a GPU, set the system property "smartgl.gl" before using SmartGL:
+ * "null" for a NullGL, "recording" for a RecordingGL, or the class name of another GL with a public empty constructor.
+ */
+public final class GLBackend {
+
+    public static final String PROPERTY = "smartgl.gl";
+
+    private static final GL sGL = create();
+
+    private GLBackend() {
+    }
+
+    /**
+     * @return the GL which receives all the OpenGL calls of SmartGL
+     */
+    public static @NonNull GL get() {
+        return sGL;
+    }
+
+    private static GL create() {
+        final String name = System.getProperty(PROPERTY);
+        if ((name == null) || name.isEmpty() || "android".equals(name)) {
+            return new AndroidGL();
+        } else if ("null".equals(name)) {
+            return new NullGL();
+        } else if ("recording".equals(name)) {
+            return new RecordingGL();
+        }
+        try {
+            return (GL) Class.forName(name).getConstructor().newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("invalid " + PROPERTY + ": " + name, e);
+        }
+    }
+}
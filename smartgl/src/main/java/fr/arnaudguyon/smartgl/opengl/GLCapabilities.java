@@ -0,0 +1,131 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.opengl.GLES11Ext;
+import android.opengl.GLES20;
+import android.os.Build;
+
+import fr.arnaudguyon.smartgl.tools.CompressedFormat;
+
+/**
+ * What the current OpenGL context can do. Read by the renderer when the surface is created.
+ * Even if SmartGL asks for an OpenGL ES 2 context, most devices return a 3.x context, whose functions
+ * are available through GLES30 from Android 4.3 (API 18).
+ */
+public class GLCapabilities {
+
+    private static final GL sGL = GLBackend.get();
+
+    private int mMajorVersion = 2;
+    private int mMinorVersion = 0;
+    private String mExtensions = "";
+    private float mMaxAnisotropy = 1;
+
+    // Called from the OpenGL Thread
+    /* package */ void load() {
+        String version = sGL.glGetString(GLES20.GL_VERSION);   // "OpenGL ES 3.2 vendor specific"
+        mMajorVersion = 2;
+        mMinorVersion = 0;
+        if (version != null) {
+            final String prefix = "OpenGL ES ";
+            int index = version.indexOf(prefix);
+            if (index >= 0) {
+                index += prefix.length();
+                if (version.length() >= index + 3) {
+                    final char major = version.charAt(index);
+                    final char minor = version.charAt(index + 2);
+                    if (Character.isDigit(major) && Character.isDigit(minor)) {
+                        mMajorVersion = major - '0';
+                        mMinorVersion = minor - '0';
+                    }
+                }
+            }
+        }
+        String extensions = sGL.glGetString(GLES20.GL_EXTENSIONS);
+        mExtensions = (extensions != null) ? (" " + extensions + " ") : "";
+
+        mMaxAnisotropy = 1;
+        if (hasExtension("GL_EXT_texture_filter_anisotropic")) {
+            float[] maxAnisotropy = new float[1];
+            sGL.glGetFloatv(GLES11Ext.GL_MAX_TEXTURE_MAX_ANISOTROPY_EXT, maxAnisotropy, 0);
+            mMaxAnisotropy = Math.max(1, maxAnisotropy[0]);
+        }
+    }
+
+    public int getMajorVersion() {
+        return mMajorVersion;
+    }
+
+    public int getMinorVersion() {
+        return mMinorVersion;
+    }
+
+    /**
+     * @return true if the context is OpenGL ES 3.0 or more, and the GLES30 functions can be called
+     */
+    public boolean isGLES30() {
+        return (mMajorVersion >= 3) && (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2);
+    }
+
+    /**
+     * @param extension name of the extension, like "GL_EXT_texture_filter_anisotropic"
+     * @return true if the context supports the extension
+     */
+    public boolean hasExtension(String extension) {
+        return mExtensions.contains(" " + extension + " ");
+    }
+
+    /**
+     * Instanced drawing needs glVertexAttribDivisor and glDrawArraysInstanced, which Android only exposes
+     * in GLES30. The GL_EXT / GL_ANGLE instanced_arrays extensions of OpenGL ES 2 have no Java binding.
+     * @return true if instances can be drawn with a single draw call
+     */
+    public boolean supportsInstancing() {
+        return isGLES30();
+    }
+
+    /**
+     * @return the max anisotropy of texture filtering, 1 if the device doesn't support anisotropic filtering
+     */
+    public float getMaxAnisotropy() {
+        return mMaxAnisotropy;
+    }
+
+    /**
+     * OpenGL ES 2 restricts non power of 2 textures to clamp wrapping and no mipmaps, unless GL_OES_texture_npot is supported
+     * @return true if non power of 2 textures can use mipmaps and repeat
+     */
+    public boolean supportsFullNPOT() {
+        return (mMajorVersion >= 3) || hasExtension("GL_OES_texture_npot");
+    }
+
+    /**
+     * @param format OpenGL internal format of a compressed texture, see {@link CompressedFormat}
+     * @return true if textures of this format can be uploaded
+     */
+    public boolean isCompressedFormatSupported(int format) {
+        return CompressedFormat.isSupported(format, mMajorVersion, mExtensions.trim());
+    }
+
+    /**
+     * @param formats the formats available for the same picture
+     * @return the index of the best supported format, -1 if none is supported
+     */
+    public int chooseCompressedFormat(int[] formats) {
+        return CompressedFormat.chooseBest(formats, mMajorVersion, mExtensions.trim());
+    }
+}
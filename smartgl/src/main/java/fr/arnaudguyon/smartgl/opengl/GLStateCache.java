@@ -0,0 +1,271 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.opengl.GLES20;
+
+/**
+ * Keeps track of the OpenGL state set by the renderer, and drops the calls that would not change it
+ * (glUseProgram, glBindTexture, glEnableVertexAttribArray, blend, depth test, cull face, array buffer).
+ * Redundant calls are not free: the driver validates them anyway.
+ * Used from the OpenGL Thread only. Call invalidate() after changing the OpenGL state without this class.
+ */
+public class GLStateCache {
+
+    private static final GL sGL = GLBackend.get();
+
+    private static final int UNKNOWN = -1;
+    private static final int MAX_TEXTURE_UNITS = 8;
+    private static final int MAX_VERTEX_ATTRIBS = 16;
+
+    // Tri-state for capabilities: UNKNOWN, 0 (disabled) or 1 (enabled)
+    private int mProgram;
+    private int mActiveUnit;
+    private final int[] mTextures = new int[MAX_TEXTURE_UNITS];
+    private final int[] mAttribArrays = new int[MAX_VERTEX_ATTRIBS];
+    private int mBlend;
+    private int mBlendSrc;
+    private int mBlendDst;
+    private int mDepthTest;
+    private int mCullFace;
+    private int mCullFaceMode;
+    private int mArrayBuffer;
+
+    private int mIssuedCalls;
+    private int mSkippedCalls;
+    private long mNbProgramSwitches;    // since the creation, not reset by resetCounters
+    private long mNbTextureBinds;
+
+    public GLStateCache() {
+        invalidate();
+    }
+
+    /**
+     * Forgets the whole state, so that the next calls are all sent to OpenGL.
+     * Must be called when the OpenGL context is (re)created, or after raw OpenGL calls.
+     */
+    public void invalidate() {
+        mProgram = UNKNOWN;
+        mActiveUnit = UNKNOWN;
+        for (int i = 0; i < MAX_TEXTURE_UNITS; ++i) {
+            mTextures[i] = UNKNOWN;
+        }
+        for (int i = 0; i < MAX_VERTEX_ATTRIBS; ++i) {
+            mAttribArrays[i] = UNKNOWN;
+        }
+        mBlend = UNKNOWN;
+        mBlendSrc = UNKNOWN;
+        mBlendDst = UNKNOWN;
+        mDepthTest = UNKNOWN;
+        mCullFace = UNKNOWN;
+        mCullFaceMode = UNKNOWN;
+        mArrayBuffer = UNKNOWN;
+    }
+
+    /**
+     * Forgets the texture bound to the active unit, for example after a Texture has been created
+     * (glGenTextures + glBindTexture) or deleted.
+     */
+    public void invalidateTexture() {
+        if (mActiveUnit == UNKNOWN) {
+            for (int i = 0; i < MAX_TEXTURE_UNITS; ++i) {
+                mTextures[i] = UNKNOWN;
+            }
+        } else if (mActiveUnit < MAX_TEXTURE_UNITS) {
+            mTextures[mActiveUnit] = UNKNOWN;
+        }
+    }
+
+    /**
+     * Forgets the Buffer Object bound to GL_ARRAY_BUFFER, for example after a buffer has been deleted.
+     */
+    public void invalidateArrayBuffer() {
+        mArrayBuffer = UNKNOWN;
+    }
+
+    public void useProgram(int programId) {
+        if (programId == mProgram) {
+            ++mSkippedCalls;
+            return;
+        }
+        sGL.glUseProgram(programId);
+        mProgram = programId;
+        ++mIssuedCalls;
+        ++mNbProgramSwitches;
+    }
+
+    /**
+     * @param unit texture unit number, starting at 0 (GL_TEXTURE0)
+     */
+    public void activeTexture(int unit) {
+        if (unit == mActiveUnit) {
+            ++mSkippedCalls;
+            return;
+        }
+        sGL.glActiveTexture(GLES20.GL_TEXTURE0 + unit);
+        mActiveUnit = unit;
+        ++mIssuedCalls;
+    }
+
+    /**
+     * Binds a GL_TEXTURE_2D to the active unit
+     * @param textureId the OpenGL texture name
+     */
+    public void bindTexture(int textureId) {
+        final int unit = mActiveUnit;
+        final boolean tracked = (unit != UNKNOWN) && (unit < MAX_TEXTURE_UNITS);
+        if (tracked && (mTextures[unit] == textureId)) {
+            ++mSkippedCalls;
+            return;
+        }
+        sGL.glBindTexture(GLES20.GL_TEXTURE_2D, textureId);
+        if (tracked) {
+            mTextures[unit] = textureId;
+        }
+        ++mIssuedCalls;
+        ++mNbTextureBinds;
+    }
+
+    public void enableVertexAttribArray(int attribId) {
+        if (attribId < 0) {
+            return;
+        }
+        final boolean tracked = (attribId < MAX_VERTEX_ATTRIBS);
+        if (tracked && (mAttribArrays[attribId] == 1)) {
+            ++mSkippedCalls;
+            return;
+        }
+        sGL.glEnableVertexAttribArray(attribId);
+        if (tracked) {
+            mAttribArrays[attribId] = 1;
+        }
+        ++mIssuedCalls;
+    }
+
+    public void disableVertexAttribArray(int attribId) {
+        if (attribId < 0) {
+            return;
+        }
+        final boolean tracked = (attribId < MAX_VERTEX_ATTRIBS);
+        if (tracked && (mAttribArrays[attribId] == 0)) {
+            ++mSkippedCalls;
+            return;
+        }
+        sGL.glDisableVertexAttribArray(attribId);
+        if (tracked) {
+            mAttribArrays[attribId] = 0;
+        }
+        ++mIssuedCalls;
+    }
+
+    public void setBlend(boolean enabled) {
+        mBlend = setCapability(GLES20.GL_BLEND, mBlend, enabled);
+    }
+
+    public void blendFunc(int srcFactor, int dstFactor) {
+        if ((srcFactor == mBlendSrc) && (dstFactor == mBlendDst)) {
+            ++mSkippedCalls;
+            return;
+        }
+        sGL.glBlendFunc(srcFactor, dstFactor);
+        mBlendSrc = srcFactor;
+        mBlendDst = dstFactor;
+        ++mIssuedCalls;
+    }
+
+    public void setDepthTest(boolean enabled) {
+        mDepthTest = setCapability(GLES20.GL_DEPTH_TEST, mDepthTest, enabled);
+    }
+
+    public void setCullFace(boolean enabled) {
+        mCullFace = setCapability(GLES20.GL_CULL_FACE, mCullFace, enabled);
+    }
+
+    /**
+     * @param mode GL_FRONT, GL_BACK or GL_FRONT_AND_BACK
+     */
+    public void cullFace(int mode) {
+        if (mode == mCullFaceMode) {
+            ++mSkippedCalls;
+            return;
+        }
+        sGL.glCullFace(mode);
+        mCullFaceMode = mode;
+        ++mIssuedCalls;
+    }
+
+    /**
+     * Binds a Buffer Object to GL_ARRAY_BUFFER, 0 to use client side arrays
+     * @param bufferId the OpenGL buffer name
+     */
+    public void bindArrayBuffer(int bufferId) {
+        if (bufferId == mArrayBuffer) {
+            ++mSkippedCalls;
+            return;
+        }
+        sGL.glBindBuffer(GLES20.GL_ARRAY_BUFFER, bufferId);
+        mArrayBuffer = bufferId;
+        ++mIssuedCalls;
+    }
+
+    private int setCapability(int capability, int current, boolean enabled) {
+        final int wanted = enabled ? 1 : 0;
+        if (wanted == current) {
+            ++mSkippedCalls;
+            return current;
+        }
+        if (enabled) {
+            sGL.glEnable(capability);
+        } else {
+            sGL.glDisable(capability);
+        }
+        ++mIssuedCalls;
+        return wanted;
+    }
+
+    /**
+     * @return the number of state changes sent to OpenGL since the last resetCounters()
+     */
+    public int getIssuedCalls() {
+        return mIssuedCalls;
+    }
+
+    /**
+     * @return the number of redundant state changes dropped since the last resetCounters()
+     */
+    public int getSkippedCalls() {
+        return mSkippedCalls;
+    }
+
+    /**
+     * @return the number of glUseProgram sent to OpenGL since the creation
+     */
+    public long getNbProgramSwitches() {
+        return mNbProgramSwitches;
+    }
+
+    /**
+     * @return the number of glBindTexture sent to OpenGL through this cache since the creation
+     */
+    public long getNbTextureBinds() {
+        return mNbTextureBinds;
+    }
+
+    public void resetCounters() {
+        mIssuedCalls = 0;
+        mSkippedCalls = 0;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+/**
+ * Shader with per instance attributes, used by InstancedObject3D
+ */
+public interface IShaderInstanced {
+	/**
+	 * @return location of the "attribute mat4" of the instance transformation. The 4 columns use 4 consecutive locations.
+	 */
+	int getInstanceMatrixAttribId();
+
+	/**
+	 * @return location of the "attribute vec4" of the instance color
+	 */
+	int getInstanceColorAttribId();
+}
@@ -0,0 +1,328 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.opengl.GLES20;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Vector;
+
+import fr.arnaudguyon.smartgl.math.Bounds3D;
+import fr.arnaudguyon.smartgl.math.Mat4;
+import fr.arnaudguyon.smartgl.tools.FrameProfiler;
+
+/**
+ * Draws the same mesh many times (trees, asteroids, units...), each instance with its own transformation and color.
+ * With an IShaderInstanced shader (see RenderPassObject3D.ShaderType.SHADER_TEXTURE_INSTANCED) on an OpenGL ES 3
+ * context, each face is drawn once for all the instances with glDrawArraysInstanced. Otherwise each instance
+ * is drawn separately, without going through the render loop.
+ * The transformation of the InstancedObject3D itself (setPos, setRotation, setScale) applies to all the instances.
+ */
+public class InstancedObject3D extends Object3D {
+
+	private static final GL sGL = GLBackend.get();
+
+	/** 4x4 transformation matrix (column major, like android.opengl.Matrix) followed by the RGBA color */
+	public static final int FLOATS_PER_INSTANCE = 20;
+	private static final int COLOR_OFFSET = 16;
+	private static final int STRIDE = FLOATS_PER_INSTANCE * Display.BYTES_PER_FLOAT;
+	private static final int NO_BUFFER = 0;
+
+	private float[] mInstanceData = new float[0];
+	private FloatBuffer mInstanceBuffer;
+	private int mNbInstances;
+	private boolean mInstancesDirty = true;
+	private boolean mBoundsDirty = true;
+	private final Bounds3D mInstancesBounds = new Bounds3D();
+
+	private final int[] mBufferId = { NO_BUFFER };
+	private int mBufferSize;	// in bytes, as allocated on the GPU
+	private final float[] mTmpMatrix = new float[16];
+
+	/**
+	 * @param mesh the object to repeat, for example loaded with WavefrontModel. Its faces are shared,
+	 *             the mesh itself doesn't need to be added to a RenderPass.
+	 * @param nbInstances initial number of instances, at the origin and white
+	 */
+	public InstancedObject3D(@NonNull Object3D mesh, int nbInstances) {
+		super();
+		setFaces(new Vector<>(mesh.getFaces()));
+		setNbInstances(nbInstances);
+	}
+
+	/**
+	 * Changes the number of instances. The existing instances are kept, the new ones are at the origin and white.
+	 * @param nbInstances the number of instances to draw
+	 */
+	public void setNbInstances(int nbInstances) {
+		final int neededFloats = nbInstances * FLOATS_PER_INSTANCE;
+		if (neededFloats > mInstanceData.length) {
+			float[] data = new float[neededFloats];
+			System.arraycopy(mInstanceData, 0, data, 0, mNbInstances * FLOATS_PER_INSTANCE);
+			mInstanceData = data;
+			mInstanceBuffer = ByteBuffer.allocateDirect(neededFloats * Display.BYTES_PER_FLOAT).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		}
+		for (int i = mNbInstances; i < nbInstances; ++i) {
+			final int offset = i * FLOATS_PER_INSTANCE;
+			Mat4.setIdentity(mInstanceData, offset);
+			for (int c = 0; c < 4; ++c) {
+				mInstanceData[offset + COLOR_OFFSET + c] = 1;
+			}
+		}
+		mNbInstances = nbInstances;
+		invalidateInstances();
+	}
+
+	public int getNbInstances() {
+		return mNbInstances;
+	}
+
+	/**
+	 * Sets the transformation of several instances at once
+	 * @param matrices      4x4 matrices, 16 floats each, column major
+	 * @param srcOffset     index of the first float to read in matrices
+	 * @param firstInstance index of the first instance to change
+	 * @param count         number of instances to change
+	 */
+	public void setInstanceMatrices(@NonNull float[] matrices, int srcOffset, int firstInstance, int count) {
+		int dst = firstInstance * FLOATS_PER_INSTANCE;
+		for (int i = 0; i < count; ++i) {
+			System.arraycopy(matrices, srcOffset, mInstanceData, dst, 16);
+			srcOffset += 16;
+			dst += FLOATS_PER_INSTANCE;
+		}
+		invalidateInstances();
+	}
+
+	/**
+	 * Moves several instances at once, keeping their rotation and scale
+	 * @param positions     x, y, z for each instance
+	 * @param srcOffset     index of the first float to read in positions
+	 * @param firstInstance index of the first instance to change
+	 * @param count         number of instances to change
+	 */
+	public void setInstancePositions(@NonNull float[] positions, int srcOffset, int firstInstance, int count) {
+		int dst = firstInstance * FLOATS_PER_INSTANCE + 12;
+		for (int i = 0; i < count; ++i) {
+			mInstanceData[dst] = positions[srcOffset];
+			mInstanceData[dst + 1] = positions[srcOffset + 1];
+			mInstanceData[dst + 2] = positions[srcOffset + 2];
+			srcOffset += 3;
+			dst += FLOATS_PER_INSTANCE;
+		}
+		invalidateInstances();
+	}
+
+	/**
+	 * Sets the color of several instances at once. The color multiplies the texture (ShaderTextureInstanced).
+	 * @param colors        r, g, b, a for each instance, between 0 and 1
+	 * @param srcOffset     index of the first float to read in colors
+	 * @param firstInstance index of the first instance to change
+	 * @param count         number of instances to change
+	 */
+	public void setInstanceColors(@NonNull float[] colors, int srcOffset, int firstInstance, int count) {
+		int dst = firstInstance * FLOATS_PER_INSTANCE + COLOR_OFFSET;
+		for (int i = 0; i < count; ++i) {
+			System.arraycopy(colors, srcOffset, mInstanceData, dst, 4);
+			srcOffset += 4;
+			dst += FLOATS_PER_INSTANCE;
+		}
+		invalidateInstances();
+	}
+
+	/**
+	 * Direct access to the packed instance data, FLOATS_PER_INSTANCE floats per instance.
+	 * Call invalidateInstances() after modifying it.
+	 * @return the internal array, which may be larger than needed
+	 */
+	public float[] getInstanceData() {
+		return mInstanceData;
+	}
+
+	/**
+	 * Must be called after modifying getInstanceData(), so that the data is uploaded again before the next draw
+	 */
+	public void invalidateInstances() {
+		mInstancesDirty = true;
+		mBoundsDirty = true;
+	}
+
+	/**
+	 * @return the bounds of all the instances, in the coordinates of this object
+	 */
+	@Override
+	public @Nullable Bounds3D getBounds() {
+		Bounds3D meshBounds = super.getBounds();
+		if ((meshBounds == null) || (mNbInstances == 0)) {
+			return null;
+		}
+		if (mBoundsDirty) {
+			computeInstancesBounds(meshBounds);
+			mBoundsDirty = false;
+			onBoundsChanged();
+		}
+		return mInstancesBounds;
+	}
+
+	// union of the mesh box transformed by each instance matrix
+	private void computeInstancesBounds(@NonNull Bounds3D meshBounds) {
+		final float cx = meshBounds.getCenterX();
+		final float cy = meshBounds.getCenterY();
+		final float cz = meshBounds.getCenterZ();
+		final float ex = (meshBounds.getMaxX() - meshBounds.getMinX()) / 2;
+		final float ey = (meshBounds.getMaxY() - meshBounds.getMinY()) / 2;
+		final float ez = (meshBounds.getMaxZ() - meshBounds.getMinZ()) / 2;
+		final float[] m = mInstanceData;
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+		for (int i = 0; i < mNbInstances; ++i) {
+			final int o = i * FLOATS_PER_INSTANCE;
+			final float x = m[o] * cx + m[o + 4] * cy + m[o + 8] * cz + m[o + 12];
+			final float y = m[o + 1] * cx + m[o + 5] * cy + m[o + 9] * cz + m[o + 13];
+			final float z = m[o + 2] * cx + m[o + 6] * cy + m[o + 10] * cz + m[o + 14];
+			final float rx = Math.abs(m[o]) * ex + Math.abs(m[o + 4]) * ey + Math.abs(m[o + 8]) * ez;
+			final float ry = Math.abs(m[o + 1]) * ex + Math.abs(m[o + 5]) * ey + Math.abs(m[o + 9]) * ez;
+			final float rz = Math.abs(m[o + 2]) * ex + Math.abs(m[o + 6]) * ey + Math.abs(m[o + 10]) * ez;
+			minX = Math.min(minX, x - rx);
+			minY = Math.min(minY, y - ry);
+			minZ = Math.min(minZ, z - rz);
+			maxX = Math.max(maxX, x + rx);
+			maxY = Math.max(maxY, y + ry);
+			maxZ = Math.max(maxZ, z + rz);
+		}
+		final float[] corners = { minX, minY, minZ, maxX, maxY, maxZ };
+		mInstancesBounds.set(corners, 3, 2);
+	}
+
+	/**
+	 * Draws all the instances of a face. Called by the renderer instead of glDrawArrays, once the face is set up.
+	 * @param renderer        the renderer
+	 * @param shader          the shader of the RenderPass
+	 * @param projModelMatrix projection * object matrix, already sent to the shader
+	 * @param nbVertices      number of vertices of the face (TRIANGLE_STRIP)
+	 */
+	/* package */ void drawInstances(@NonNull OpenGLRenderer renderer, @NonNull Shader shader, @NonNull float[] projModelMatrix, int nbVertices) {
+		if (mNbInstances == 0) {
+			return;
+		}
+		final float[] data = mInstanceData;
+		FrameProfiler profiler = renderer.getProfiler();
+		if (shader instanceof IShaderInstanced) {
+			IShaderInstanced instancedShader = (IShaderInstanced) shader;
+			final int matrixId = instancedShader.getInstanceMatrixAttribId();
+			final int colorId = instancedShader.getInstanceColorAttribId();
+			GLStateCache stateCache = renderer.getStateCache();
+			if (renderer.getCapabilities().supportsInstancing()) {
+				bindInstanceBuffer(stateCache);
+				for (int column = 0; column < 4; ++column) {
+					setInstanceAttrib(stateCache, matrixId + column, column * 4);
+				}
+				setInstanceAttrib(stateCache, colorId, COLOR_OFFSET);
+				sGL.glDrawArraysInstanced(GLES20.GL_TRIANGLE_STRIP, 0, nbVertices, mNbInstances);
+				profiler.countDrawCall(nbVertices * mNbInstances);
+				// other shaders may use the same locations for per vertex attributes
+				for (int column = 0; column < 4; ++column) {
+					sGL.glVertexAttribDivisor(matrixId + column, 0);
+					stateCache.disableVertexAttribArray(matrixId + column);
+				}
+				sGL.glVertexAttribDivisor(colorId, 0);
+				stateCache.disableVertexAttribArray(colorId);
+			} else {	// one draw per instance, with constant attributes
+				for (int column = 0; column < 4; ++column) {
+					stateCache.disableVertexAttribArray(matrixId + column);
+				}
+				stateCache.disableVertexAttribArray(colorId);
+				for (int i = 0; i < mNbInstances; ++i) {
+					final int o = i * FLOATS_PER_INSTANCE;
+					sGL.glVertexAttrib4f(matrixId, data[o], data[o + 1], data[o + 2], data[o + 3]);
+					sGL.glVertexAttrib4f(matrixId + 1, data[o + 4], data[o + 5], data[o + 6], data[o + 7]);
+					sGL.glVertexAttrib4f(matrixId + 2, data[o + 8], data[o + 9], data[o + 10], data[o + 11]);
+					sGL.glVertexAttrib4f(matrixId + 3, data[o + 12], data[o + 13], data[o + 14], data[o + 15]);
+					sGL.glVertexAttrib4f(colorId, data[o + 16], data[o + 17], data[o + 18], data[o + 19]);
+					sGL.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, nbVertices);
+					profiler.countDrawCall(nbVertices);
+				}
+			}
+		} else {	// any other shader: the instance matrix goes in the projection matrix, colors are ignored
+			final int projMatrixId = shader.getProjMatrixId();
+			for (int i = 0; i < mNbInstances; ++i) {
+				Mat4.multiply(mTmpMatrix, 0, projModelMatrix, 0, data, i * FLOATS_PER_INSTANCE);
+				sGL.glUniformMatrix4fv(projMatrixId, 1, false, mTmpMatrix, 0);
+				sGL.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, nbVertices);
+				profiler.countDrawCall(nbVertices);
+			}
+			profiler.count(FrameProfiler.UNIFORM_UPLOADS, mNbInstances);
+			shader.getUniformCache().invalidate(projMatrixId);
+		}
+	}
+
+	private void setInstanceAttrib(GLStateCache stateCache, int attribId, int floatOffset) {
+		stateCache.enableVertexAttribArray(attribId);
+		sGL.glVertexAttribPointer(attribId, 4, GLES20.GL_FLOAT, false, STRIDE, floatOffset * Display.BYTES_PER_FLOAT);
+		sGL.glVertexAttribDivisor(attribId, 1);
+	}
+
+	// Uploads the instance data to a Buffer Object if it changed, and binds it to GL_ARRAY_BUFFER
+	private void bindInstanceBuffer(GLStateCache stateCache) {
+		if (mBufferId[0] == NO_BUFFER) {
+			sGL.glGenBuffers(1, mBufferId, 0);
+			stateCache.invalidateArrayBuffer();
+			mBufferSize = 0;
+		}
+		stateCache.bindArrayBuffer(mBufferId[0]);
+		if (mInstancesDirty) {
+			final int nbFloats = mNbInstances * FLOATS_PER_INSTANCE;
+			final int size = nbFloats * Display.BYTES_PER_FLOAT;
+			mInstanceBuffer.position(0);
+			mInstanceBuffer.put(mInstanceData, 0, nbFloats).position(0);
+			if (size > mBufferSize) {
+				sGL.glBufferData(GLES20.GL_ARRAY_BUFFER, size, mInstanceBuffer, GLES20.GL_DYNAMIC_DRAW);
+				mBufferSize = size;
+			} else {
+				sGL.glBufferSubData(GLES20.GL_ARRAY_BUFFER, 0, size, mInstanceBuffer);
+			}
+			mInstancesDirty = false;
+		}
+	}
+
+	/**
+	 * Releases the instance buffer, from any thread: it is deleted by the OpenGL Thread at the beginning of the next frame.
+	 * The faces belong to the mesh, and are released with it: only the list of this object is cleared.
+	 */
+	@Override
+	public void releaseResources() {
+		if (mBufferId[0] != NO_BUFFER) {
+			AttribList.releaseBufferObject(mBufferId[0]);
+			mBufferId[0] = NO_BUFFER;
+		}
+		getFaces().clear();
+	}
+
+	@Override
+	public void forceReleaseAll() {
+		releaseResources();		// the textures belong to the mesh
+	}
+
+	@Override
+	public void releaseTextures() {
+		// the textures belong to the mesh
+	}
+}
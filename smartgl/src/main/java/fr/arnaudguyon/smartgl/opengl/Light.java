@@ -20,4 +20,45 @@ package fr.arnaudguyon.smartgl.opengl;
  */
 
 public abstract class Light {
+
+    private volatile long mVersion = UniformCache.newVersion();
+
+    /**
+     * The values are compared with the ones of the previous call, so that the arrays of the color or direction
+     * can also be modified directly, without calling invalidate().
+     * @return a number which changes each time the light changes, so that shaders upload it only once
+     */
+    public long getVersion() {
+        if (copyIfChanged()) {
+            mVersion = UniformCache.newVersion();
+        }
+        return mVersion;
+    }
+
+    /**
+     * Forces the shaders to upload the light again
+     */
+    public void invalidate() {
+        mVersion = UniformCache.newVersion();
+    }
+
+    /**
+     * Called from the OpenGL Thread by getVersion()
+     * @return true if a value of the light differs from the copy made by the previous call, and updates the copy
+     */
+    protected abstract boolean copyIfChanged();
+
+    /**
+     * @return true if the arrays were different, then destination is a copy of source
+     */
+    protected static boolean copyIfChanged(float[] source, float[] destination) {
+        boolean changed = false;
+        for (int i = 0; i < destination.length; ++i) {
+            if (source[i] != destination[i]) {
+                destination[i] = source[i];
+                changed = true;
+            }
+        }
+        return changed;
+    }
 }
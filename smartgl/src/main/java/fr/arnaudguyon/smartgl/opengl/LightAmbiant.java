@@ -24,12 +24,23 @@ import androidx.annotation.FloatRange;
 public class LightAmbiant extends Light {
 
     private SmartColor mColor;
+    private final float[] mUsedColor = new float[4];
 
     public LightAmbiant(@FloatRange(from=0, to=1) float red, @FloatRange(from=0, to=1) float green, @FloatRange(from=0, to=1) float blue) {
         mColor = new SmartColor(red, green, blue, 1);
     }
 
+    public void setColor(@FloatRange(from=0, to=1) float red, @FloatRange(from=0, to=1) float green, @FloatRange(from=0, to=1) float blue) {
+        mColor = new SmartColor(red, green, blue, 1);
+        invalidate();
+    }
+
     public float[] getArray() {
         return mColor.getArray();
     }
+
+    @Override
+    protected boolean copyIfChanged() {
+        return copyIfChanged(mColor.getArray(), mUsedColor);
+    }
 }
@@ -27,6 +27,8 @@ public class LightParallel extends Light {
 
     private SmartColor mColor;
     private Vector3D mDirection;
+    private final float[] mUsedColor = new float[4];
+    private final float[] mUsedDirection = new float[3];
 
     public LightParallel(@NonNull SmartColor color, @NonNull Vector3D direction) {
         mColor = color;
@@ -34,6 +36,17 @@ public class LightParallel extends Light {
         mDirection.normalize();
     }
 
+    public void setColor(@NonNull SmartColor color) {
+        mColor = color;
+        invalidate();
+    }
+
+    public void setDirection(@NonNull Vector3D direction) {
+        mDirection = direction;
+        mDirection.normalize();
+        invalidate();
+    }
+
     public @NonNull SmartColor getColor() {
         return mColor;
     }
@@ -42,4 +55,11 @@ public class LightParallel extends Light {
         return mDirection;
     }
 
+    @Override
+    protected boolean copyIfChanged() {
+        final boolean colorChanged = copyIfChanged(mColor.getArray(), mUsedColor);
+        final boolean directionChanged = copyIfChanged(mDirection.getArray(), mUsedDirection);
+        return colorChanged || directionChanged;
+    }
+
 }
@@ -0,0 +1,323 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.graphics.Bitmap;
+import android.opengl.GLES20;
+import android.opengl.GLES30;
+
+import java.nio.Buffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.microedition.khronos.egl.EGLContext;
+
+/**
+ * A GL which draws nothing, to run the renderer on a desktop JVM (tests, benchmarks of the CPU side).
+ * Creations return new names, shaders compile and link, and the attributes and uniforms are found.
+ * The context is an OpenGL ES 2.0 one without extension: the GLES30 paths are not used.
+ */
+public class NullGL implements GL {
+
+    private static final int MAX_ATTRIBS = 16;
+
+    private final AtomicInteger mNextName = new AtomicInteger(1);     // 0 is never a valid name
+    private final AtomicInteger mNextAttrib = new AtomicInteger();
+    private final AtomicInteger mNextUniform = new AtomicInteger();
+
+    @Override
+    public EGLContext eglGetCurrentContext() {
+        return null;
+    }
+
+    @Override
+    public void glEnable(int cap) {
+    }
+
+    @Override
+    public void glDisable(int cap) {
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+    }
+
+    @Override
+    public void glClear(int mask) {
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+    }
+
+    @Override
+    public String glGetString(int name) {
+        switch (name) {
+            case GLES20.GL_VERSION:
+                return "OpenGL ES 2.0 NullGL";
+            case GLES20.GL_RENDERER:
+                return "NullGL";
+            case GLES20.GL_VENDOR:
+                return "SmartGL";
+            case GLES20.GL_EXTENSIONS:
+                return "";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void glFinish() {
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        return mNextName.getAndIncrement();
+    }
+
+    @Override
+    public void glShaderSource(int shader, String string) {
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+        params[offset] = (pname == GLES20.GL_COMPILE_STATUS) ? GLES20.GL_TRUE : 0;
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        return "";
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+    }
+
+    @Override
+    public int glCreateProgram() {
+        return mNextName.getAndIncrement();
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+    }
+
+    @Override
+    public void glDetachShader(int program, int shader) {
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, int[] params, int offset) {
+        params[offset] = (pname == GLES20.GL_LINK_STATUS) ? GLES20.GL_TRUE : 0;
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        return "";
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        return mNextAttrib.getAndIncrement() % MAX_ATTRIBS;
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        return mNextUniform.getAndIncrement();
+    }
+
+    @Override
+    public void glProgramParameteri(int program, int pname, int value) {
+    }
+
+    @Override
+    public void glGetProgramBinary(int program, int bufSize, int[] length, int lengthOffset, int[] binaryFormat, int binaryFormatOffset, Buffer binary) {
+        length[lengthOffset] = 0;
+    }
+
+    @Override
+    public void glProgramBinary(int program, int binaryFormat, Buffer binary, int length) {
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, float[] v, int offset) {
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+    }
+
+    @Override
+    public void glVertexAttrib4f(int index, float x, float y, float z, float w) {
+    }
+
+    @Override
+    public void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, Buffer ptr) {
+    }
+
+    @Override
+    public void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset) {
+    }
+
+    @Override
+    public void glVertexAttribDivisor(int index, int divisor) {
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        genNames(n, buffers, offset);
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        genNames(n, textures, offset);
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+    }
+
+    @Override
+    public void glGenerateMipmap(int target) {
+    }
+
+    @Override
+    public void texImage2D(int target, int level, Bitmap bitmap, int border) {
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+    }
+
+    @Override
+    public void glDrawArraysInstanced(int mode, int first, int count, int instanceCount) {
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+    }
+
+    @Override
+    public long glFenceSync(int condition, int flags) {
+        return 1;
+    }
+
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout) {
+        return GLES30.GL_ALREADY_SIGNALED;
+    }
+
+    @Override
+    public void glDeleteSync(long sync) {
+    }
+
+    private void genNames(int n, int[] names, int offset) {
+        for (int i = 0; i < n; ++i) {
+            names[offset + i] = mNextName.getAndIncrement();
+        }
+    }
+}
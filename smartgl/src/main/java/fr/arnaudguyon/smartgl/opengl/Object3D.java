@@ -15,7 +15,7 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
-import android.opengl.Matrix;
+import fr.arnaudguyon.smartgl.math.Mat4;
 
 public class Object3D extends RenderObject {
 
@@ -104,24 +104,7 @@ public class Object3D extends RenderObject {
 
 	@Override
 	final public void computeMatrix(float[] matrix) {
-		Matrix.setIdentityM(matrix, 0);
-		Matrix.translateM(matrix, 0, mPosX, mPosY, mPosZ);
-
-		if (mRotX != 0) {
-			Matrix.rotateM(matrix, 0, mRotX, 1, 0, 0);
-		}
-
-		if (mRotY != 0) {
-			Matrix.rotateM(matrix, 0, mRotY, 0, 1, 0);
-		}
-
-		if (mRotZ != 0) {
-			Matrix.rotateM(matrix, 0, mRotZ, 0, 0, 1);
-		}
-
-		if ((mScaleX != 1) || (mScaleY != 1) || (mScaleZ != 1)) {
-			Matrix.scaleM(matrix, 0, mScaleX, mScaleY, mScaleZ);
-		}
+		Mat4.setTRS(matrix, mPosX, mPosY, mPosZ, mRotX, mRotY, mRotZ, mScaleX, mScaleY, mScaleZ);
 	}
 
 	@Override
@@ -22,6 +22,7 @@ package fr.arnaudguyon.smartgl.opengl;
 public class OpenGLCamera {
 
     private boolean mDirty = true;
+    private long mVersion = UniformCache.newVersion();
 
     private float mFOV = 56;
     private float mNear = 0.01f;
@@ -39,13 +40,13 @@ public class OpenGLCamera {
         mPosX = x;
         mPosY = y;
         mPosZ = z;
-        mDirty = true;
+        setChanged();
     }
     public void setRotation(float x, float y, float z) {
         mRotX = x;
         mRotY = y;
         mRotZ = z;
-        mDirty = true;
+        setChanged();
     }
 
     /**
@@ -54,12 +55,24 @@ public class OpenGLCamera {
      */
     public void setFOV(float fov) {
         mFOV = fov;
-        mDirty = true;
+        setChanged();
     }
     public float getFOV() {
         return mFOV;
     }
 
+    private void setChanged() {
+        mDirty = true;
+        mVersion = UniformCache.newVersion();
+    }
+
+    /**
+     * @return a number which changes each time the position, rotation or projection of the camera changes
+     */
+    public long getVersion() {
+        return mVersion;
+    }
+
     void setDirty(boolean dirty) {
         mDirty = dirty;
     }
@@ -69,14 +82,14 @@ public class OpenGLCamera {
 
     public void setNear(float near) {
         mNear = near;
-        mDirty = true;
+        setChanged();
     }
     public float getNear() {
         return mNear;
     }
     public void setFar(float far) {
         mFar = far;
-        mDirty = true;
+        setChanged();
     }
     public float getFar() {
         return mFar;
@@ -19,6 +19,7 @@ import java.lang.ref.WeakReference;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 
 import javax.microedition.khronos.egl.EGLConfig;
@@ -28,16 +29,20 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
-import android.opengl.Matrix;
 import android.os.Handler;
-import android.os.SystemClock;
 import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import fr.arnaudguyon.smartgl.R;
+import fr.arnaudguyon.smartgl.math.Bounds3D;
+import fr.arnaudguyon.smartgl.math.Mat4;
 import fr.arnaudguyon.smartgl.math.Vector2D;
 import fr.arnaudguyon.smartgl.tools.Assert;
+import fr.arnaudguyon.smartgl.tools.FrameJobSystem;
+import fr.arnaudguyon.smartgl.tools.FrameProfiler;
+import fr.arnaudguyon.smartgl.tools.Tracer;
 
 /**
  * Base class for the Renderer. Handles the list of the RenderObject to display, the camera.
@@ -46,19 +51,33 @@ import fr.arnaudguyon.smartgl.tools.Assert;
 
 public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
+    private static final GL sGL = GLBackend.get();
+
     private WeakReference<OpenGLView> mOpenGLView;
     private int mWidth, mHeight;
 
     private long mPreviousTime = 0;
     private long mFrameDurationRaw = 0;
+    private long mFrameTime;
     private float mFrameDurationSmoothed = 0.02f;
 
     private float[] mProj3DMatrix = new float[16];
     private float[] mProj2DMatrix = new float[16];
-    private float[] mTmpMatrix = new float[16];
-
-    private Vector<RenderPass> mRenderPasses;
-    private boolean mInitDone;
+    private float[] mViewMatrix = new float[16];
+    private long mProj3DVersion = UniformCache.NO_VERSION;
+    private long mProj2DVersion = UniformCache.NO_VERSION;
+
+    private final RenderList<RenderPass> mRenderPasses = new RenderList<>();
+    private final SceneMutationQueue mMutations = new SceneMutationQueue();
+    private final SceneMutationQueue.Handler mMutationHandler = new SceneMutationQueue.Handler() {
+        @Override
+        public void onMutation(int type, Object owner, Object target, boolean flag) {
+            applyMutation(type, (RenderPass) owner, target, flag);
+        }
+    };
+    private volatile Thread mOpenGLThread;
+    private final Object mFrameLock = new Object();     // only waited by onPause, for the frame in progress
+    private volatile boolean mInitDone;
     private float[] mClearColor = {0.2f, 0.5f, 0.7f, 1};    // RGBA
     private OpenGLCamera mCamera;
 
@@ -69,10 +88,41 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
     private int mUvAttribId = -1;
     private int mColorAttribId = -1;
     private int mProjMatrixId = -1;
+    private final GLStateCache mStateCache = new GLStateCache();
+    private final GLCapabilities mCapabilities = new GLCapabilities();
+    private TextureSampler mDefaultSampler = TextureSampler.fromQuality(TextureSampler.Quality.LOW);
+    private final TextureLoader mTextureLoader = new TextureLoader(this);
+    private volatile TextureCache mTextureCache;
+    private final RenderQueue mRenderQueue = new RenderQueue();
+    private final Frustum mFrustum = new Frustum();
+    private boolean mFrustumCulling = true;
+    private boolean mScreenCulling = true;
+    private int mNbCulledObjects;
+    private volatile FrameJobSystem mJobSystem;
+    private volatile SimulationLoop mSimulationLoop;
+    private long mFrameNumber;
+    private long mNbRenderQueues;      // RenderQueues drawn, to call onPreRenderObject once per object and queue
+    private final Vector<Sprite> mToucheableSprites = new Vector<>();
+    private RenderObject[] mJobObjects = new RenderObject[64];     // top level objects of all the passes
+    private final FrameJobSystem.RangeJob mPrepareJob = new FrameJobSystem.RangeJob() {
+        @Override
+        public void run(int from, int to) {
+            for (int i = from; i < to; ++i) {
+                prepareObject(mJobObjects[i]);
+            }
+        }
+    };
+    private SpriteBatch mSpriteBatch;   // created on first use by a batching RenderPassSprite
+    private final FrameProfiler mProfiler = new FrameProfiler();
+    private long mProfiledTextureBinds;     // counters at the beginning of the frame
+    private long mProfiledProgramSwitches;
+    private long mProfiledUniformUploads;
 
     private Boolean mDoubleSided = true;
 
+    private static final int JOB_CHUNK_SIZE = 8;    // top level objects per chunk of the job system
     private static final float[] DEFAULT_AMBIANT_LIGHT = {1, 1, 1, 1};    // RVBA
+    private static final long DEFAULT_AMBIANT_LIGHT_VERSION = UniformCache.newVersion();
     private LightAmbiant mLightAmbiant;
     private LightParallel mLightParallel;
 
@@ -84,7 +134,6 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
     public OpenGLRenderer(Context context) {
         super();
-        mRenderPasses = new Vector<>();
 //		mTouchHelper = new TouchHelper();
     }
 
@@ -104,6 +153,29 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
         return mFrameDurationRaw;
     }
 
+    /**
+     * @return the date of the current frame in milliseconds, read once per frame, to use for the animations instead of
+     * reading the clock for each object
+     */
+    public long getFrameTime() {
+        return mFrameTime;
+    }
+
+    /**
+     * @return the OpenGL state tracker used while rendering. Raw OpenGL state changes (for example in
+     * onPreRenderPass) must be followed by a call to its invalidate() method.
+     */
+    public GLStateCache getStateCache() {
+        return mStateCache;
+    }
+
+    /**
+     * @return what the OpenGL context supports (version, extensions). Valid once the surface is created.
+     */
+    public GLCapabilities getCapabilities() {
+        return mCapabilities;
+    }
+
     public float[] getProjection3DMatrix() {
         return mProj3DMatrix;
     }
@@ -139,6 +211,114 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
         return mCamera;
     }
 
+    /**
+     * Frustum culling: the 3D objects which are entirely out of the screen are not drawn (they are still ticked).
+     * Enabled by default. Disable it if a shader moves the vertices outside of the bounds of the objects.
+     * @param frustumCulling true to skip the objects out of the view
+     */
+    public void setFrustumCulling(boolean frustumCulling) {
+        mFrustumCulling = frustumCulling;
+    }
+
+    /**
+     * Screen culling: the 2D objects (Sprites and containers) which are
+     * entirely out of the screen are not drawn (they are still ticked). Enabled by default.
+     * @param screenCulling true to skip the objects out of the screen
+     */
+    public void setScreenCulling(boolean screenCulling) {
+        mScreenCulling = screenCulling;
+    }
+
+    /**
+     * Runs the tick, matrices, culling and depth of the objects on several threads at the beginning of each frame,
+     * then draws them on the OpenGL thread. Each top level object of the RenderPasses is a unit of work, so a scene
+     * made of one big container is not parallelized. See the threading contract of RenderObject.tick().
+     * The job system is not shut down by the renderer.
+     * @param jobSystem the job system, null (default) to do everything on the OpenGL thread
+     */
+    public void setJobSystem(FrameJobSystem jobSystem) {
+        mJobSystem = jobSystem;
+    }
+
+    public FrameJobSystem getJobSystem() {
+        return mJobSystem;
+    }
+
+    /**
+     * Renders the transformations published by a SimulationLoop: at the beginning of each frame, the bound objects
+     * are moved to the interpolation of the two last simulation steps. The snapshot exchange is lock free.
+     * The loop is paused and resumed with the view.
+     * @param simulationLoop the loop, null to stop applying it
+     */
+    public void setSimulationLoop(SimulationLoop simulationLoop) {
+        mSimulationLoop = simulationLoop;
+    }
+
+    public SimulationLoop getSimulationLoop() {
+        return mSimulationLoop;
+    }
+
+    /**
+     * @return the profiler of the frames, disabled by default. See also FrameProfilerOverlay.
+     */
+    public FrameProfiler getProfiler() {
+        return mProfiler;
+    }
+
+    /**
+     * @return the number of objects skipped by the culling during the last frame
+     */
+    public int getNbCulledObjects() {
+        return mNbCulledObjects;
+    }
+
+    /**
+     * Filtering of the textures which don't have their own TextureSampler. LOW by default.
+     * MEDIUM and HIGH generate mipmaps, which avoid aliasing and save bandwidth on distant 3D objects.
+     * @param quality the preset
+     */
+    public void setTextureQuality(@NonNull TextureSampler.Quality quality) {
+        mDefaultSampler = TextureSampler.fromQuality(quality);
+    }
+
+    /**
+     * @param sampler used by the textures which don't have their own TextureSampler
+     */
+    public void setDefaultSampler(@NonNull TextureSampler sampler) {
+        mDefaultSampler = sampler;
+    }
+
+    public TextureSampler getDefaultSampler() {
+        return mDefaultSampler;
+    }
+
+    /**
+     * @return the loader which decodes and uploads textures in the background
+     */
+    public TextureLoader getTextureLoader() {
+        return mTextureLoader;
+    }
+
+    /**
+     * The unused textures of the cache are deleted at the start of the frames, on the OpenGL Thread,
+     * and the drawn ones become the most recently used.
+     * @param textureCache the cache of the textures drawn by this renderer, or null
+     */
+    public void setTextureCache(@Nullable TextureCache textureCache) {
+        TextureCache previous = mTextureCache;
+        if (previous != null) {
+            previous.setStateCache(null);
+        }
+        if (textureCache != null) {
+            textureCache.setStateCache(mStateCache);
+        }
+        mTextureCache = textureCache;
+    }
+
+    public @Nullable TextureCache getTextureCache() {
+        return mTextureCache;
+    }
+
     public void setDoubleSided(boolean doubleSided) {
         mDoubleSided = doubleSided;
     }
@@ -148,38 +328,118 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
         mDebugMode = true;
     }
 
+    /*
+     * The scene modifications below, and the ones of the RenderPasses, can be called from any thread.
+     * On the OpenGL thread (onTick, tick...) they apply immediately. From the other threads they are queued
+     * without lock in a single queue, and applied in order by the OpenGL thread at the beginning of the next frame,
+     * before onTick.
+     */
+
     public void setRenderPasses(Vector<RenderPass> renderPasses) {
-        synchronized (this) {
-            mRenderPasses = renderPasses;
+        mutate(SceneMutationQueue.CLEAR, null, false);
+        if (renderPasses != null) {
+            for (int i = 0; i < renderPasses.size(); ++i) {
+                mutate(SceneMutationQueue.ADD, renderPasses.get(i), false);
+            }
         }
     } // TODO: release lists inside programs when setting null
 
-    public void addRenderPass(RenderPass renderPass) {
-        synchronized (this) {
-            mRenderPasses.add(renderPass);
-        }
+    public void addRenderPass(@NonNull RenderPass renderPass) {
+        mutate(SceneMutationQueue.ADD, renderPass, false);
     }
 
     void clearRenderPasses() {
-        synchronized (this) {
-            mRenderPasses.clear();
+        mutate(SceneMutationQueue.CLEAR, null, false);
+    }
+
+    public void removeRenderPass(@NonNull RenderPass renderPass) {
+        mutate(SceneMutationQueue.REMOVE, renderPass, false);
+    }
+
+    /**
+     * Removes an object from all the passes
+     */
+    public void removeObject(@NonNull RenderObject renderObject) {
+        mutate(SceneMutationQueue.REMOVE, renderObject, false);
+    }
+
+    /**
+     * Shows or hides an object, at the beginning of the next frame if called from another thread than the OpenGL thread
+     */
+    public void setVisible(@NonNull RenderObject renderObject, boolean visible) {
+        mutate(SceneMutationQueue.SET_VISIBLE, renderObject, visible);
+    }
+
+    /**
+     * @return the passes, read-only, to read on the OpenGL thread only
+     */
+    public @NonNull List<RenderPass> getRenderPasses() {
+        return mRenderPasses;
+    }
+
+    /**
+     * @return true if called from the thread drawing the frames
+     */
+    public boolean isOpenGLThread() {
+        return (Thread.currentThread() == mOpenGLThread);
+    }
+
+    private void mutate(int type, Object target, boolean flag) {
+        if (isOpenGLThread()) {
+            applyMutation(type, null, target, flag);
+        } else {
+            mMutations.post(type, null, target, flag);
         }
     }
 
-    public void removeRenderPass(RenderPass renderPass) {
-        synchronized (this) {
-            mRenderPasses.remove(renderPass);
+    // Called by a RenderPass added to this renderer, from another thread than the OpenGL thread
+    /* package */ void postMutation(int type, @NonNull RenderPass renderPass, RenderObject target) {
+        mMutations.post(type, renderPass, target, false);
+    }
+
+    // Applies the queued modifications, of the renderer and of its passes, in the order they were posted
+    private void applyMutations() {
+        mMutations.apply(mMutationHandler);
+        for (int i = 0; i < mRenderPasses.size(); ++i) {
+            mRenderPasses.get(i).applyPendingMutations();
         }
     }
 
-    public boolean removeObject(@NonNull RenderObject renderObject) {
-        boolean removed = false;
-        synchronized (this) {
-            for (RenderPass renderPass : mRenderPasses) {
-                removed |= renderPass.removeObject(renderObject);
+    // OpenGL thread
+    private void applyMutation(int type, RenderPass owner, Object target, boolean flag) {
+        if (owner != null) {
+            owner.applyMutation(type, (RenderObject) target);
+            return;
+        }
+        switch (type) {
+            case SceneMutationQueue.ADD: {
+                RenderPass renderPass = (RenderPass) target;
+                mRenderPasses.addItem(renderPass);
+                renderPass.attach(this);
+                break;
             }
+            case SceneMutationQueue.REMOVE:
+                if (target instanceof RenderPass) {
+                    RenderPass renderPass = (RenderPass) target;
+                    if (mRenderPasses.removeItem(renderPass) && !mRenderPasses.contains(renderPass)) {
+                        renderPass.detach(this);
+                    }
+                } else {
+                    for (int i = 0; i < mRenderPasses.size(); ++i) {
+                        mRenderPasses.get(i).applyMutation(SceneMutationQueue.REMOVE, (RenderObject) target);
+                    }
+                }
+                break;
+            case SceneMutationQueue.CLEAR:
+                for (int i = 0; i < mRenderPasses.size(); ++i) {
+                    mRenderPasses.get(i).detach(this);
+                }
+                mRenderPasses.clearItems();
+                break;
+            case SceneMutationQueue.SET_VISIBLE:
+                ((RenderObject) target).setVisible(flag);
+                break;
         }
-        return removed;
     }
 
     protected void onPreRender(GL10 gl) {
@@ -196,20 +456,55 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
     @Override
     public void onDrawFrame(GL10 gl10) {
+        Tracer.begin("onDrawFrame");
+        try {
+            drawFrame(gl10);
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    private void drawFrame(GL10 gl10) {
 
         computeFps();
+        mNbCulledObjects = 0;
+        ++mFrameNumber;
+        mProfiler.beginFrame();
+        if (mProfiler.isEnabled()) {
+            mProfiledTextureBinds = mStateCache.getNbTextureBinds();
+            mProfiledProgramSwitches = mStateCache.getNbProgramSwitches();
+            mProfiledUniformUploads = UniformCache.getNbUploads();
+        }
 
-        GLES20.glClearColor(mClearColor[0], mClearColor[1], mClearColor[2], mClearColor[3]);    // RGBA
-        GLES20.glClear(GLES20.GL_DEPTH_BUFFER_BIT | GLES20.GL_COLOR_BUFFER_BIT);
+        SimulationLoop simulationLoop = mSimulationLoop;
+        if (simulationLoop != null) {
+            Tracer.begin("SimulationLoop.apply");
+            simulationLoop.apply(System.nanoTime());
+            Tracer.end();
+        }
 
-        checkDoubleSided(gl10);
+        AttribList.deleteReleasedBufferObjects(mStateCache);
+        TextureCache textureCache = mTextureCache;
+        if (textureCache != null) {
+            textureCache.onFrameStart();
+        }
 
-        synchronized (this) {
+        sGL.glClearColor(mClearColor[0], mClearColor[1], mClearColor[2], mClearColor[3]);    // RGBA
+        sGL.glClear(GLES20.GL_DEPTH_BUFFER_BIT | GLES20.GL_COLOR_BUFFER_BIT);
+
+        checkDoubleSided();
+
+        synchronized (mFrameLock) {
 
             if (!mInitDone) {
+                mProfiler.cancelFrame();    // nothing drawn, not a frame for the statistics
                 return;
             }
 
+            Tracer.begin("preRender");
+            final long preRenderStart = mProfiler.start();
+            applyMutations();
+
             if (mOpenGLView != null) {
                 OpenGLView view = mOpenGLView.get();
                 if (view != null) {
@@ -219,46 +514,63 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
             if ((mCamera != null) && mCamera.isDirty()) {
                 computeProjMatrix3D(mProj3DMatrix);
+                mFrustum.set(mProj3DMatrix);
             }
 
             onPreRender(gl10);
+            mProfiler.end(FrameProfiler.PRE_RENDER, preRenderStart);
+            Tracer.end();
+
+            FrameJobSystem jobSystem = mJobSystem;
+            if (jobSystem != null) {
+                Tracer.begin("prepareObjects");
+                final long tickStart = mProfiler.start();
+                prepareObjects(jobSystem);
+                mProfiler.end(FrameProfiler.TICK, tickStart);
+                Tracer.end();
+            }
 
-            if (mRenderPasses != null) {
-
-                int passNumber = 0;
-                final int prgSize = mRenderPasses.size();
-                for (int prgIt = 0; prgIt < prgSize; ++prgIt) {
-                    final RenderPass renderPass = mRenderPasses.get(prgIt);
-                    if (!renderPass.isLoaded()) {
-                        renderPass.load();
-                    }
+            int passNumber = 0;
+            for (int prgIt = 0; prgIt < mRenderPasses.size(); ++prgIt) {   // passes can be removed by onPreRenderPass
+                final RenderPass renderPass = mRenderPasses.get(prgIt);
+                Tracer.begin("RenderPass");
+                final long passStart = mProfiler.startPass();
+                if (!renderPass.isLoaded()) {
+                    renderPass.load(mCapabilities);
+                }
 
-                    renderPass.sortObjects();
+                if (renderPass instanceof FrameProfilerOverlay) {
+                    ((FrameProfilerOverlay) renderPass).update();
+                }
+                renderPass.sortObjects();
 
-                    ++passNumber;
-                    onPreRenderPass(gl10, passNumber);
+                ++passNumber;
+                onPreRenderPass(gl10, passNumber);
 
-                    Vector<RenderObject> mainObjectList = renderPass.getRenderObjects();
-                    //Vector<RenderObject> objectList = buildObjectList(mainObjectList);	// recursive with Container Objects
+                RenderList<RenderObject> mainObjectList = renderPass.mRenderObjects;
+                //Vector<RenderObject> objectList = buildObjectList(mainObjectList);	// recursive with Container Objects
 
-                    if (renderPass.useZBuffer()) {
-                        gl10.glEnable(GL10.GL_DEPTH_TEST);
-                        if (renderPass.clearZBuffer()) {
-                            GLES20.glClear(GLES20.GL_DEPTH_BUFFER_BIT);
-                        }
-                    } else {
-                        gl10.glDisable(GL10.GL_DEPTH_TEST);
+                if (renderPass.useZBuffer()) {
+                    mStateCache.setDepthTest(true);
+                    if (renderPass.clearZBuffer()) {
+                        sGL.glClear(GLES20.GL_DEPTH_BUFFER_BIT);
                     }
+                } else {
+                    mStateCache.setDepthTest(false);
+                }
 
-                    mPreviousShader = null;
-                    mUseTexture = false;
-                    mUseColor = false;
-                    mVertexAttribId = -1;
-                    mUvAttribId = -1;
-                    mColorAttribId = -1;
-                    mProjMatrixId = -1;
-
-                    // OBJECTS
+                mPreviousShader = null;
+                mUseTexture = false;
+                mUseColor = false;
+                mVertexAttribId = -1;
+                mUvAttribId = -1;
+                mColorAttribId = -1;
+                mProjMatrixId = -1;
+
+                // OBJECTS
+                if ((renderPass instanceof RenderPassSprite) && ((RenderPassSprite) renderPass).isBatching()) {
+                    renderBatchedObjects(renderPass, mainObjectList);
+                } else if (mDebugMode) {   // collisions are drawn right after each sprite
                     for (int renderObjIt = 0; renderObjIt < mainObjectList.size(); ++renderObjIt) {
                         RenderObject object = mainObjectList.get(renderObjIt);
                         boolean render = object.shouldDisplay(this);
@@ -269,26 +581,88 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
                         }
 
                     }
-
-                    onPostRenderPass(gl10, passNumber);
+                } else {
+                    renderQueuedObjects(passNumber, renderPass, mainObjectList);
                 }
+
+                onPostRenderPass(gl10, passNumber);
+                mProfiler.endPass(prgIt, passStart);
+                Tracer.end();
             }
             //handleTouchEvents();
             onPostRender(gl10);
 
             if (mScreenshotListener != null) {
-                doTakeScreenshot(gl10);
+                Tracer.begin("screenshot");
+                final long screenshotStart = mProfiler.start();
+                doTakeScreenshot();
+                mProfiler.end(FrameProfiler.SCREENSHOT, screenshotStart);
+                Tracer.end();
+            }
+
+            if (mProfiler.isEnabled()) {
+                mProfiler.count(FrameProfiler.TEXTURE_BINDS, mStateCache.getNbTextureBinds() - mProfiledTextureBinds);
+                mProfiler.count(FrameProfiler.PROGRAM_SWITCHES, mStateCache.getNbProgramSwitches() - mProfiledProgramSwitches);
+                mProfiler.count(FrameProfiler.UNIFORM_UPLOADS, UniformCache.getNbUploads() - mProfiledUniformUploads);
+            }
+            mProfiler.endFrame();
+        }
+
+    }
+
+    // Ticks the objects and collects their faces in the RenderQueue, then draws the faces in the order of their sort keys
+    private void renderQueuedObjects(int passNumber, final RenderPass renderPass, RenderList<RenderObject> objects) {
+        mRenderQueue.begin(passNumber, renderPass, mProj3DMatrix, mFrameNumber);
+        for (int i = 0; i < objects.size(); ++i) {
+            RenderObject object = objects.get(i);
+            queueObject(object, object.shouldDisplay(this));
+        }
+        mRenderQueue.sort();
+        final long queueNumber = ++mNbRenderQueues;
+        final int size = mRenderQueue.size();
+        for (int i = 0; i < size; ++i) {
+            RenderObject object = mRenderQueue.getObject(i);
+            if (object.startPreRender(queueNumber)) {
+                object.onPreRenderObject(this);
             }
+            drawFace(renderPass, object, mRenderQueue.getFace(i));
         }
+    }
 
+    private void queueObject(RenderObject object, boolean render) {
+        render = tickAndCull(object, render);
+        if (object.isContainer()) {
+            if (render) {
+                object.onPreRenderObject(this);     // before its children, like when drawn without queue
+            }
+            List<RenderObject> objects = ((RenderObjectContainer) object).getRenderObjects();
+            if (objects != null) {
+                for (int i = 0; i < objects.size(); ++i) {
+                    RenderObject child = objects.get(i);
+                    queueObject(child, render && child.shouldDisplay(this));
+                }
+            }
+            return;
+        }
+        if (!render) {
+            return;
+        }
+        Vector<Face3D> faces = object.getFaces();
+        final int faceSize = faces.size();
+        for (int faceIt = 0; faceIt < faceSize; ++faceIt) {
+            Face3D face = faces.get(faceIt);
+            if (face.shouldDisplay(this)) {
+                mRenderQueue.add(object, face);
+            }
+        }
     }
 
     private void renderContainer(final RenderPass renderPass, RenderObjectContainer container, boolean render) {
-        container.tick(this);
+        render = tickAndCull(container, render);
         if (render) {
             container.onPreRenderObject(this);
         }
-        Vector<RenderObject> objects = container.getRenderObjects();
+        List<RenderObject> objects = container.getRenderObjects();
         if (objects != null) {
             for (int i = 0; i < objects.size(); ++i) {
                 RenderObject object = objects.get(i);
@@ -303,99 +677,106 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
     private void renderObject(final RenderPass renderPass, RenderObject object, boolean render) {
 
-        object.tick(this);
-        if (!render) {
+        if (!tickAndCull(object, render)) {
             return;
         }
-        object.onPreRenderObject(this);
+        drawObject(renderPass, object);
+    }
 
-        float[] modelViewMatrix = object.getMatrix(); // get transformation matrix from object
-        Vector<Face3D> faces = object.getFaces();
+    // Ticks and culls an object, unless the job system has already done it for this frame
+    // @return true if the object must be drawn
+    private boolean tickAndCull(RenderObject object, boolean render) {
+        final boolean outOfView;
+        if (object.isPrepared(mFrameNumber)) {
+            outOfView = object.isPreparedOutOfView();
+        } else {
+            final long tickStart = mProfiler.start();
+            object.tick(this);
+            outOfView = render && isOutOfView(object);
+            mProfiler.end(FrameProfiler.TICK, tickStart);
+        }
+        if (render && outOfView) {
+            ++mNbCulledObjects;
+            return false;
+        }
+        return render;
+    }
 
-        final int faceSize = faces.size();
-        for (int faceIt = 0; faceIt < faceSize; ++faceIt) {
-            Face3D face = faces.get(faceIt);
-            if (!face.shouldDisplay(this)) {
-                continue;
-            }
-            GLES20.glUseProgram(renderPass.getProgramId());
-
-            // Check for new Shader
-            Shader shader = renderPass.getShader();
-            if (shader != mPreviousShader) {
-                mPreviousShader = shader;
-                mUseTexture = shader.useTexture();
-                mUseColor = shader.useColor();
-                mVertexAttribId = shader.getVertexAttribId();
-                mUvAttribId = shader.getUVAttribId();
-                mColorAttribId = shader.getColorAttribId();
-                mProjMatrixId = shader.getProjMatrixId();
-
-                GLES20.glEnableVertexAttribArray(mVertexAttribId);
-                if (mUseTexture) {
-                    GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-                    GLES20.glEnableVertexAttribArray(mUvAttribId);
-
-                    GLES20.glBlendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
-                    //GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);	// premultiply alpha
-                    GLES20.glEnable(GLES20.GL_BLEND);
-                }
-                if (mUseColor) {
-                    GLES20.glEnableVertexAttribArray(mColorAttribId);
-                }
+    // Collects the top level objects of all the passes and prepares them with the job system
+    private void prepareObjects(FrameJobSystem jobSystem) {
+        int count = 0;
+        for (int passIt = 0; passIt < mRenderPasses.size(); ++passIt) {
+            RenderList<RenderObject> objects = mRenderPasses.get(passIt).mRenderObjects;
+            final int size = objects.size();
+            if (count + size > mJobObjects.length) {
+                RenderObject[] jobObjects = new RenderObject[Math.max(count + size, mJobObjects.length * 2)];
+                System.arraycopy(mJobObjects, 0, jobObjects, 0, count);
+                mJobObjects = jobObjects;
             }
+            for (int i = 0; i < size; ++i) {
+                mJobObjects[count++] = objects.get(i);
+            }
+        }
+        try {
+            jobSystem.run(count, JOB_CHUNK_SIZE, mPrepareJob);
+        } finally {
+            for (int i = 0; i < count; ++i) {   // don't retain objects removed from the scene
+                mJobObjects[i] = null;
+            }
+        }
+    }
 
-            // Vertex
-            VertexList vertexList = face.getVertexList();
-            FloatBuffer vertexBuffer = vertexList.getFloatBuffer();
-            vertexBuffer.position(0);
-            GLES20.glVertexAttribPointer(mVertexAttribId, 3, GLES20.GL_FLOAT, false, 0, vertexBuffer);
-
-            // Texture
-            if (mUseTexture) {
-                Texture tex = face.getTexture();
-                if (tex == null) { // not ready yet
-                    continue;
-                }
-                if (!tex.isBinded()) {
-                    tex.bindTexture();
-                }
-                GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, tex.getId());
-                // UVs
-                UVList uvList = face.getUVList();
-                FloatBuffer uvBuffer = (uvList != null) ? uvList.getFloatBuffer() : null;
-                if (uvBuffer == null) {
-                    continue;
+    // Called by the job system, possibly on a worker thread: must not use OpenGL nor modify the renderer
+    private void prepareObject(RenderObject object) {
+        object.tick(this);
+        final boolean visible = object.isVisible();     // hidden objects are not culled, shouldDisplay() may still show them
+        final boolean outOfView = visible && isOutOfView(object);
+        int depth = 0;
+        if (!outOfView && !object.isContainer()) {
+            if (object.is3D()) {
+                depth = RenderQueue.quantizeDepth(mProj3DMatrix, object.getMatrix());
+            }
+            if (visible) {
+                object.getProjMatrix(object.is3D() ? mProj3DMatrix : mProj2DMatrix, object.is3D() ? mProj3DVersion : mProj2DVersion);
+            }
+        }
+        object.setPrepared(mFrameNumber, outOfView, depth);
+        if (object.isContainer()) {
+            List<RenderObject> objects = ((RenderObjectContainer) object).getRenderObjects();
+            if (objects != null) {
+                for (int i = 0; i < objects.size(); ++i) {
+                    prepareObject(objects.get(i));
                 }
-                uvBuffer.position(0);
-                GLES20.glVertexAttribPointer(mUvAttribId, 2, GLES20.GL_FLOAT, false, 0, uvBuffer);
             }
+        }
+    }
 
-            // Colors
-            if (mUseColor) {
-                ColorList colorList = face.getColorList();
-                FloatBuffer colorBuffer = (colorList != null) ? colorList.getFloatBuffer() : null;
-                if (colorBuffer == null) {
-                    continue;
-                }
-                colorBuffer.position(0);
-                GLES20.glVertexAttribPointer(mColorAttribId, 4, GLES20.GL_FLOAT, false, 0, colorBuffer);
+    // Frustum culling of 3D objects and screen culling of 2D objects, from their bounds.
+    // Objects without bounds are never culled. Containers use the cached union of their children bounds.
+    // Thread safe, as long as the object is not modified by another thread.
+    private boolean isOutOfView(RenderObject object) {
+        if (object.is3D()) {
+            if (!mFrustumCulling) {
+                return false;
             }
+            Bounds3D bounds = object.getBounds();
+            return (bounds != null) && !mFrustum.intersects(bounds, object.getMatrix());
+        } else {
+            return mScreenCulling && object.isOutOfScreen(mWidth, mHeight);
+        }
+    }
 
-            object.onPreRenderFace(this, shader, face);
-            face.onPreRenderFace(this, object, shader);
+    private void drawObject(final RenderPass renderPass, RenderObject object) {
 
-            // Transformations
-            if (object.is3D()) {
-                Matrix.multiplyMM(mTmpMatrix, 0, mProj3DMatrix, 0, modelViewMatrix, 0);
-            } else {
-                Matrix.multiplyMM(mTmpMatrix, 0, mProj2DMatrix, 0, modelViewMatrix, 0);
-            }
-            GLES20.glUniformMatrix4fv(mProjMatrixId, 1, false, mTmpMatrix, 0);
+        object.onPreRenderObject(this);
 
-            // Render
-            shader.onPreRender(this, object, face);
-            GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, vertexList.getNbElements());
+        Vector<Face3D> faces = object.getFaces();
+        final int faceSize = faces.size();
+        for (int faceIt = 0; faceIt < faceSize; ++faceIt) {
+            Face3D face = faces.get(faceIt);
+            if (face.shouldDisplay(this)) {
+                drawFace(renderPass, object, face);
+            }
         }
 
         if (mDebugMode) {
@@ -430,7 +811,8 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
                                 } else if (collision instanceof CollisionSegments) {
                                     CollisionSegments colSeg = (CollisionSegments) collision;
                                     ArrayList<Vector2D> segments = colSeg.getSegments();
-                                    for (Vector2D vector : segments) {
+                                    for (int iSeg = 0; iSeg < segments.size(); ++iSeg) {
+                                        Vector2D vector = segments.get(iSeg);
                                         float middleX = (vector.getXStart() + vector.getXStop()) / 2;
                                         float middleY = (vector.getYStart() + vector.getYStop()) / 2;
                                         mColSegmentSprite.setPos(middleX, middleY);
@@ -460,6 +842,186 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
     }
 
+    private void drawFace(final RenderPass renderPass, RenderObject object, Face3D face) {
+
+        Shader shader = useShader(renderPass);
+
+        // Vertex
+        VertexList vertexList = face.getVertexList();
+        setVertexAttrib(mVertexAttribId, vertexList);
+
+        // Texture
+        if (mUseTexture) {
+            Texture tex = face.getTexture();
+            if ((tex == null) || tex.isLoading()) { // not ready yet
+                return;
+            }
+            tex.bind(mStateCache, mDefaultSampler, mCapabilities);
+            // UVs
+            UVList uvList = face.getUVList();
+            if ((uvList == null) || (uvList.getFloatBuffer() == null)) {
+                return;
+            }
+            setVertexAttrib(mUvAttribId, uvList);
+        }
+
+        // Colors
+        if (mUseColor) {
+            ColorList colorList = face.getColorList();
+            if ((colorList == null) || (colorList.getFloatBuffer() == null)) {
+                return;
+            }
+            setVertexAttrib(mColorAttribId, colorList);
+        }
+
+        object.onPreRenderFace(this, shader, face);
+        face.onPreRenderFace(this, object, shader);
+
+        // Transformations, cached by the object and uploaded once for all its faces
+        final long projVersion = object.is3D() ? mProj3DVersion : mProj2DVersion;
+        final float[] projMatrix = object.getProjMatrix(object.is3D() ? mProj3DMatrix : mProj2DMatrix, projVersion);
+        if (shader.getUniformCache().needsUpload(mProjMatrixId, object.getMatrixVersion(), projVersion)) {
+            sGL.glUniformMatrix4fv(mProjMatrixId, 1, false, projMatrix, 0);
+        }
+
+        // Render
+        shader.onPreRender(this, object, face);
+        if (object instanceof InstancedObject3D) {
+            ((InstancedObject3D) object).drawInstances(this, shader, projMatrix, vertexList.getNbElements());
+        } else {
+            sGL.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, vertexList.getNbElements());
+            mProfiler.countDrawCall(vertexList.getNbElements());
+        }
+    }
+
+    private Shader useShader(final RenderPass renderPass) {
+        mStateCache.useProgram(renderPass.getProgramId());
+
+        // Check for new Shader
+        Shader shader = renderPass.getShader();
+        if (shader != mPreviousShader) {
+            mPreviousShader = shader;
+            mUseTexture = shader.useTexture();
+            mUseColor = shader.useColor();
+            mVertexAttribId = shader.getVertexAttribId();
+            mUvAttribId = shader.getUVAttribId();
+            mColorAttribId = shader.getColorAttribId();
+            mProjMatrixId = shader.getProjMatrixId();
+
+            mStateCache.enableVertexAttribArray(mVertexAttribId);
+            if (mUseTexture) {
+                mStateCache.activeTexture(0);
+                mStateCache.enableVertexAttribArray(mUvAttribId);
+
+                mStateCache.blendFunc(GLES20.GL_SRC_ALPHA, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+                //mStateCache.blendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);	// premultiply alpha
+                mStateCache.setBlend(true);
+            }
+            if (mUseColor) {
+                mStateCache.enableVertexAttribArray(mColorAttribId);
+            }
+        }
+        return shader;
+    }
+
+    // Batching mode of RenderPassSprite: sprites are merged in a single stream, one draw per Texture change
+    private void renderBatchedObjects(final RenderPass renderPass, RenderList<RenderObject> objects) {
+        if (mSpriteBatch == null) {
+            mSpriteBatch = new SpriteBatch();
+        }
+        mSpriteBatch.begin();
+        for (int i = 0; i < objects.size(); ++i) {
+            RenderObject object = objects.get(i);
+            batchObject(renderPass, object, object.shouldDisplay(this));
+        }
+        flushSpriteBatch(renderPass);
+    }
+
+    private void batchObject(final RenderPass renderPass, RenderObject object, boolean render) {
+        if (object.isContainer()) {
+            RenderObjectContainer container = (RenderObjectContainer) object;
+            render = tickAndCull(container, render);
+            if (render) {
+                container.onPreRenderObject(this);
+            }
+            List<RenderObject> objects = container.getRenderObjects();
+            if (objects != null) {
+                for (int i = 0; i < objects.size(); ++i) {
+                    RenderObject child = objects.get(i);
+                    batchObject(renderPass, child, render && child.shouldDisplay(this));
+                }
+            }
+            return;
+        }
+
+        if (!tickAndCull(object, render)) {
+            return;
+        }
+
+        // Debug collisions and faces that are not textured quads are drawn the usual way
+        Face3D face = (object instanceof Sprite) ? ((Sprite) object).getFace() : null;
+        if (mDebugMode || (face == null) || (object.getFaces().size() != 1) || (face.getVertexList().getNbElements() != 4)) {
+            flushSpriteBatch(renderPass);
+            drawObject(renderPass, object);
+            return;
+        }
+
+        object.onPreRenderObject(this);
+        if (!face.shouldDisplay(this)) {
+            return;
+        }
+        Shader shader = renderPass.getShader();
+        object.onPreRenderFace(this, shader, face);
+        face.onPreRenderFace(this, object, shader);     // AnimatedFace3D changes its UVList here
+
+        Texture texture = face.getTexture();
+        UVList uvList = face.getUVList();
+        if ((texture == null) || texture.isLoading() || (uvList == null) || (uvList.getNbElements() != 4)) { // not ready yet
+            return;
+        }
+        if ((texture != mSpriteBatch.getTexture()) || mSpriteBatch.isFull()) {
+            flushSpriteBatch(renderPass);
+            mSpriteBatch.setTexture(texture);
+        }
+        mSpriteBatch.add(object.getMatrix(), face.getVertexList().getInternalBuffer(), uvList.getInternalBuffer());
+    }
+
+    private void flushSpriteBatch(final RenderPass renderPass) {
+        if (mSpriteBatch.isEmpty()) {
+            return;
+        }
+        useShader(renderPass);
+        mStateCache.bindArrayBuffer(0);  // the stream is sent from client memory
+        if (renderPass.getShader().getUniformCache().needsUpload(mProjMatrixId, mProj2DVersion)) {
+            sGL.glUniformMatrix4fv(mProjMatrixId, 1, false, mProj2DMatrix, 0);    // sprites are already transformed
+        }
+        final int nbSprites = mSpriteBatch.flush(mStateCache, mDefaultSampler, mCapabilities, mVertexAttribId, mUvAttribId);
+        if (nbSprites > 0) {
+            mProfiler.countDrawCall(nbSprites * 4);
+        }
+    }
+
+    /**
+     * Links an AttribList to a shader attribute, from its Buffer Object if it uses one, or from its client buffer.
+     * Called from the OpenGL Thread only, while rendering.
+     *
+     * @param attribId   the attribute location in the shader program
+     * @param attribList the list (VertexList, UVList, ColorList, NormalList)
+     */
+    void setVertexAttrib(int attribId, @NonNull AttribList attribList) {
+        final int size = attribList.getNbFloatsPerElement();
+        if (attribList.usesBufferObject()) {
+            attribList.bindBufferObject(mStateCache);
+            sGL.glVertexAttribPointer(attribId, size, GLES20.GL_FLOAT, false, 0, 0);
+        } else {
+            attribList.deleteBufferObject(mStateCache);     // if setUseBufferObject(false) was called since the last draw
+            mStateCache.bindArrayBuffer(0); // client arrays can't be used while a Buffer Object is bound
+            FloatBuffer buffer = attribList.getFloatBuffer();
+            buffer.position(0);
+            sGL.glVertexAttribPointer(attribId, size, GLES20.GL_FLOAT, false, 0, buffer);
+        }
+    }
+
     // Called from OpenGL Thread by Android
     @Override
     public void onSurfaceChanged(GL10 glUnused, int width, int height) {
@@ -470,13 +1032,14 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
             return;
         }
 
-        GLES20.glViewport(0, 0, width, height);
+        sGL.glViewport(0, 0, width, height);
 
         mWidth = width;
         mHeight = height;
 
         computeProjMatrix2D(mProj2DMatrix);
         computeProjMatrix3D(mProj3DMatrix);
+        mFrustum.set(mProj3DMatrix);
 
         OpenGLView view = getListener();
         if (view != null) {
@@ -491,7 +1054,8 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
     }
 
     private void computeProjMatrix2D(float[] matrix2D) {
-        Matrix.orthoM(matrix2D, 0, 0f, mWidth, mHeight, 0, -1f, 1f);
+        Mat4.setOrtho(matrix2D, 0f, mWidth, mHeight, 0, -1f, 1f);
+        mProj2DVersion = UniformCache.newVersion();
     }
 
     private void computeProjMatrix3D(float[] matrix3D) {
@@ -507,47 +1071,49 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
         final float near = mCamera.getNear();
         final float far = mCamera.getFar();
         float ratio = (float) getWidth() / (float) getHeight();
-        Matrix.perspectiveM(matrix3D, 0, FOV, ratio, near, far);
+        Mat4.setPerspective(matrix3D, FOV, ratio, near, far);
 
         // Rotation
         float ox = -mCamera.getRotX();
         float oy = -mCamera.getRotY();
         float oz = -mCamera.getRotZ();
-        if (ox != 0)
-            Matrix.rotateM(matrix3D, 0, ox, 1, 0, 0);
-        if (oy != 0)
-            Matrix.rotateM(matrix3D, 0, oy, 0, 1, 0);
-        if (oz != 0)
-            Matrix.rotateM(matrix3D, 0, oz, 0, 0, 1);
+        Mat4.setTRS(mViewMatrix, 0, 0, 0, ox, oy, oz, 1, 1, 1);
 
         // Translation
         float x = -mCamera.getPosX();
         float y = -mCamera.getPosY();
         float z = -mCamera.getPosZ();
-        Matrix.translateM(matrix3D, 0, x, y, z);
+        Mat4.translate(mViewMatrix, x, y, z);
+
+        Mat4.multiply(matrix3D, matrix3D, mViewMatrix);
 
         mCamera.setDirty(false);
+        mProj3DVersion = UniformCache.newVersion();
     }
 
     @Override
     public void onSurfaceCreated(GL10 gl, EGLConfig config) {
 
+        mOpenGLThread = Thread.currentThread();
         mPreviousTime = 0;
+        mStateCache.invalidate();   // new OpenGL context
+        AttribList.forgetReleasedBufferObjects();
+        mCapabilities.load();
 
-        gl.glClearDepthf(1.0f);
-        gl.glEnable(GL10.GL_DEPTH_TEST);
-        gl.glDepthFunc(GL10.GL_LEQUAL);
+        sGL.glClearDepthf(1.0f);
+        mStateCache.setDepthTest(true);
+        sGL.glDepthFunc(GLES20.GL_LEQUAL);
 
-        checkDoubleSided(gl);
+        checkDoubleSided();
     }
 
-    private void checkDoubleSided(GL10 gl) {
+    private void checkDoubleSided() {
         if (mDoubleSided != null) {
             if (mDoubleSided.booleanValue()) {
-                gl.glDisable(GL10.GL_CULL_FACE);
+                mStateCache.setCullFace(false);
             } else {
-                gl.glEnable(GL10.GL_CULL_FACE);
-                gl.glCullFace(GL10.GL_FRONT);
+                mStateCache.setCullFace(true);
+                mStateCache.cullFace(GLES20.GL_FRONT);
             }
             mDoubleSided = null;    // applied
         }
@@ -555,7 +1121,8 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
     private void computeFps() {
 
-        long newTime = SystemClock.uptimeMillis();
+        long newTime = System.nanoTime() / 1000000;
+        mFrameTime = newTime;
         if (mPreviousTime == 0) {    // First frame, set standard values at 50fps
             mFrameDurationRaw = 20;
             mPreviousTime = newTime - mFrameDurationRaw;
@@ -574,23 +1141,26 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
     }
 
+    /**
+     * OpenGL thread only, like the RenderLists
+     * @return the sprites that handle the input, in a list reused by the next call
+     */
     public Vector<Sprite> getToucheableSprites() {
-        Vector<Sprite> result = null;
-        if (mRenderPasses != null) {
-            result = new Vector<>();
-            for (RenderPass renderPass : mRenderPasses) {
-                Vector<RenderObject> objects = renderPass.getRenderObjects();
-                if (objects != null) {
-                    for (RenderObject object : objects) {
-                        if (object.isContainer()) {
-                            RenderObjectContainer container = (RenderObjectContainer) object;
-                            addToucheableSprites(container, result);
-                        } else if (object instanceof Sprite) {
-                            Sprite sprite = (Sprite) object;
-                            if (sprite.handlesInput()) {
-                                result.add(sprite);
-                            }
-                        }
+        Vector<Sprite> result = mToucheableSprites;
+        result.clear();
+        for (int passIt = 0; passIt < mRenderPasses.size(); ++passIt) {
+            RenderList<RenderObject> objects = mRenderPasses.get(passIt).mRenderObjects;
+            for (int i = 0; i < objects.size(); ++i) {
+                RenderObject object = objects.get(i);
+                if (object.isContainer()) {
+                    RenderObjectContainer container = (RenderObjectContainer) object;
+                    if (container.isVisible()) {
+                        addToucheableSprites(container, result);
+                    }
+                } else if (object instanceof Sprite) {
+                    Sprite sprite = (Sprite) object;
+                    if (sprite.handlesInput()) {
+                        result.add(sprite);
                     }
                 }
             }
@@ -599,12 +1169,15 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
     }
 
     private void addToucheableSprites(RenderObjectContainer container, Vector<Sprite> result) {
-        Vector<RenderObject> objects = container.getRenderObjects();
+        List<RenderObject> objects = container.getRenderObjects();
         if ((objects != null) && (!objects.isEmpty())) {
-            for (RenderObject object : objects) {
+            for (int i = 0; i < objects.size(); ++i) {
+                RenderObject object = objects.get(i);
                 if (object.isContainer()) {
                     RenderObjectContainer subContainer = (RenderObjectContainer) object;
-                    addToucheableSprites(subContainer, result);
+                    if (subContainer.isVisible()) {
+                        addToucheableSprites(subContainer, result);
+                    }
                 } else if (object instanceof Sprite) {
                     Sprite sprite = (Sprite) object;
                     if (sprite.handlesInput()) {
@@ -651,13 +1224,21 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
 
 
     void onPause() {
-        synchronized (this) {
+        synchronized (mFrameLock) {
             mInitDone = false;
 //            mRenderPasses.clear();
         }
+        SimulationLoop simulationLoop = mSimulationLoop;
+        if (simulationLoop != null) {
+            simulationLoop.pause();
+        }
     }
 
     void onResume() {
+        SimulationLoop simulationLoop = mSimulationLoop;
+        if (simulationLoop != null) {
+            simulationLoop.resume();
+        }
     }
 
     public void setLightAmbiant(LightAmbiant lightAmbiant) {
@@ -677,6 +1258,16 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
         mLightParallel = lightParallel;
     }
 
+    long getLightAmbiantVersion() {
+        LightAmbiant lightAmbiant = mLightAmbiant;
+        return (lightAmbiant != null) ? lightAmbiant.getVersion() : DEFAULT_AMBIANT_LIGHT_VERSION;
+    }
+
+    long getLightParallelVersion() {
+        LightParallel lightParallel = mLightParallel;
+        return (lightParallel != null) ? lightParallel.getVersion() : UniformCache.NO_VERSION;
+    }
+
     float[] getLightDirection() {
         if (mLightParallel != null) {
             return mLightParallel.getDirection().getArray();
@@ -720,7 +1311,7 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
     private Handler mScreenshotHandler;
 
     public void takeScreenshot(OnTakeScreenshot listener) {
-        synchronized (this) {
+        synchronized (mFrameLock) {     // read by the frame
             mScreenshotListener = listener;
             mScreenshotHandler = new Handler();
         }
@@ -730,11 +1321,14 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
         void screenshotTaken(Bitmap bitmap);
     }
 
-    private void doTakeScreenshot(GL10 gl) {
+    // Called with mFrameLock
+    private void doTakeScreenshot() {
 
-        if ((mScreenshotListener == null) || (mScreenshotHandler == null)) {
+        final OnTakeScreenshot listener = mScreenshotListener;
+        if ((listener == null) || (mScreenshotHandler == null)) {
             return;
         }
+        mScreenshotListener = null;     // one screenshot per request
 
         int width = getWidth();
         int height = getHeight();
@@ -742,7 +1336,7 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
         int dest[] = new int[width * height];
         IntBuffer wrap = IntBuffer.wrap(source);
         wrap.position(0);
-        gl.glReadPixels(0, 0, width, height, GL10.GL_RGBA, GL10.GL_UNSIGNED_BYTE, wrap);
+        sGL.glReadPixels(0, 0, width, height, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, wrap);
 
         int raw;
         int color;
@@ -762,13 +1356,8 @@ public abstract class OpenGLRenderer implements GLSurfaceView.Renderer {
         mScreenshotHandler.post(new Runnable() {
             @Override
             public void run() {
-                synchronized (this) {
-                    if (mScreenshotListener != null) {
-                        if (bitmap != null) {
-                            mScreenshotListener.screenshotTaken(bitmap);
-                        }
-                        mScreenshotListener = null;
-                    }
+                if (bitmap != null) {
+                    listener.screenshotTaken(bitmap);
                 }
             }
         });
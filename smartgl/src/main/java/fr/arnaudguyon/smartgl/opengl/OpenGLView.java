@@ -19,6 +19,8 @@ import android.content.Context;
 import android.opengl.GLSurfaceView;
 import android.util.AttributeSet;
 
+import java.io.File;
+
 /* package */ abstract class OpenGLView extends GLSurfaceView {
 
     private OpenGLRenderer mOpenGLRenderer;
@@ -38,6 +40,11 @@ import android.util.AttributeSet;
             mOpenGLRenderer = (OpenGLRenderer) renderer;
             mOpenGLRenderer.setListener(this);
             setEGLContextClientVersion(2);
+            setEGLContextFactory(new SharedContextFactory(mOpenGLRenderer.getTextureLoader()));
+            ProgramRegistry programRegistry = ProgramRegistry.getInstance();
+            if (programRegistry.getCacheDir() == null) {
+                programRegistry.setCacheDir(new File(getContext().getCacheDir(), "smartgl_programs"));
+            }
             ConfigGLSelector selector = new ConfigGLSelector(this);
             if (selector != null) {
                 setEGLConfigChooser(selector);
@@ -0,0 +1,365 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.opengl.GLES20;
+import android.opengl.GLES30;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.microedition.khronos.egl.EGLContext;
+
+import fr.arnaudguyon.smartgl.tools.Tracer;
+
+/**
+ * Linked programs shared by all the RenderPasses whose shaders have the same sources, for each OpenGL context.
+ * <p>
+ * On OpenGL ES 3 devices, the binaries of the linked programs are also saved in the cache dir of the application,
+ * and loaded instead of compiling the sources the next time the application starts or resumes.
+ * A binary rejected by the driver (after a driver update for example) is deleted, and the sources are compiled.
+ */
+public class ProgramRegistry {
+
+    private static final String TAG = "ProgramRegistry";
+    private static final GL sGL = GLBackend.get();
+    private static final int FILE_MAGIC = 0x53474C50;   // SGLP
+    private static final String FILE_EXTENSION = ".bin";
+
+    private static ProgramRegistry sInstance;
+
+    private final HashMap<EGLContext, ContextPrograms> mPrograms = new HashMap<>();
+    private File mCacheDir;
+    private boolean mBinaryCacheEnabled = true;
+    private String mDriverId;
+    private ExecutorService mWriteExecutor;
+
+    private int mNbCompiled;
+    private int mNbLoadedFromCache;
+    private int mNbShared;
+
+    // The programs of an OpenGL context
+    private static class ContextPrograms {
+        final HashMap<String, Integer> mProgramIds = new HashMap<>();   // by hash of the sources
+        final SparseArray<UniformCache> mUniformCaches = new SparseArray<>();   // by program id
+    }
+
+    public static synchronized ProgramRegistry getInstance() {
+        if (sInstance == null) {
+            sInstance = new ProgramRegistry();
+        }
+        return sInstance;
+    }
+
+    private ProgramRegistry() {
+    }
+
+    /**
+     * Set by the view to a subdirectory of the cache dir of the application
+     * @param cacheDir where the program binaries are saved, or null to disable the binary cache
+     */
+    public synchronized void setCacheDir(@Nullable File cacheDir) {
+        mCacheDir = cacheDir;
+    }
+
+    public synchronized @Nullable File getCacheDir() {
+        return mCacheDir;
+    }
+
+    public synchronized void setBinaryCacheEnabled(boolean enabled) {
+        mBinaryCacheEnabled = enabled;
+    }
+
+    /**
+     * Deletes the saved program binaries
+     */
+    public synchronized void clearBinaryCache() {
+        if (mCacheDir == null) {
+            return;
+        }
+        File[] files = mCacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(FILE_EXTENSION)) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of programs compiled from sources since the start of the application
+     */
+    public synchronized int getNbCompiled() {
+        return mNbCompiled;
+    }
+
+    /**
+     * @return number of programs loaded from saved binaries since the start of the application
+     */
+    public synchronized int getNbLoadedFromCache() {
+        return mNbLoadedFromCache;
+    }
+
+    /**
+     * @return number of times a RenderPass reused a program already linked
+     */
+    public synchronized int getNbShared() {
+        return mNbShared;
+    }
+
+    /**
+     * Called from the OpenGL Thread
+     * @param shader       the shader of a RenderPass
+     * @param capabilities what the current OpenGL context supports
+     * @return the linked program of the shader in the current context, shared with other shaders with the same sources
+     */
+    /* package */ synchronized int getProgram(@NonNull Shader shader, @NonNull GLCapabilities capabilities) {
+        ContextPrograms programs = getContextPrograms();
+        final String key = hash(shader.getVertexScript() + '\0' + shader.getPixelScript());
+        Integer program = programs.mProgramIds.get(key);
+        if (program != null) {
+            ++mNbShared;
+            return program;
+        }
+
+        final boolean binaryCache = mBinaryCacheEnabled && (mCacheDir != null) && capabilities.isGLES30();
+        File file = null;
+        int programId = 0;
+        if (binaryCache) {
+            if (mDriverId == null) {
+                mDriverId = sGL.glGetString(GLES20.GL_RENDERER) + '/' + sGL.glGetString(GLES20.GL_VERSION);
+            }
+            file = new File(mCacheDir, hash(mDriverId + '\0' + key) + FILE_EXTENSION);
+            Tracer.begin("ProgramRegistry.loadBinary");
+            programId = loadBinary(file);
+            Tracer.end();
+        }
+        if (programId != 0) {
+            ++mNbLoadedFromCache;
+        } else {
+            Tracer.begin("ProgramRegistry.compile");
+            programId = compile(shader, binaryCache);
+            Tracer.end();
+            ++mNbCompiled;
+            if ((programId != 0) && binaryCache) {
+                saveBinary(programId, file);
+            }
+        }
+        if (programId != 0) {
+            programs.mProgramIds.put(key, programId);
+            programs.mUniformCaches.put(programId, new UniformCache());
+        }
+        return programId;
+    }
+
+    /**
+     * Called from the OpenGL Thread
+     * @param programId a program returned by getProgram()
+     * @return the uniform values held by the program, shared by all the Shaders using it
+     */
+    /* package */ synchronized @NonNull UniformCache getUniformCache(int programId) {
+        ContextPrograms programs = getContextPrograms();
+        UniformCache uniformCache = programs.mUniformCaches.get(programId);
+        if (uniformCache == null) {
+            uniformCache = new UniformCache();
+            programs.mUniformCaches.put(programId, uniformCache);
+        }
+        return uniformCache;
+    }
+
+    private @NonNull ContextPrograms getContextPrograms() {
+        EGLContext context = sGL.eglGetCurrentContext();
+        ContextPrograms programs = mPrograms.get(context);
+        if (programs == null) {
+            programs = new ContextPrograms();
+            mPrograms.put(context, programs);
+        }
+        return programs;
+    }
+
+    // Called from the OpenGL Thread, the programs of a destroyed context don't exist anymore
+    /* package */ synchronized void onContextDestroyed(@NonNull EGLContext context) {
+        mPrograms.remove(context);
+    }
+
+    private int compile(@NonNull Shader shader, boolean retrievable) {
+        final int vertexScriptId = Shader.loadShader(GLES20.GL_VERTEX_SHADER, shader.getVertexScript());
+        final int pixelScriptId = Shader.loadShader(GLES20.GL_FRAGMENT_SHADER, shader.getPixelScript());
+        final int programId = sGL.glCreateProgram();
+        sGL.glAttachShader(programId, vertexScriptId);
+        sGL.glAttachShader(programId, pixelScriptId);
+        if (retrievable) {
+            sGL.glProgramParameteri(programId, GLES30.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GLES20.GL_TRUE);
+        }
+        sGL.glLinkProgram(programId);
+        // the linked program keeps what it needs
+        sGL.glDetachShader(programId, vertexScriptId);
+        sGL.glDetachShader(programId, pixelScriptId);
+        sGL.glDeleteShader(vertexScriptId);
+        sGL.glDeleteShader(pixelScriptId);
+        if (!isLinked(programId)) {
+            Log.e(TAG, "Could not link program: " + sGL.glGetProgramInfoLog(programId));
+            sGL.glDeleteProgram(programId);
+            return 0;
+        }
+        return programId;
+    }
+
+    private int loadBinary(@NonNull File file) {
+        if (!file.exists()) {
+            return 0;
+        }
+        DataInputStream inputStream = null;
+        try {
+            inputStream = new DataInputStream(new FileInputStream(file));
+            if (inputStream.readInt() != FILE_MAGIC) {
+                throw new IOException("invalid file");
+            }
+            final int format = inputStream.readInt();
+            final int length = inputStream.readInt();
+            byte[] bytes = new byte[length];
+            inputStream.readFully(bytes);
+            ByteBuffer binary = ByteBuffer.allocateDirect(length).order(ByteOrder.nativeOrder());
+            binary.put(bytes).position(0);
+
+            final int programId = sGL.glCreateProgram();
+            sGL.glProgramBinary(programId, format, binary, length);
+            if (isLinked(programId)) {
+                return programId;
+            }
+            sGL.glDeleteProgram(programId);
+            Log.w(TAG, "Program binary rejected by the driver, compiling the sources");
+        } catch (IOException e) {
+            Log.w(TAG, "Can't read program binary " + file.getName() + ": " + e);
+        } finally {
+            close(inputStream);
+        }
+        file.delete();
+        return 0;
+    }
+
+    private void saveBinary(int programId, @NonNull final File file) {
+        int[] values = new int[1];
+        sGL.glGetProgramiv(programId, GLES30.GL_PROGRAM_BINARY_LENGTH, values, 0);
+        final int length = values[0];
+        if (length <= 0) {
+            return;
+        }
+        ByteBuffer binary = ByteBuffer.allocateDirect(length).order(ByteOrder.nativeOrder());
+        int[] writtenLength = new int[1];
+        int[] format = new int[1];
+        sGL.glGetProgramBinary(programId, length, writtenLength, 0, format, 0, binary);
+        final int binaryFormat = format[0];
+        final byte[] bytes = new byte[writtenLength[0]];
+        binary.position(0);
+        binary.get(bytes);
+
+        // the disk is not accessed by the OpenGL Thread
+        getWriteExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                File dir = file.getParentFile();
+                if ((dir != null) && !dir.exists() && !dir.mkdirs()) {
+                    return;
+                }
+                File tmpFile = new File(file.getPath() + ".tmp");
+                DataOutputStream outputStream = null;
+                try {
+                    outputStream = new DataOutputStream(new FileOutputStream(tmpFile));
+                    outputStream.writeInt(FILE_MAGIC);
+                    outputStream.writeInt(binaryFormat);
+                    outputStream.writeInt(bytes.length);
+                    outputStream.write(bytes);
+                    outputStream.close();
+                    outputStream = null;
+                    if (!tmpFile.renameTo(file)) {
+                        tmpFile.delete();
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Can't save program binary: " + e);
+                    tmpFile.delete();
+                } finally {
+                    close(outputStream);
+                }
+            }
+        });
+    }
+
+    private ExecutorService getWriteExecutor() {
+        if (mWriteExecutor == null) {
+            mWriteExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "SmartGL-ProgramCache");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return mWriteExecutor;
+    }
+
+    private static boolean isLinked(int programId) {
+        int[] linkStatus = new int[1];
+        sGL.glGetProgramiv(programId, GLES20.GL_LINK_STATUS, linkStatus, 0);
+        return (linkStatus[0] == GLES20.GL_TRUE);
+    }
+
+    private static String hash(@NonNull String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(text.getBytes("UTF-8"));
+            StringBuilder builder = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+                builder.append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            return Integer.toHexString(text.hashCode()) + '_' + text.length();
+        }
+    }
+
+    private static void close(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+}
@@ -0,0 +1,507 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import java.nio.Buffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.microedition.khronos.egl.EGLContext;
+
+/**
+ * A NullGL which also records the command stream: the number of calls of each command, and the sequence of the
+ * first commands. Used by the tests to check what the renderer sends to OpenGL, and by the benchmarks to count it.
+ * The commands are the names of the GL methods, like "glDrawArrays".
+ */
+public class RecordingGL extends NullGL {
+
+    public static final int DEFAULT_MAX_COMMANDS = 65536;
+
+    private final String[] mCommands;
+    private int mNbRecorded;
+    private long mNbCommands;
+    private final HashMap<String, long[]> mCounts = new HashMap<>();
+
+    public RecordingGL() {
+        this(DEFAULT_MAX_COMMANDS);
+    }
+
+    /**
+     * @param maxCommands number of commands kept in the sequence after a clear(), 0 to only count them
+     */
+    public RecordingGL(int maxCommands) {
+        if (maxCommands < 0) {
+            throw new IllegalArgumentException("invalid maxCommands " + maxCommands);
+        }
+        mCommands = new String[maxCommands];
+    }
+
+    private synchronized void record(String command) {
+        ++mNbCommands;
+        if (mNbRecorded < mCommands.length) {
+            mCommands[mNbRecorded++] = command;
+        }
+        long[] count = mCounts.get(command);
+        if (count == null) {
+            count = new long[1];
+            mCounts.put(command, count);
+        }
+        ++count[0];
+    }
+
+    /**
+     * Forgets the recorded commands and counts
+     */
+    public synchronized void clear() {
+        mNbRecorded = 0;
+        mNbCommands = 0;
+        for (long[] count : mCounts.values()) {
+            count[0] = 0;
+        }
+    }
+
+    /**
+     * @return the number of calls since the creation or the last clear()
+     */
+    public synchronized long getNbCommands() {
+        return mNbCommands;
+    }
+
+    /**
+     * @param command name of the GL method, like "glUseProgram"
+     * @return the number of calls of this command since the creation or the last clear()
+     */
+    public synchronized long getCount(@NonNull String command) {
+        long[] count = mCounts.get(command);
+        return (count != null) ? count[0] : 0;
+    }
+
+    /**
+     * @return the number of glDrawArrays, glDrawArraysInstanced and glDrawElements
+     */
+    public synchronized long getNbDrawCalls() {
+        return getCount("glDrawArrays") + getCount("glDrawArraysInstanced") + getCount("glDrawElements");
+    }
+
+    /**
+     * @return the number of calls of each command called at least once, sorted by name. Allocates.
+     */
+    public synchronized @NonNull Map<String, Long> getCounts() {
+        TreeMap<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : mCounts.entrySet()) {
+            if (entry.getValue()[0] > 0) {
+                counts.put(entry.getKey(), entry.getValue()[0]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return the first commands since the creation or the last clear(), in the order of the calls. Allocates.
+     */
+    public synchronized @NonNull List<String> getCommands() {
+        ArrayList<String> commands = new ArrayList<>(mNbRecorded);
+        for (int i = 0; i < mNbRecorded; ++i) {
+            commands.add(mCommands[i]);
+        }
+        return commands;
+    }
+
+    @Override
+    public EGLContext eglGetCurrentContext() {
+        record("eglGetCurrentContext");
+        return super.eglGetCurrentContext();
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        record("glEnable");
+        super.glEnable(cap);
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        record("glDisable");
+        super.glDisable(cap);
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        record("glBlendFunc");
+        super.glBlendFunc(sfactor, dfactor);
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+        record("glCullFace");
+        super.glCullFace(mode);
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        record("glDepthFunc");
+        super.glDepthFunc(func);
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+        record("glClearDepthf");
+        super.glClearDepthf(depth);
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        record("glClearColor");
+        super.glClearColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glClear(int mask) {
+        record("glClear");
+        super.glClear(mask);
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        record("glViewport");
+        super.glViewport(x, y, width, height);
+    }
+
+    @Override
+    public void glGetFloatv(int pname, float[] params, int offset) {
+        record("glGetFloatv");
+        super.glGetFloatv(pname, params, offset);
+    }
+
+    @Override
+    public String glGetString(int name) {
+        record("glGetString");
+        return super.glGetString(name);
+    }
+
+    @Override
+    public void glFinish() {
+        record("glFinish");
+        super.glFinish();
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        record("glCreateShader");
+        return super.glCreateShader(type);
+    }
+
+    @Override
+    public void glShaderSource(int shader, String string) {
+        record("glShaderSource");
+        super.glShaderSource(shader, string);
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        record("glCompileShader");
+        super.glCompileShader(shader);
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+        record("glGetShaderiv");
+        super.glGetShaderiv(shader, pname, params, offset);
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        record("glGetShaderInfoLog");
+        return super.glGetShaderInfoLog(shader);
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        record("glDeleteShader");
+        super.glDeleteShader(shader);
+    }
+
+    @Override
+    public int glCreateProgram() {
+        record("glCreateProgram");
+        return super.glCreateProgram();
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        record("glAttachShader");
+        super.glAttachShader(program, shader);
+    }
+
+    @Override
+    public void glDetachShader(int program, int shader) {
+        record("glDetachShader");
+        super.glDetachShader(program, shader);
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        record("glLinkProgram");
+        super.glLinkProgram(program);
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, int[] params, int offset) {
+        record("glGetProgramiv");
+        super.glGetProgramiv(program, pname, params, offset);
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        record("glGetProgramInfoLog");
+        return super.glGetProgramInfoLog(program);
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        record("glDeleteProgram");
+        super.glDeleteProgram(program);
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        record("glUseProgram");
+        super.glUseProgram(program);
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        record("glGetAttribLocation");
+        return super.glGetAttribLocation(program, name);
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        record("glGetUniformLocation");
+        return super.glGetUniformLocation(program, name);
+    }
+
+    @Override
+    public void glProgramParameteri(int program, int pname, int value) {
+        record("glProgramParameteri");
+        super.glProgramParameteri(program, pname, value);
+    }
+
+    @Override
+    public void glGetProgramBinary(int program, int bufSize, int[] length, int lengthOffset, int[] binaryFormat, int binaryFormatOffset, Buffer binary) {
+        record("glGetProgramBinary");
+        super.glGetProgramBinary(program, bufSize, length, lengthOffset, binaryFormat, binaryFormatOffset, binary);
+    }
+
+    @Override
+    public void glProgramBinary(int program, int binaryFormat, Buffer binary, int length) {
+        record("glProgramBinary");
+        super.glProgramBinary(program, binaryFormat, binary, length);
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+        record("glUniform1f");
+        super.glUniform1f(location, x);
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, float[] v, int offset) {
+        record("glUniform3fv");
+        super.glUniform3fv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+        record("glUniform4fv");
+        super.glUniform4fv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        record("glUniformMatrix4fv");
+        super.glUniformMatrix4fv(location, count, transpose, value, offset);
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+        record("glEnableVertexAttribArray");
+        super.glEnableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        record("glDisableVertexAttribArray");
+        super.glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glVertexAttrib4f(int index, float x, float y, float z, float w) {
+        record("glVertexAttrib4f");
+        super.glVertexAttrib4f(index, x, y, z, w);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        record("glVertexAttribPointer");
+        super.glVertexAttribPointer(index, size, type, normalized, stride, ptr);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int index, int size, int type, boolean normalized, int stride, int offset) {
+        record("glVertexAttribPointer");
+        super.glVertexAttribPointer(index, size, type, normalized, stride, offset);
+    }
+
+    @Override
+    public void glVertexAttribDivisor(int index, int divisor) {
+        record("glVertexAttribDivisor");
+        super.glVertexAttribDivisor(index, divisor);
+    }
+
+    @Override
+    public void glGenBuffers(int n, int[] buffers, int offset) {
+        record("glGenBuffers");
+        super.glGenBuffers(n, buffers, offset);
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, int[] buffers, int offset) {
+        record("glDeleteBuffers");
+        super.glDeleteBuffers(n, buffers, offset);
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        record("glBindBuffer");
+        super.glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        record("glBufferData");
+        super.glBufferData(target, size, data, usage);
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        record("glBufferSubData");
+        super.glBufferSubData(target, offset, size, data);
+    }
+
+    @Override
+    public void glGenTextures(int n, int[] textures, int offset) {
+        record("glGenTextures");
+        super.glGenTextures(n, textures, offset);
+    }
+
+    @Override
+    public void glDeleteTextures(int n, int[] textures, int offset) {
+        record("glDeleteTextures");
+        super.glDeleteTextures(n, textures, offset);
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        record("glActiveTexture");
+        super.glActiveTexture(texture);
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        record("glBindTexture");
+        super.glBindTexture(target, texture);
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        record("glTexParameterf");
+        super.glTexParameterf(target, pname, param);
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        record("glTexParameteri");
+        super.glTexParameteri(target, pname, param);
+    }
+
+    @Override
+    public void glGenerateMipmap(int target) {
+        record("glGenerateMipmap");
+        super.glGenerateMipmap(target);
+    }
+
+    @Override
+    public void texImage2D(int target, int level, Bitmap bitmap, int border) {
+        record("texImage2D");
+        super.texImage2D(target, level, bitmap, border);
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+        record("glCompressedTexImage2D");
+        super.glCompressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data);
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        record("glDrawArrays");
+        super.glDrawArrays(mode, first, count);
+    }
+
+    @Override
+    public void glDrawArraysInstanced(int mode, int first, int count, int instanceCount) {
+        record("glDrawArraysInstanced");
+        super.glDrawArraysInstanced(mode, first, count, instanceCount);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        record("glDrawElements");
+        super.glDrawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        record("glReadPixels");
+        super.glReadPixels(x, y, width, height, format, type, pixels);
+    }
+
+    @Override
+    public long glFenceSync(int condition, int flags) {
+        record("glFenceSync");
+        return super.glFenceSync(condition, flags);
+    }
+
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout) {
+        record("glClientWaitSync");
+        return super.glClientWaitSync(sync, flags, timeout);
+    }
+
+    @Override
+    public void glDeleteSync(long sync) {
+        record("glDeleteSync");
+        super.glDeleteSync(sync);
+    }
+}
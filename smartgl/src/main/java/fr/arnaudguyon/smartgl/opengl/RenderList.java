@@ -0,0 +1,99 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The RenderPasses of the renderer, or the RenderObjects of a pass: a plain array owned by the OpenGL thread,
+ * read without lock by the renderer loops. Read it on the OpenGL thread only (in onTick, onPreRender, tick...).
+ * It can't be modified through the List interface: use the methods of the renderer and of the passes,
+ * which apply the modifications on the OpenGL thread, and queue them from the other threads.
+ */
+public final class RenderList<T> extends AbstractList<T> implements RandomAccess {
+
+    private Object[] mItems = new Object[16];
+    private int mSize;
+
+    /* package */ RenderList() {
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get(int index) {
+        if (index >= mSize) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + mSize);
+        }
+        return (T) mItems[index];
+    }
+
+    // Without iterator, unlike AbstractList
+    @Override
+    public int indexOf(Object item) {
+        for (int i = 0; i < mSize; ++i) {
+            if ((item == null) ? (mItems[i] == null) : item.equals(mItems[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object item) {
+        return (indexOf(item) >= 0);
+    }
+
+    // Modifications, OpenGL thread only
+
+    /* package */ void addItem(T item) {
+        if (mSize == mItems.length) {
+            mItems = Arrays.copyOf(mItems, mSize * 2);
+        }
+        mItems[mSize++] = item;
+        ++modCount;
+    }
+
+    /* package */ void setItem(int index, T item) {
+        if (index >= mSize) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + mSize);
+        }
+        mItems[index] = item;
+    }
+
+    /* package */ boolean removeItem(Object item) {
+        final int index = indexOf(item);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(mItems, index + 1, mItems, index, mSize - index - 1);
+        mItems[--mSize] = null;
+        ++modCount;
+        return true;
+    }
+
+    /* package */ void clearItems() {
+        Arrays.fill(mItems, 0, mSize, null);
+        mSize = 0;
+        ++modCount;
+    }
+}
@@ -17,23 +17,47 @@ package fr.arnaudguyon.smartgl.opengl;
 
 import java.util.Vector;
 
-import android.opengl.Matrix;
-
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import fr.arnaudguyon.smartgl.math.Bounds3D;
+import fr.arnaudguyon.smartgl.math.Mat4;
 
 public abstract class RenderObject implements IShaderTextureFade {
 
 	private boolean mIs3D;
 	private boolean mVisible;
 	private @NonNull Vector<Face3D> mFaces = new Vector<>();
-	private final @NonNull float[] mMatrix = new float[16];
+	private @Nullable RenderObjectContainer mParent;
+	private final @NonNull float[] mLocalMatrix = new float[16];
+	private final @NonNull float[] mMatrix = new float[16];	// parent matrix * local matrix
     private float mAlpha = 1;
+    private boolean mTransparent = false;
+    private final Bounds3D mBounds = new Bounds3D();
+    private long mBoundsStamp = -1;
+    private long mBoundsVersion = UniformCache.NO_VERSION;
     private boolean mInvalidMatrix = true;
+    private boolean mInvalidWorldMatrix = true;    // when true, it is also true for all the children
+    private long mLocalMatrixVersion = UniformCache.NO_VERSION;
+    private long mMatrixVersion = UniformCache.NO_VERSION;
+    private final float[] mScreenRect = new float[4];
+    private final float[] mScreenRectResult = new float[4];
+    // computed by the job system before the serial rendering of a frame
+    private long mPreparedFrame = -1;
+    private boolean mPreparedOutOfView;
+    private int mPreparedDepth;
+    private long mPreRenderedQueue = -1;           // last RenderQueue where onPreRenderObject was called
+    private long mScreenRectMatrixVersion = UniformCache.NO_VERSION;
+    private long mScreenRectBoundsVersion = UniformCache.NO_VERSION;
+    private final float[] mProjMatrix = new float[16];   // projection * matrix
+    private long mProjMatrixVersion = UniformCache.NO_VERSION;      // object matrix version in mProjMatrix
+    private long mProjMatrixProjVersion = UniformCache.NO_VERSION;  // projection version in mProjMatrix
 
 	public RenderObject(boolean is3D) {
 		mIs3D = is3D;
 		mVisible = true;
-		Matrix.setIdentityM(mMatrix, 0);
+		Mat4.setIdentity(mLocalMatrix);
+		Mat4.setIdentity(mMatrix);
 	}
 	
 	public final boolean is3D() {
@@ -52,17 +76,148 @@ public abstract class RenderObject implements IShaderTextureFade {
 		return !mVisible;
 	}
 
+	/**
+	 * @return true if this object and all its parent containers are visible
+	 */
+	public final boolean isVisibleInHierarchy() {
+		return mVisible && ((mParent == null) || mParent.isVisibleInHierarchy());
+	}
+
+	/**
+	 * @return the container of this object, null if it is directly in a RenderPass
+	 */
+	public final @Nullable RenderObjectContainer getParent() {
+		return mParent;
+	}
+
+	/* package */ final void setParent(@Nullable RenderObjectContainer parent) {
+		mParent = parent;
+		invalidWorldMatrix();
+	}
+
 	public final @NonNull Vector<Face3D> getFaces() {
 		return mFaces;
 	}
 
 	public final void setFaces(@NonNull Vector<Face3D> faces) {
 		mFaces = faces;
+		mBoundsStamp = -1;
 	}
 	public final void addFace(@NonNull Face3D face) {
 		mFaces.add(face);
 	}
 
+	/**
+	 * Bounds of all the faces in local coordinates (before the transformation matrix), used for frustum culling.
+	 * Recomputed only when a VertexList has changed or the number of faces is different.
+	 * @return the bounds, or null if the object has no vertices
+	 */
+	public @Nullable Bounds3D getBounds() {
+		final Vector<Face3D> faces = mFaces;
+		final int faceSize = faces.size();
+		int maxVersion = 0;
+		for (int i = 0; i < faceSize; ++i) {
+			VertexList vertexList = faces.get(i).getVertexList();
+			if ((vertexList != null) && (vertexList.getBoundsVersion() > maxVersion)) {
+				maxVersion = vertexList.getBoundsVersion();
+			}
+		}
+		final long stamp = (((long) maxVersion) << 32) | faceSize;
+		if (stamp != mBoundsStamp) {
+			mBounds.setEmpty();
+			for (int i = 0; i < faceSize; ++i) {
+				Bounds3D faceBounds = faces.get(i).getBounds();
+				if (faceBounds != null) {
+					mBounds.union(faceBounds);
+				}
+			}
+			mBoundsStamp = stamp;
+			onBoundsChanged();
+		}
+		return mBounds.isEmpty() ? null : mBounds;
+	}
+
+	/**
+	 * Must be called by the overrides of getBounds() each time they compute different bounds
+	 */
+	protected final void onBoundsChanged() {
+		mBoundsVersion = UniformCache.newVersion();
+	}
+
+	/**
+	 * @return a number which changes each time the bounds are computed again
+	 */
+	public final long getBoundsVersion() {
+		return mBoundsVersion;
+	}
+
+	/**
+	 * Bounding rectangle, in screen pixels, of a 2D object: the bounds of its vertices transformed by its matrix,
+	 * so it follows the position, pivot, rotation and scale.
+	 * @param rect4 receives left, top, right, bottom
+	 * @return false if the object has no vertices
+	 */
+	public boolean getScreenRect(@NonNull float[] rect4) {
+		Bounds3D bounds = getBounds();
+		if (bounds == null) {
+			return false;
+		}
+		final float[] m = getMatrix();
+		if ((mMatrixVersion != mScreenRectMatrixVersion) || (mBoundsVersion != mScreenRectBoundsVersion)) {
+			final float cx = bounds.getCenterX();
+			final float cy = bounds.getCenterY();
+			final float cz = bounds.getCenterZ();
+			final float ex = (bounds.getMaxX() - bounds.getMinX()) / 2;
+			final float ey = (bounds.getMaxY() - bounds.getMinY()) / 2;
+			final float x = m[0] * cx + m[4] * cy + m[8] * cz + m[12];
+			final float y = m[1] * cx + m[5] * cy + m[9] * cz + m[13];
+			final float halfWidth = Math.abs(m[0]) * ex + Math.abs(m[4]) * ey;
+			final float halfHeight = Math.abs(m[1]) * ex + Math.abs(m[5]) * ey;
+			mScreenRect[0] = x - halfWidth;
+			mScreenRect[1] = y - halfHeight;
+			mScreenRect[2] = x + halfWidth;
+			mScreenRect[3] = y + halfHeight;
+			mScreenRectMatrixVersion = mMatrixVersion;
+			mScreenRectBoundsVersion = mBoundsVersion;
+		}
+		System.arraycopy(mScreenRect, 0, rect4, 0, 4);
+		return true;
+	}
+
+	/**
+	 * @return true if the screen rectangle of this object is entirely outside of [0, width[ x [0, height[
+	 */
+	/* package */ final boolean isOutOfScreen(int width, int height) {
+		if (!getScreenRect(mScreenRectResult)) {
+			return false;
+		}
+		final float[] rect = mScreenRectResult;
+		return (rect[0] >= width) || (rect[2] <= 0) || (rect[1] >= height) || (rect[3] <= 0);
+	}
+
+	/**
+	 * Hit test against the bounding rectangle in screen pixels, see getScreenRect
+	 * @return false if the point is outside, or the object has no vertices
+	 */
+	public boolean containsScreenPoint(float x, float y) {
+		if (!getScreenRect(mScreenRectResult)) {
+			return false;
+		}
+		final float[] rect = mScreenRectResult;
+		return (x >= rect[0]) && (x < rect[2]) && (y >= rect[1]) && (y < rect[3]);
+	}
+
+	/**
+	 * Uploads the geometry of all the faces to GPU Buffer Objects (VBO) instead of sending it at every frame.
+	 * Recommended for static meshes. Faces added later are not affected.
+	 * @param useBufferObjects true to use Buffer Objects
+	 */
+	public void setUseBufferObjects(boolean useBufferObjects) {
+		for(Face3D face : mFaces) {
+			face.setUseBufferObjects(useBufferObjects);
+		}
+	}
+
 //	protected final float[] getMatrixArray() {
 //		return mMatrix;
 //	}
@@ -73,25 +228,122 @@ public abstract class RenderObject implements IShaderTextureFade {
 
 	abstract protected void computeMatrix(float[] matrix);
 
-    public float[] getMatrix() {
+    /**
+     * @return the transformation of this object relative to its container
+     */
+    public final float[] getLocalMatrix() {
         if (mInvalidMatrix) {
-            computeMatrix(mMatrix);
+            computeMatrix(mLocalMatrix);
             mInvalidMatrix = false;
+            mLocalMatrixVersion = UniformCache.newVersion();
+        }
+        return mLocalMatrix;
+    }
+
+    /**
+     * @return a number which changes each time the local matrix is computed
+     */
+    public final long getLocalMatrixVersion() {
+        getLocalMatrix();
+        return mLocalMatrixVersion;
+    }
+
+    /**
+     * @return the transformation of this object in the world: the matrices of its containers * its local matrix.
+     * Computed again only when this object or one of its containers has changed.
+     */
+    public float[] getMatrix() {
+        if (mInvalidWorldMatrix) {
+            final float[] localMatrix = getLocalMatrix();
+            if (mParent != null) {
+                Mat4.multiply(mMatrix, mParent.getMatrix(), localMatrix);
+            } else {
+                System.arraycopy(localMatrix, 0, mMatrix, 0, 16);
+            }
+            mInvalidWorldMatrix = false;
+            mMatrixVersion = UniformCache.newVersion();
         }
         return mMatrix;
     }
 
+    /**
+     * @return a number which changes each time the matrix is computed, so that shaders upload it only once
+     */
+    public long getMatrixVersion() {
+        getMatrix();
+        return mMatrixVersion;
+    }
+
+    /**
+     * Projection * matrix, computed again only when the matrix or the projection has changed
+     * @param projection        projection matrix of the render pass
+     * @param projectionVersion changes each time the projection changes, NO_VERSION to always compute
+     * @return the matrix sent to the shader
+     */
+    /* package */ float[] getProjMatrix(@NonNull float[] projection, long projectionVersion) {
+        final float[] matrix = getMatrix();
+        if ((mMatrixVersion != mProjMatrixVersion) || (projectionVersion != mProjMatrixProjVersion)
+                || (projectionVersion == UniformCache.NO_VERSION)) {
+            Mat4.multiply(mProjMatrix, projection, matrix);
+            mProjMatrixVersion = mMatrixVersion;
+            mProjMatrixProjVersion = projectionVersion;
+        }
+        return mProjMatrix;
+    }
+
+    /* package */ final void setPrepared(long frame, boolean outOfView, int depth) {
+        mPreparedOutOfView = outOfView;
+        mPreparedDepth = depth;
+        mPreparedFrame = frame;
+    }
+
+    /**
+     * @return true if the job system has already ticked and culled this object for the frame
+     */
+    /* package */ final boolean isPrepared(long frame) {
+        return (mPreparedFrame == frame);
+    }
+
+    /* package */ final boolean isPreparedOutOfView() {
+        return mPreparedOutOfView;
+    }
+
+    /* package */ final int getPreparedDepth() {
+        return mPreparedDepth;
+    }
+
+    /**
+     * @param queue number of the RenderQueue being drawn
+     * @return true the first time it is called for this queue, to call onPreRenderObject before the first face
+     */
+    /* package */ final boolean startPreRender(long queue) {
+        if (mPreRenderedQueue == queue) {
+            return false;
+        }
+        mPreRenderedQueue = queue;
+        return true;
+    }
+
     protected void invalidMatrix() {
         mInvalidMatrix = true;
+        invalidWorldMatrix();
+    }
+
+    // Marks the world matrix of this object and of its subtree. A subtree already marked is not visited again.
+    /* package */ final void invalidWorldMatrix() {
+        if (mInvalidWorldMatrix) {
+            return;
+        }
+        mInvalidWorldMatrix = true;
+        if (isContainer()) {
+            ((RenderObjectContainer) this).invalidChildrenWorldMatrix();
+        }
     }
 
 	public void forceReleaseAll() {
 		// force deleteOpenGLResource
 		for(Face3D face : mFaces) {
-			Texture texture = face.getTexture();
-			if (texture != null) {
-				texture.unbindTexture();
-			}
+			face.releaseTexture();
 		}
 		// then normal release resources
 		releaseResources();
@@ -106,20 +358,25 @@ public abstract class RenderObject implements IShaderTextureFade {
 
 	public void releaseTextures() {
 		for(Face3D face : mFaces) {
-			Texture texture = face.getTexture();
-			if (texture != null) {
-				texture.unbindTexture();
-			}
+			face.releaseTexture();
 		}
 	}
 	
-	// always called, even if object is hidden
+	/**
+	 * Called once per frame, even if the object is hidden, before its container is drawn.
+	 * Threading contract: without job system, called on the OpenGL thread. With OpenGLRenderer.setJobSystem, called
+	 * on any thread, in parallel with the tick of the other top level objects (the children of a container are ticked
+	 * by the same thread, after the container). It must not call OpenGL, nor add or remove objects and passes (the
+	 * renderer is locked by the OpenGL thread), and must only modify this object and its children.
+	 */
 	public void tick(OpenGLRenderer renderer) {}
 
 	public boolean shouldDisplay(OpenGLRenderer renderer) {
 		return mVisible;
 	}
-	// called only if shouldDisplay return true
+	// called only if shouldDisplay return true, right before the first face of the object is drawn.
+	// The faces are sorted by state and depth: faces of other objects may be drawn between the faces of this one,
+	// so OpenGL state or uniforms specific to this object must be set in onPreRenderFace.
 	public void onPreRenderObject(OpenGLRenderer renderer) {}
 	// called for each face, typically used to add specific shader links
 	public void onPreRenderFace(OpenGLRenderer renderer, Shader shader, Face3D face) {}
@@ -134,12 +391,28 @@ public abstract class RenderObject implements IShaderTextureFade {
         mAlpha = alpha;
     }
 
+    /**
+     * @return the alpha of this object multiplied by the alpha of its containers
+     */
+    public float getWorldAlpha() {
+        return (mParent != null) ? (mAlpha * mParent.getWorldAlpha()) : mAlpha;
+    }
+
+    /**
+     * Hint for the render queue of 3D passes: transparent objects are drawn after the opaque ones, from far to near.
+     * Objects with an alpha lower than 1 are always considered transparent.
+     * @param transparent true if the textures of the object have transparent pixels
+     */
+    public void setTransparent(boolean transparent) {
+        mTransparent = transparent;
+    }
+
+    public boolean isTransparent() {
+        return mTransparent || (getWorldAlpha() < 1);
+    }
+
     public void localToGlobalPosition(float localX, float localY, float localZ, float[] result4f) {
         float[] rectMatrix = getMatrix();
-        result4f[0] = localX;
-        result4f[1] = localY;
-        result4f[2] = localZ;
-        result4f[3] = 1;
-        Matrix.multiplyMV(result4f, 0, rectMatrix, 0, result4f, 0);
+        Mat4.multiplyVector(result4f, rectMatrix, localX, localY, localZ, 1);
     }
 }
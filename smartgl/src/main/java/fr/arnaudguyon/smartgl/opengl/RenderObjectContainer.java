@@ -15,14 +15,265 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Vector;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import fr.arnaudguyon.smartgl.math.Bounds3D;
+import fr.arnaudguyon.smartgl.math.Mat4;
+
+/**
+ * Group of objects sharing a transformation: the matrix of each child is the matrix of the container * its own matrix,
+ * so moving, rotating or scaling the container moves all its children. Visibility and alpha also apply to the children.
+ * World matrices are cached, and computed again only for the branches that have changed.
+ */
 public class RenderObjectContainer extends RenderObject {
+
+	private final @NonNull Vector<RenderObject> mChildren = new Vector<>();
+	private final @NonNull List<RenderObject> mChildrenView = Collections.unmodifiableList(mChildren);
+	private float mPosX, mPosY, mPosZ;
+	private float mRotX, mRotY, mRotZ;
+	private float mScaleX = 1, mScaleY = 1, mScaleZ = 1;
+
+	private final Bounds3D mChildrenBounds = new Bounds3D();
+	private final Bounds3D mTmpBounds = new Bounds3D();
+	private long mChildrenBoundsVersion = UniformCache.NO_VERSION;	// version when mChildrenBounds was computed
+	private int mChildrenBoundsCount = -1;
+
+	private boolean mHasScreenBounds = false;
+	private final float[] mScreenBounds = new float[4];	// left, top, right, bottom
+	private final float[] mTmpRect = new float[4];
 	
 	public RenderObjectContainer( boolean is3d) {
 		super(is3d);
 	}
 
+	/**
+	 * Adds a child, removed from its previous container if any
+	 * @param child the object, or container, to add. Can't be this container or one of its ancestors.
+	 */
+	public void addChild(@NonNull RenderObject child) {
+		for (RenderObject ancestor = this; ancestor != null; ancestor = ancestor.getParent()) {
+			if (ancestor == child) {
+				throw new IllegalArgumentException("a container can't contain itself or one of its ancestors");
+			}
+		}
+		RenderObjectContainer parent = child.getParent();
+		if (parent != null) {
+			parent.removeChild(child);
+		}
+		mChildren.add(child);
+		child.setParent(this);
+	}
+
+	/**
+	 * @param child the object to remove
+	 * @return false if the object was not a child of this container
+	 */
+	public boolean removeChild(@NonNull RenderObject child) {
+		if (!mChildren.remove(child)) {
+			return false;
+		}
+		child.setParent(null);
+		return true;
+	}
+
+	public void removeAllChildren() {
+		for (int i = 0; i < mChildren.size(); ++i) {
+			mChildren.get(i).setParent(null);
+		}
+		mChildren.clear();
+	}
+
+	/* package */ void invalidChildrenWorldMatrix() {
+		List<RenderObject> objects = getRenderObjects();
+		if (objects != null) {
+			for (int i = 0; i < objects.size(); ++i) {
+				objects.get(i).invalidWorldMatrix();
+			}
+		}
+	}
+
+	public final void setPos(float x, float y) {
+		setPos(x, y, mPosZ);
+	}
+
+	public final void setPos(float x, float y, float z) {
+		mPosX = x;
+		mPosY = y;
+		mPosZ = z;
+		invalidMatrix();
+	}
+
+	public final float getPosX() {
+		return mPosX;
+	}
+
+	public final float getPosY() {
+		return mPosY;
+	}
+
+	public final float getPosZ() {
+		return mPosZ;
+	}
+
+	/**
+	 * Rotation of a 2D container
+	 * @param angle rotation around Z, in degrees
+	 */
+	public final void setRotation(float angle) {
+		setRotation(mRotX, mRotY, angle);
+	}
+
+	public final void setRotation(float x, float y, float z) {
+		mRotX = x;
+		mRotY = y;
+		mRotZ = z;
+		invalidMatrix();
+	}
+
+	public final float getRotX() {
+		return mRotX;
+	}
+
+	public final float getRotY() {
+		return mRotY;
+	}
+
+	public final float getRotZ() {
+		return mRotZ;
+	}
+
+	public final void setScale(float x, float y) {
+		setScale(x, y, mScaleZ);
+	}
+
+	public final void setScale(float x, float y, float z) {
+		mScaleX = x;
+		mScaleY = y;
+		mScaleZ = z;
+		invalidMatrix();
+	}
+
+	public final float getScaleX() {
+		return mScaleX;
+	}
+
+	public final float getScaleY() {
+		return mScaleY;
+	}
+
+	public final float getScaleZ() {
+		return mScaleZ;
+	}
+
+	/**
+	 * Union of the bounds of the children, transformed by their local matrices, in the coordinates of this container.
+	 * Computed again only when a child has moved, changed its bounds, or has been added or removed.
+	 * @return the bounds, or null if one child has unknown bounds (the container is then never culled)
+	 */
+	@Override
+	public @Nullable Bounds3D getBounds() {
+		List<RenderObject> objects = getRenderObjects();
+		if ((objects == null) || objects.isEmpty()) {
+			return null;
+		}
+		final int size = objects.size();
+		boolean changed = (size != mChildrenBoundsCount);
+		for (int i = 0; i < size; ++i) {
+			RenderObject child = objects.get(i);
+			if (child.getBounds() == null) {
+				mChildrenBoundsCount = -1;
+				return null;
+			}
+			if ((child.getBoundsVersion() > mChildrenBoundsVersion) || (child.getLocalMatrixVersion() > mChildrenBoundsVersion)) {
+				changed = true;
+			}
+		}
+		if (changed) {
+			mChildrenBounds.setEmpty();
+			for (int i = 0; i < size; ++i) {
+				RenderObject child = objects.get(i);
+				mTmpBounds.setTransformed(child.getBounds(), child.getLocalMatrix());
+				mChildrenBounds.union(mTmpBounds);
+			}
+			mChildrenBoundsVersion = UniformCache.newVersion();
+			mChildrenBoundsCount = size;
+			onBoundsChanged();
+		}
+		return mChildrenBounds;
+	}
+
+	/**
+	 * Publishes a fixed screen rectangle covering all the objects of a 2D container, used instead of the bounds
+	 * computed from the children. Must be updated when the objects move.
+	 */
+	public final void setScreenBounds(float left, float top, float right, float bottom) {
+		mScreenBounds[0] = left;
+		mScreenBounds[1] = top;
+		mScreenBounds[2] = right;
+		mScreenBounds[3] = bottom;
+		mHasScreenBounds = true;
+	}
+
+	/**
+	 * Publishes the union of the current screen rectangles of the objects (and sub containers), see setScreenBounds.
+	 * Typically called once after building a static part of a level.
+	 */
+	public final void updateScreenBounds() {
+		mHasScreenBounds = false;
+		final float[] rect = mTmpRect;	// one per container, the sub containers use their own
+		List<RenderObject> objects = getRenderObjects();
+		if (objects != null) {
+			for (int i = 0; i < objects.size(); ++i) {
+				RenderObject object = objects.get(i);
+				if (object.isContainer()) {
+					((RenderObjectContainer) object).updateScreenBounds();
+				}
+				if (!object.getScreenRect(rect)) {
+					mHasScreenBounds = false;	// one object has unknown bounds: never skip the container
+					return;
+				}
+				if (!mHasScreenBounds) {
+					setScreenBounds(rect[0], rect[1], rect[2], rect[3]);
+				} else {
+					mScreenBounds[0] = Math.min(mScreenBounds[0], rect[0]);
+					mScreenBounds[1] = Math.min(mScreenBounds[1], rect[1]);
+					mScreenBounds[2] = Math.max(mScreenBounds[2], rect[2]);
+					mScreenBounds[3] = Math.max(mScreenBounds[3], rect[3]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops publishing screen bounds: the bounds computed from the children are used again
+	 */
+	public final void clearScreenBounds() {
+		mHasScreenBounds = false;
+	}
+
+	@Override
+	public boolean getScreenRect(@NonNull float[] rect4) {
+		if (!mHasScreenBounds) {
+			return super.getScreenRect(rect4);
+		}
+		System.arraycopy(mScreenBounds, 0, rect4, 0, 4);
+		return true;
+	}
+
+	@Override
+	protected void releaseResources() {
+		for (int i = 0; i < mChildren.size(); ++i) {
+			mChildren.get(i).releaseResources();
+		}
+		removeAllChildren();
+		super.releaseResources();
+	}
+
 	@Override
 	final protected boolean isContainer() {
 		return true;
@@ -30,11 +281,16 @@ public class RenderObjectContainer extends RenderObject {
 
     @Override
     protected void computeMatrix(float[] matrix) {
-
+		Mat4.setTRS(matrix, mPosX, mPosY, mPosZ, mRotX, mRotY, mRotZ, mScaleX, mScaleY, mScaleZ);
     }
 
-    protected Vector<RenderObject> getRenderObjects() {
-		return null;
+	/**
+	 * The children are owned by the container, which gives them their parent: add them with addChild().
+	 * Subclasses which used to override this method to return their own list must call addChild() instead.
+	 * @return the children, read-only
+	 */
+	protected final @NonNull List<RenderObject> getRenderObjects() {
+		return mChildrenView;
 	}
 
 }
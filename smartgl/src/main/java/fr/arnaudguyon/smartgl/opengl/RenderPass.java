@@ -15,22 +15,35 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
-import java.util.Vector;
-
-import android.opengl.GLES20;
-
 import androidx.annotation.NonNull;
 
+import java.util.List;
+
 import fr.arnaudguyon.smartgl.tools.Assert;
+import fr.arnaudguyon.smartgl.tools.Tracer;
 
+/**
+ * A list of RenderObjects drawn with the same Shader.
+ * The objects can be added and removed from any thread. On the OpenGL thread the modifications apply immediately.
+ * From the other threads they are queued without lock, with the ones of the renderer, and applied in order
+ * at the beginning of the next frame, once the pass is added to the renderer.
+ */
 public class RenderPass {
     private final static int NOPROGRAM = 0;
 
     private int mProgramId = NOPROGRAM;
     private Shader mShaders;
 
-    private final @NonNull
-    Vector<RenderObject> mRenderObjects = new Vector<>();
+    /* package */ final @NonNull
+    RenderList<RenderObject> mRenderObjects = new RenderList<>();
+    private volatile OpenGLRenderer mRenderer;     // set by the renderer on the OpenGL thread, when the pass is added
+    private final SceneMutationQueue mPendingMutations = new SceneMutationQueue();   // posted before the pass is added
+    private final SceneMutationQueue.Handler mMutationHandler = new SceneMutationQueue.Handler() {
+        @Override
+        public void onMutation(int type, Object owner, Object target, boolean flag) {
+            applyMutation(type, (RenderObject) target);
+        }
+    };
 
     private boolean mUseZBuffer = false;
     private boolean mClearZBuffer = false;
@@ -39,32 +52,93 @@ public class RenderPass {
         return (mProgramId != NOPROGRAM);
     }
 
-    /* package */ void load() {
+    /* package */ void load(@NonNull GLCapabilities capabilities) {
         Assert.assertTrue(!isLoaded());
         if (mShaders != null) {
-            mProgramId = GLES20.glCreateProgram();
-
+            Tracer.begin("RenderPass.load");
+            ProgramRegistry programRegistry = ProgramRegistry.getInstance();
+            mProgramId = programRegistry.getProgram(mShaders, capabilities);
             Assert.assertTrue(mProgramId != NOPROGRAM);
-            if (!mShaders.isLoaded()) {
-                mShaders.loadShader(mProgramId);
-            }
-            GLES20.glAttachShader(mProgramId, mShaders.getVertexScriptId());
-            GLES20.glAttachShader(mProgramId, mShaders.getPixelScriptId());
-            GLES20.glLinkProgram(mProgramId);
-            int[] linkStatus = new int[1];
-            GLES20.glGetProgramiv(mProgramId, GLES20.GL_LINK_STATUS, linkStatus, 0);
-            Assert.assertTrue(linkStatus[0] == GLES20.GL_TRUE);
+            mShaders.setUniformCache(programRegistry.getUniformCache(mProgramId));
             mShaders.init(mProgramId);
+            Tracer.end();
         }
     }
 
+    /**
+     * @return the objects of the pass, read-only, to read on the OpenGL thread only
+     */
     public @NonNull
-    Vector<RenderObject> getRenderObjects() {
+    List<RenderObject> getRenderObjects() {
         return mRenderObjects;
     }
 
-    public boolean removeObject(@NonNull RenderObject renderObject) {
-        return mRenderObjects.remove(renderObject);
+    /**
+     * Adds an object. Can be called from any thread, see the class description.
+     */
+    protected void addRenderObject(@NonNull RenderObject renderObject) {
+        mutate(SceneMutationQueue.ADD, renderObject);
+    }
+
+    /**
+     * Adds a group of objects, drawn with the shader of this pass
+     * @param container the container, whose children must be compatible with this pass
+     */
+    public void addContainer(@NonNull RenderObjectContainer container) {
+        addRenderObject(container);
+    }
+
+    /**
+     * Removes an object. Can be called from any thread, see the class description.
+     */
+    public void removeObject(@NonNull RenderObject renderObject) {
+        mutate(SceneMutationQueue.REMOVE, renderObject);
+    }
+
+    // Applied now on the OpenGL thread, else queued with the modifications of the renderer to keep their order
+    private void mutate(int type, RenderObject target) {
+        OpenGLRenderer renderer = mRenderer;
+        if (renderer == null) {
+            mPendingMutations.post(type, null, target, false);
+        } else if (renderer.isOpenGLThread()) {
+            applyMutation(type, target);
+        } else {
+            renderer.postMutation(type, this, target);
+        }
+    }
+
+    // OpenGL thread
+    /* package */ void applyMutation(int type, RenderObject target) {
+        switch (type) {
+            case SceneMutationQueue.ADD:
+                mRenderObjects.addItem(target);
+                break;
+            case SceneMutationQueue.REMOVE:
+                mRenderObjects.removeItem(target);
+                break;
+            case SceneMutationQueue.CLEAR:
+                mRenderObjects.clearItems();
+                break;
+        }
+    }
+
+    // Called by the renderer on the OpenGL thread, when the pass is added
+    /* package */ void attach(@NonNull OpenGLRenderer renderer) {
+        mRenderer = renderer;
+        applyPendingMutations();
+    }
+
+    // Called by the renderer on the OpenGL thread, when the pass is removed
+    /* package */ void detach(@NonNull OpenGLRenderer renderer) {
+        if (mRenderer == renderer) {
+            mRenderer = null;
+        }
+    }
+
+    // Called by the renderer on the OpenGL thread, at the beginning of the frame. The modifications posted
+    // while the pass was being added are late by one frame, the next ones go through the renderer.
+    /* package */ void applyPendingMutations() {
+        mPendingMutations.apply(mMutationHandler);
     }
 
     public boolean useZBuffer() {
@@ -75,8 +149,11 @@ public class RenderPass {
         return mClearZBuffer;
     }
 
+    /**
+     * Removes all the objects. Can be called from any thread, see the class description.
+     */
     public void clearObjects() {
-        mRenderObjects.clear();
+        mutate(SceneMutationQueue.CLEAR, null);
     }
 
     public RenderPass() {
@@ -100,13 +177,16 @@ public class RenderPass {
         return mShaders;
     }
 
+    /**
+     * Releases the objects of the pass, and empties it. Call it from the OpenGL thread.
+     */
     public void releaseResources() {
         final int renderSize = mRenderObjects.size();
         for (int renderIt = 0; renderIt < renderSize; ++renderIt) {
             RenderObject renderObject = mRenderObjects.get(renderIt);
             renderObject.releaseResources();
         }
-        mRenderObjects.clear();
+        mRenderObjects.clearItems();
     }
 
     /* package */ void sortObjects() {
@@ -26,7 +26,8 @@ public class RenderPassObject3D extends RenderPass {
         SHADER_TEXTURE_AMBIANT,
         SHADER_TEXTURE_LIGHTS,
         SHADER_COLOR,
-        SHADER_COLOR_LIGHTS
+        SHADER_COLOR_LIGHTS,
+        SHADER_TEXTURE_INSTANCED
     }
 
     public RenderPassObject3D() {
@@ -61,10 +62,14 @@ public class RenderPassObject3D extends RenderPass {
                 ShaderColorLights shaderColorLights = new ShaderColorLights();
                 setShader(shaderColorLights);
                 break;
+            case SHADER_TEXTURE_INSTANCED:
+                ShaderTextureInstanced shaderTextureInstanced = new ShaderTextureInstanced();
+                setShader(shaderTextureInstanced);
+                break;
         }
     }
 
     public void addObject(Object3D object3D) {
-        getRenderObjects().add(object3D);
+        addRenderObject(object3D);
     }
 }
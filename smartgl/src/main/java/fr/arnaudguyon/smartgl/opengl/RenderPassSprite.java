@@ -15,9 +15,7 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.Vector;
 
 /**
  * Created by arnaud on 20/11/2016.
@@ -25,6 +23,8 @@ import java.util.Vector;
 
 public class RenderPassSprite extends RenderPass {
 
+    private boolean mBatching = false;
+
     public RenderPassSprite() {
         super(false, false);
         ShaderTexture shader = new ShaderTexture();
@@ -32,13 +32,46 @@ public class RenderPassSprite extends RenderPass {
     }
 
     public void addSprite(Sprite sprite) {
-        getRenderObjects().add(sprite);
+        addRenderObject(sprite);
+    }
+
+    /**
+     * Batching mode: the sprites are transformed on the CPU and merged in a single vertex stream.
+     * Consecutive sprites (in display priority order) sharing the same Texture are drawn with one draw call,
+     * so use few textures (or texture atlases) to get the best of it.
+     * The shader is only set up once per batch: Shader.onPreRender is not called for each sprite,
+     * and the batch has no color stream. So batching is ignored for the shaders with colors or with
+     * per sprite uniforms (like the alpha of IShaderTextureFade).
+     * @param batching true to enable batching, false (default) to draw each sprite separately
+     */
+    public void setBatching(boolean batching) {
+        mBatching = batching;
     }
 
+    public boolean isBatching() {
+        Shader shader = getShader();
+        return mBatching && shader.useTexture() && !shader.useColor() && !(shader instanceof IShaderTextureFade);
+    }
+
+    // Stable insertion sort, in place: the order rarely changes from one frame to the other, so this is
+    // linear most of the time and, unlike Collections.sort, doesn't copy the list.
+    // The list order is also used by the touch handling, the last sprite being on top.
     @Override
     void sortObjects() {
-        Vector<RenderObject> objects = getRenderObjects();
-        Collections.sort(objects, SPRITE_COMPARATOR);
+        RenderList<RenderObject> objects = mRenderObjects;
+        final int size = objects.size();
+        for (int i = 1; i < size; ++i) {
+            RenderObject object = objects.get(i);
+            int j = i - 1;
+            if (SPRITE_COMPARATOR.compare(objects.get(j), object) <= 0) {
+                continue;   // already in place
+            }
+            do {
+                objects.setItem(j + 1, objects.get(j));
+                --j;
+            } while ((j >= 0) && (SPRITE_COMPARATOR.compare(objects.get(j), object) > 0));
+            objects.setItem(j + 1, object);
+        }
     }
 
     private static final Comparator<RenderObject> SPRITE_COMPARATOR = new Comparator<RenderObject>() {
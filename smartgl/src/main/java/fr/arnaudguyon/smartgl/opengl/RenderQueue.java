@@ -0,0 +1,189 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import androidx.annotation.NonNull;
+
+/**
+ * List of the faces to draw for a RenderPass, ordered by a 64 bits sort key.
+ *
+ * Opaque faces:      pass (8) | 0 | shader (7) | texture (16) | depth (24) | 0 (8)
+ * Transparent faces: pass (8) | 1 | far to near depth (24) | shader (7) | texture (16) | 0 (8)
+ *
+ * Opaque faces are grouped by state and drawn front to back (less overdraw thanks to the z-buffer),
+ * transparent faces are drawn back to front after them.
+ * Passes without z-buffer only use the pass bits, so that the insertion order is kept (the sort is stable).
+ * The arrays grow when needed but are reused from one frame to the other. Used from the OpenGL Thread only,
+ * the depths can be computed before by the job system.
+ */
+/* package */ class RenderQueue {
+
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX_SIZE = 1 << RADIX_BITS;
+    private static final int DEPTH_BITS = 24;
+    private static final int DEPTH_MAX = (1 << DEPTH_BITS) - 1;
+
+    private RenderObject[] mObjects = new RenderObject[DEFAULT_CAPACITY];
+    private Face3D[] mFaces = new Face3D[DEFAULT_CAPACITY];
+    private long[] mKeys = new long[DEFAULT_CAPACITY];
+    private int[] mOrder = new int[DEFAULT_CAPACITY];
+    private long[] mTmpKeys = new long[DEFAULT_CAPACITY];
+    private int[] mTmpOrder = new int[DEFAULT_CAPACITY];
+    private final int[] mHistogram = new int[RADIX_SIZE];
+    private int mSize;
+
+    private long mPassBits;
+    private long mShaderBits;
+    private boolean mDepthSort;
+    private float[] mViewProjMatrix;
+    private long mFrame;
+
+    /**
+     * Empties the queue and prepares it for a RenderPass
+     * @param passNumber     index of the pass in the renderer
+     * @param renderPass     the RenderPass
+     * @param viewProjMatrix projection * camera matrix, used to compute the depth of 3D objects
+     * @param frame          number of the frame, to reuse the depths computed by the job system
+     */
+    /* package */ void begin(int passNumber, @NonNull RenderPass renderPass, @NonNull float[] viewProjMatrix, long frame) {
+        for (int i = 0; i < mSize; ++i) {    // don't retain objects removed from the scene
+            mObjects[i] = null;
+            mFaces[i] = null;
+        }
+        mSize = 0;
+        mPassBits = ((long) (passNumber & 0xFF)) << 56;
+        mShaderBits = renderPass.getProgramId() & 0x7F;
+        mDepthSort = renderPass.useZBuffer();
+        mViewProjMatrix = viewProjMatrix;
+        mFrame = frame;
+    }
+
+    /* package */ int size() {
+        return mSize;
+    }
+
+    /* package */ RenderObject getObject(int index) {
+        return mObjects[mOrder[index]];
+    }
+
+    /* package */ Face3D getFace(int index) {
+        return mFaces[mOrder[index]];
+    }
+
+    /* package */ void add(@NonNull RenderObject object, @NonNull Face3D face) {
+        if (mSize == mKeys.length) {
+            grow();
+        }
+        mObjects[mSize] = object;
+        mFaces[mSize] = face;
+        mKeys[mSize] = computeKey(object, face);
+        mOrder[mSize] = mSize;
+        ++mSize;
+    }
+
+    private long computeKey(@NonNull RenderObject object, @NonNull Face3D face) {
+        if (!mDepthSort || !object.is3D()) {
+            return mPassBits;
+        }
+        Texture texture = face.getTexture();
+        final long textureBits = (texture != null) ? (texture.getId() & 0xFFFF) : 0;
+        final long depth = object.isPrepared(mFrame) ? object.getPreparedDepth() : quantizeDepth(mViewProjMatrix, object.getMatrix());
+        if (object.isTransparent()) {
+            final long farToNear = DEPTH_MAX - depth;
+            return mPassBits | (1L << 55) | (farToNear << 31) | (mShaderBits << 24) | (textureBits << 8);
+        } else {
+            return mPassBits | (mShaderBits << 48) | (textureBits << 32) | (depth << 8);
+        }
+    }
+
+    // Clip space z of the object origin, mapped to 24 ordered bits
+    /* package */ static int quantizeDepth(@NonNull float[] viewProjMatrix, @NonNull float[] modelMatrix) {
+        final float[] m = viewProjMatrix;
+        final float z = m[2] * modelMatrix[12] + m[6] * modelMatrix[13] + m[10] * modelMatrix[14] + m[14];
+        int bits = Float.floatToIntBits(z);
+        bits ^= (bits >> 31) | 0x80000000;  // negative floats sort before positive ones
+        return bits >>> (32 - DEPTH_BITS);
+    }
+
+    /**
+     * Stable LSD radix sort of the keys, 8 bits at a time. Digits that are the same for all the keys are skipped.
+     */
+    /* package */ void sort() {
+        final int size = mSize;
+        if (size < 2) {
+            return;
+        }
+        long[] keys = mKeys;
+        int[] order = mOrder;
+        long[] tmpKeys = mTmpKeys;
+        int[] tmpOrder = mTmpOrder;
+        final int[] histogram = mHistogram;
+
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            for (int i = 0; i < RADIX_SIZE; ++i) {
+                histogram[i] = 0;
+            }
+            for (int i = 0; i < size; ++i) {
+                ++histogram[(int) (keys[i] >>> shift) & (RADIX_SIZE - 1)];
+            }
+            if (histogram[(int) (keys[0] >>> shift) & (RADIX_SIZE - 1)] == size) {
+                continue;   // all the same
+            }
+            int offset = 0;
+            for (int i = 0; i < RADIX_SIZE; ++i) {
+                final int count = histogram[i];
+                histogram[i] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < size; ++i) {
+                final long key = keys[i];
+                final int dst = histogram[(int) (key >>> shift) & (RADIX_SIZE - 1)]++;
+                tmpKeys[dst] = key;
+                tmpOrder[dst] = order[i];
+            }
+            long[] swapKeys = keys;
+            keys = tmpKeys;
+            tmpKeys = swapKeys;
+            int[] swapOrder = order;
+            order = tmpOrder;
+            tmpOrder = swapOrder;
+        }
+        mKeys = keys;
+        mOrder = order;
+        mTmpKeys = tmpKeys;
+        mTmpOrder = tmpOrder;
+    }
+
+    // mKeys and mOrder are indexed by sorted position after sort(), mObjects and mFaces by insertion index
+    private void grow() {
+        final int capacity = mKeys.length * 2;
+        RenderObject[] objects = new RenderObject[capacity];
+        System.arraycopy(mObjects, 0, objects, 0, mSize);
+        mObjects = objects;
+        Face3D[] faces = new Face3D[capacity];
+        System.arraycopy(mFaces, 0, faces, 0, mSize);
+        mFaces = faces;
+        long[] keys = new long[capacity];
+        System.arraycopy(mKeys, 0, keys, 0, mSize);
+        mKeys = keys;
+        int[] order = new int[capacity];
+        System.arraycopy(mOrder, 0, order, 0, mSize);
+        mOrder = order;
+        mTmpKeys = new long[capacity];
+        mTmpOrder = new int[capacity];
+    }
+}
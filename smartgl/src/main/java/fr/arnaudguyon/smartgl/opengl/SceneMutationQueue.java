@@ -0,0 +1,86 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock free queue of scene modifications (add / remove of objects and passes, visibility), posted by any thread
+ * and applied in order by the OpenGL thread at the beginning of a frame.
+ * Multiple producers, single consumer: a producer only swaps the head then links the previous node,
+ * so it never waits for the OpenGL thread nor for the other producers.
+ */
+/* package */ final class SceneMutationQueue {
+
+    /* package */ static final int ADD = 0;
+    /* package */ static final int REMOVE = 1;
+    /* package */ static final int CLEAR = 2;
+    /* package */ static final int SET_VISIBLE = 3;
+
+    /* package */ interface Handler {
+        /**
+         * @param owner the RenderPass whose objects are modified, null for a modification of the renderer itself
+         */
+        void onMutation(int type, Object owner, Object target, boolean flag);
+    }
+
+    private static final class Mutation {
+        final int mType;
+        Object mOwner;
+        Object mTarget;
+        final boolean mFlag;
+        volatile Mutation mNext;
+
+        Mutation(int type, Object owner, Object target, boolean flag) {
+            mType = type;
+            mOwner = owner;
+            mTarget = target;
+            mFlag = flag;
+        }
+    }
+
+    private final AtomicReference<Mutation> mHead;     // last posted, swapped by the producers
+    private Mutation mTail;                             // last applied, only used by the consumer
+
+    /* package */ SceneMutationQueue() {
+        Mutation stub = new Mutation(CLEAR, null, null, false);
+        mHead = new AtomicReference<>(stub);
+        mTail = stub;
+    }
+
+    /* package */ void post(int type, Object owner, Object target, boolean flag) {
+        Mutation mutation = new Mutation(type, owner, target, flag);
+        Mutation previous = mHead.getAndSet(mutation);
+        previous.mNext = mutation;  // volatile write: publishes the mutation to the consumer
+    }
+
+    /**
+     * Applies the mutations posted so far. A mutation whose producer is still between the swap and the link
+     * waits for the next call, with the ones posted after it, so the order is kept.
+     * @param handler receives the mutations, on the calling thread
+     */
+    /* package */ void apply(Handler handler) {
+        Mutation next;
+        while ((next = mTail.mNext) != null) {
+            mTail = next;       // becomes the stub
+            Object owner = next.mOwner;
+            Object target = next.mTarget;
+            next.mOwner = null;
+            next.mTarget = null;
+            handler.onMutation(next.mType, owner, target, next.mFlag);
+        }
+    }
+}
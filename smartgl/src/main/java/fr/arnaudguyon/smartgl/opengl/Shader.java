@@ -21,19 +21,21 @@ import android.util.Log;
 import fr.arnaudguyon.smartgl.tools.Assert;
 
 abstract public class Shader {
-	
+
 	private static final String TAG = "Shader";
+	private static final GL sGL = GLBackend.get();
 	private final static int NOSHADER = 0;
+	private final static int NOPROGRAM = 0;
 
 	private String mVertexScript;
 	private String mPixelScript;
 	
-	private int mVertexScriptId;
-	private int mPixelScriptId;
+	private int mProgramId = NOPROGRAM;	// shared with the other Shaders with the same scripts, owned by the ProgramRegistry
 	private int mVertexAttribId;
 	private int mUVAttribId;
 	private int mColorAttribId;
 	private int mProjMatrixId;
+	private UniformCache mUniformCache = new UniformCache();
 
 	private Shader() {
 	}
@@ -42,35 +44,53 @@ abstract public class Shader {
 		this();
 		mVertexScript = vertexScript;
 		mPixelScript = pixelScript;
-		
-		mVertexScriptId = NOSHADER;
-		mPixelScriptId = NOSHADER;
 	}
 	
+	/**
+	 * @return true once a RenderPass has got the linked program of this Shader from the ProgramRegistry
+	 */
 	public boolean isLoaded() {
-		return (mVertexScriptId != NOSHADER);
+		return (mProgramId != NOPROGRAM);
 	}
 	
+	/**
+	 * @deprecated the ProgramRegistry compiles and links the scripts when the RenderPass is loaded. Does nothing.
+	 */
+	@Deprecated
 	public void loadShader(final int programId) {
-		mVertexScriptId = loadShader(GLES20.GL_VERTEX_SHADER, mVertexScript);
-		mPixelScriptId = loadShader(GLES20.GL_FRAGMENT_SHADER, mPixelScript);
 	}
 	
+	/**
+	 * @deprecated the ProgramRegistry deletes the compiled scripts once the program is linked. Does nothing.
+	 */
+	@Deprecated
 	public void unloadShader() {
-		if (isLoaded()) {
-			GLES20.glDeleteShader(mVertexScriptId);
-			GLES20.glDeleteShader(mPixelScriptId);
-			mVertexScriptId = NOSHADER;
-			mPixelScriptId = NOSHADER;
-		}
 	}
 	
+	/* package */ String getVertexScript() {
+		return mVertexScript;
+	}
+
+	/* package */ String getPixelScript() {
+		return mPixelScript;
+	}
+
+	/**
+	 * @deprecated the compiled scripts only live while the ProgramRegistry links the program
+	 * @return 0
+	 */
+	@Deprecated
 	public int getVertexScriptId() {
-		return mVertexScriptId;
+		return NOSHADER;
 	}
 
+	/**
+	 * @deprecated the compiled scripts only live while the ProgramRegistry links the program
+	 * @return 0
+	 */
+	@Deprecated
 	public int getPixelScriptId() {
-		return mPixelScriptId;
+		return NOSHADER;
 	}
 
 	public abstract boolean useTexture();
@@ -96,18 +116,29 @@ abstract public class Shader {
 		return mProjMatrixId;
 	}
 
-	private int loadShader(int shaderType, String script) {
+	/**
+	 * @return the versions of the values held by the uniforms of the program, to skip redundant uploads
+	 */
+	public UniformCache getUniformCache() {
+		return mUniformCache;
+	}
+
+	/* package */ void setUniformCache(UniformCache uniformCache) {
+		mUniformCache = uniformCache;
+	}
+
+	/* package */ static int loadShader(int shaderType, String script) {
 
-		int shader = GLES20.glCreateShader(shaderType);
+		int shader = sGL.glCreateShader(shaderType);
 		Assert.assertTrue(shader != 0);
 
-		GLES20.glShaderSource(shader, script);
-		GLES20.glCompileShader(shader);
+		sGL.glShaderSource(shader, script);
+		sGL.glCompileShader(shader);
 		int[] compiled = new int[1];
-		GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compiled, 0);
+		sGL.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compiled, 0);
 		if (compiled[0] == 0) {
-			Log.e(TAG, "Could not compile shader " + shaderType + " : " + GLES20.glGetShaderInfoLog(shader));
-			GLES20.glDeleteShader(shader);
+			Log.e(TAG, "Could not compile shader " + shaderType + " : " + sGL.glGetShaderInfoLog(shader));
+			sGL.glDeleteShader(shader);
 			shader = 0;
 			Assert.assertTrue(false);
 		}
@@ -121,10 +152,11 @@ abstract public class Shader {
 		final String colorAttribName = getColorAttribName();
 		final String projMatrixAttribName = getProjMatrixAttribName();
 
-		mVertexAttribId = (vertexAttribName != null) ? GLES20.glGetAttribLocation(programId, vertexAttribName) : -1;
-		mUVAttribId = (uvAttribName != null) ? GLES20.glGetAttribLocation(programId, uvAttribName) : -1;
-		mColorAttribId = (colorAttribName != null) ? GLES20.glGetAttribLocation(programId, colorAttribName) : -1;
-		mProjMatrixId = (projMatrixAttribName != null) ? GLES20.glGetUniformLocation(programId, projMatrixAttribName) : -1;
+		mProgramId = programId;
+		mVertexAttribId = (vertexAttribName != null) ? sGL.glGetAttribLocation(programId, vertexAttribName) : -1;
+		mUVAttribId = (uvAttribName != null) ? sGL.glGetAttribLocation(programId, uvAttribName) : -1;
+		mColorAttribId = (colorAttribName != null) ? sGL.glGetAttribLocation(programId, colorAttribName) : -1;
+		mProjMatrixId = (projMatrixAttribName != null) ? sGL.glGetUniformLocation(programId, projMatrixAttribName) : -1;
 		Assert.assertTrue(mVertexAttribId >= 0);
 		Assert.assertTrue((mUVAttribId >= 0) || !useTexture());
 		Assert.assertTrue((mColorAttribId >= 0) || !useColor());
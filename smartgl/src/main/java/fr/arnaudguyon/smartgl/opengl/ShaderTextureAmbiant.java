@@ -15,7 +15,6 @@
 */
 package fr.arnaudguyon.smartgl.opengl;
 
-import android.opengl.GLES20;
 
 import fr.arnaudguyon.smartgl.tools.Assert;
 
@@ -25,6 +24,8 @@ import fr.arnaudguyon.smartgl.tools.Assert;
 
 public class ShaderTextureAmbiant extends Shader {
 
+    private static final GL sGL = GLBackend.get();
+
     private final static String VERTEX_SHADER_TEXTURE_SCRIPT =
             "uniform mat4 m_ProjectionMatrix;" +
                     "attribute vec4 m_Position;" +
@@ -61,14 +62,16 @@ public class ShaderTextureAmbiant extends Shader {
     protected void init(int programId) {
         super.init(programId);
 
-        mLightAmbiantId = GLES20.glGetUniformLocation(programId, "mAmbiantColor");
+        mLightAmbiantId = sGL.glGetUniformLocation(programId, "mAmbiantColor");
         Assert.assertTrue(mLightAmbiantId >= 0);
     }
 
     @Override
     public void onPreRender(OpenGLRenderer renderer, RenderObject object, Face3D face) {
-        float[] ambiant = renderer.getLightAmbiant();
-//        GLES20.glUniform4f(mLightAmbiantId, 1, 0, 0, 0.3f); // r,v,b,a
-        GLES20.glUniform4fv(mLightAmbiantId, 1, ambiant, 0);
+        if (getUniformCache().needsUpload(mLightAmbiantId, renderer.getLightAmbiantVersion())) {
+            float[] ambiant = renderer.getLightAmbiant();
+//            GLES20.glUniform4f(mLightAmbiantId, 1, 0, 0, 0.3f); // r,v,b,a
+            sGL.glUniform4fv(mLightAmbiantId, 1, ambiant, 0);
+        }
     }
 }
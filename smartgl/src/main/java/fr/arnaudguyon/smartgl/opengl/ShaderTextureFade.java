@@ -15,9 +15,10 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
-import android.opengl.GLES20;
 
 public class ShaderTextureFade extends Shader {
+
+	private static final GL sGL = GLBackend.get();
 	
 	private int mFadeAttribId;
 
@@ -59,18 +60,14 @@ public class ShaderTextureFade extends Shader {
 		super.init(programId);
 		
 		//mFadeAttribId = GLES20.glGetAttribLocation(programId, "m_FadeValue");
-		mFadeAttribId = GLES20.glGetUniformLocation(programId, "m_FadeValue");
+		mFadeAttribId = sGL.glGetUniformLocation(programId, "m_FadeValue");
 	}
 
 	@Override
 	public void onPreRender(OpenGLRenderer renderer, RenderObject object, Face3D face) {
 
-		float fadeValue = 1;
-		if (object instanceof IShaderTextureFade) {
-			IShaderTextureFade user = object;
-			fadeValue = user.getAlpha();
-		}
-		GLES20.glUniform1f(mFadeAttribId, fadeValue);
+		float fadeValue = object.getWorldAlpha();	// includes the alpha of the containers
+		sGL.glUniform1f(mFadeAttribId, fadeValue);
 	}
 
 	// @formatter:on
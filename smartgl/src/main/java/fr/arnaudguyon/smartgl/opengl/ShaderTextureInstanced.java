@@ -0,0 +1,97 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+
+import fr.arnaudguyon.smartgl.tools.Assert;
+
+/**
+ * Texture shader with a transformation and a color per instance, for InstancedObject3D.
+ * Other objects are drawn with an identity instance matrix and a white color.
+ */
+public class ShaderTextureInstanced extends Shader implements IShaderInstanced {
+
+	private static final GL sGL = GLBackend.get();
+
+	// @formatter:off
+
+	private final static String VERTEX_SHADER_SCRIPT =
+		"uniform mat4 m_ProjectionMatrix;" +
+		"attribute vec4 m_Position;" +
+		"attribute vec2 m_UV;" +
+		"attribute mat4 mInstanceMatrix;" +
+		"attribute vec4 mInstanceColor;" +
+		"varying vec2 vTextureCoord;" +
+		"varying vec4 vColor;" +
+		"void main() {" +
+		"  gl_Position = m_ProjectionMatrix * mInstanceMatrix * m_Position;" +
+		"  vTextureCoord = m_UV;" +
+		"  vColor = mInstanceColor;" +
+		"}";
+	private final static String PIXEL_SHADER_SCRIPT =
+		"precision mediump float;" +
+		"varying vec2 vTextureCoord;" +
+		"varying vec4 vColor;" +
+		"uniform sampler2D sTexture;" +
+		"void main() {" +
+		"  gl_FragColor = texture2D(sTexture, vTextureCoord) * vColor;" +
+		"}";
+
+	private int mInstanceMatrixId;
+	private int mInstanceColorId;
+
+	public ShaderTextureInstanced() {
+		super(VERTEX_SHADER_SCRIPT, PIXEL_SHADER_SCRIPT);
+	}
+
+	@Override public boolean useTexture()	{ return true; }
+	@Override public boolean useColor()		{ return false; }
+
+	@Override protected String getVertexAttribName()		{ return "m_Position"; }
+	@Override protected String getUVAttribName()			{ return "m_UV"; }
+	@Override protected String getColorAttribName()			{ return null; }
+	@Override protected String getProjMatrixAttribName()	{ return "m_ProjectionMatrix"; }
+
+	@Override public int getInstanceMatrixAttribId()		{ return mInstanceMatrixId; }
+	@Override public int getInstanceColorAttribId()			{ return mInstanceColorId; }
+
+	// @formatter:on
+
+	@Override
+	protected void init(int programId) {
+		super.init(programId);
+		mInstanceMatrixId = sGL.glGetAttribLocation(programId, "mInstanceMatrix");
+		mInstanceColorId = sGL.glGetAttribLocation(programId, "mInstanceColor");
+		Assert.assertTrue(mInstanceMatrixId >= 0);
+		Assert.assertTrue(mInstanceColorId >= 0);
+	}
+
+	@Override
+	public void onPreRender(OpenGLRenderer renderer, RenderObject object, Face3D face) {
+		if (!(object instanceof InstancedObject3D)) {	// constant attributes: a single instance
+			GLStateCache stateCache = renderer.getStateCache();
+			for (int column = 0; column < 4; ++column) {
+				stateCache.disableVertexAttribArray(mInstanceMatrixId + column);
+			}
+			stateCache.disableVertexAttribArray(mInstanceColorId);
+			sGL.glVertexAttrib4f(mInstanceMatrixId, 1, 0, 0, 0);
+			sGL.glVertexAttrib4f(mInstanceMatrixId + 1, 0, 1, 0, 0);
+			sGL.glVertexAttrib4f(mInstanceMatrixId + 2, 0, 0, 1, 0);
+			sGL.glVertexAttrib4f(mInstanceMatrixId + 3, 0, 0, 0, 1);
+			sGL.glVertexAttrib4f(mInstanceColorId, 1, 1, 1, 1);
+		}
+	}
+}
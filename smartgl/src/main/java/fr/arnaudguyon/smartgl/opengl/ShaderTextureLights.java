@@ -15,9 +15,6 @@
 */
 package fr.arnaudguyon.smartgl.opengl;
 
-import android.opengl.GLES20;
-
-import java.nio.FloatBuffer;
 
 import fr.arnaudguyon.smartgl.tools.Assert;
 
@@ -27,6 +24,8 @@ import fr.arnaudguyon.smartgl.tools.Assert;
 
 public class ShaderTextureLights extends Shader {
 
+    private static final GL sGL = GLBackend.get();
+
     private final static String VERTEX_SHADER =
             "uniform mat4 m_ProjectionMatrix;" +
                     "uniform mat4 mModelMatrix;" +
@@ -102,11 +101,11 @@ public class ShaderTextureLights extends Shader {
     protected void init(int programId) {
         super.init(programId);
 
-        mModelMatrixId = GLES20.glGetUniformLocation(programId, "mModelMatrix");
-        mParallelLightDirectionId = GLES20.glGetUniformLocation(programId, "mParallelLightDirection");
-        mParallelLightColorId = GLES20.glGetUniformLocation(programId, "mParallelLightColor");
-        mLightAmbiantId = GLES20.glGetUniformLocation(programId, "mAmbiantColor");
-        mNormalsId = GLES20.glGetAttribLocation(programId, "mNormals");
+        mModelMatrixId = sGL.glGetUniformLocation(programId, "mModelMatrix");
+        mParallelLightDirectionId = sGL.glGetUniformLocation(programId, "mParallelLightDirection");
+        mParallelLightColorId = sGL.glGetUniformLocation(programId, "mParallelLightColor");
+        mLightAmbiantId = sGL.glGetUniformLocation(programId, "mAmbiantColor");
+        mNormalsId = sGL.glGetAttribLocation(programId, "mNormals");
         Assert.assertTrue(mModelMatrixId >= 0);
         Assert.assertTrue(mParallelLightDirectionId >= 0);
         Assert.assertTrue(mParallelLightColorId >= 0);
@@ -117,23 +116,31 @@ public class ShaderTextureLights extends Shader {
     @Override
     public void onPreRender(OpenGLRenderer renderer, RenderObject object, Face3D face3D) {
 
-        float[] modelMatrix = object.getMatrix();
-        GLES20.glUniformMatrix4fv(mModelMatrixId, 1, false, modelMatrix, 0);
-
-        float[] lightDirection = renderer.getLightDirection();
-        GLES20.glUniform3fv(mParallelLightDirectionId, 1, lightDirection, 0);
-
-        float[] lightColor = renderer.getLightColor();
-        GLES20.glUniform4fv(mParallelLightColorId, 1, lightColor, 0);
-
-        float[] ambiant = renderer.getLightAmbiant();
-        GLES20.glUniform4fv(mLightAmbiantId, 1, ambiant, 0);
-
-        GLES20.glEnableVertexAttribArray(mNormalsId);
+        // lights change at most once per frame, and the faces of an object share its matrix
+        UniformCache uniformCache = getUniformCache();
+        if (uniformCache.needsUpload(mModelMatrixId, object.getMatrixVersion())) {
+            float[] modelMatrix = object.getMatrix();
+            sGL.glUniformMatrix4fv(mModelMatrixId, 1, false, modelMatrix, 0);
+        }
+
+        final long lightParallelVersion = renderer.getLightParallelVersion();
+        if (uniformCache.needsUpload(mParallelLightDirectionId, lightParallelVersion)) {
+            float[] lightDirection = renderer.getLightDirection();
+            sGL.glUniform3fv(mParallelLightDirectionId, 1, lightDirection, 0);
+        }
+        if (uniformCache.needsUpload(mParallelLightColorId, lightParallelVersion)) {
+            float[] lightColor = renderer.getLightColor();
+            sGL.glUniform4fv(mParallelLightColorId, 1, lightColor, 0);
+        }
+
+        if (uniformCache.needsUpload(mLightAmbiantId, renderer.getLightAmbiantVersion())) {
+            float[] ambiant = renderer.getLightAmbiant();
+            sGL.glUniform4fv(mLightAmbiantId, 1, ambiant, 0);
+        }
+
+        renderer.getStateCache().enableVertexAttribArray(mNormalsId);
         NormalList normalList = face3D.getNormalList();
-        FloatBuffer vertexBuffer = normalList.getFloatBuffer();
-        vertexBuffer.position(0);
-        GLES20.glVertexAttribPointer(mNormalsId, 3, GLES20.GL_FLOAT, false, 0, vertexBuffer);
+        renderer.setVertexAttrib(mNormalsId, normalList);
     }
 
 }
@@ -0,0 +1,55 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.opengl.GLSurfaceView;
+
+import javax.microedition.khronos.egl.EGL10;
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.egl.EGLContext;
+import javax.microedition.khronos.egl.EGLDisplay;
+
+/**
+ * Creates the OpenGL ES 2 context of the view, like the default factory of GLSurfaceView,
+ * lets the TextureLoader create a context shared with it, and forgets the programs of destroyed contexts.
+ */
+/* package */ class SharedContextFactory implements GLSurfaceView.EGLContextFactory {
+
+    private static final int EGL_CONTEXT_CLIENT_VERSION = 0x3098;
+
+    private final TextureLoader mTextureLoader;
+
+    /* package */ SharedContextFactory(TextureLoader textureLoader) {
+        mTextureLoader = textureLoader;
+    }
+
+    @Override
+    public EGLContext createContext(EGL10 egl, EGLDisplay display, EGLConfig config) {
+        final int[] attribs = { EGL_CONTEXT_CLIENT_VERSION, 2, EGL10.EGL_NONE };
+        EGLContext context = egl.eglCreateContext(display, config, EGL10.EGL_NO_CONTEXT, attribs);
+        if ((context != null) && (context != EGL10.EGL_NO_CONTEXT)) {
+            mTextureLoader.onMainContextCreated(egl, display, config, context);
+        }
+        return context;
+    }
+
+    @Override
+    public void destroyContext(EGL10 egl, EGLDisplay display, EGLContext context) {
+        mTextureLoader.onMainContextDestroyed();
+        ProgramRegistry.getInstance().onContextDestroyed(context);
+        egl.eglDestroyContext(display, context);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional game loop: the simulation runs on its own thread with a fixed time step, independently of the frame rate,
+ * and publishes the transformations of its objects in a TransformSnapshot after each step.
+ * At each frame, the OpenGL thread takes the last snapshot and applies to the bound RenderObjects the interpolation
+ * between the two last steps, so that the motion stays smooth. The rendering is one step late.
+ * The snapshots are triple buffered: the simulation never waits for the rendering, and the other way around.
+ * See OpenGLRenderer.setSimulationLoop.
+ */
+public class SimulationLoop {
+
+    private static final String TAG = "SimulationLoop";
+
+    private static final int FRESH = 4;         // bit set on the ready index when it has not been read yet
+    private static final int INDEX_MASK = 3;
+    private static final int MAX_STEPS_LATE = 5;    // further behind, the simulation slows down instead of catching up
+
+    /**
+     * The game logic, called on the simulation thread. It must not modify the RenderObjects: the OpenGL thread
+     * updates them from the snapshots.
+     */
+    public interface Simulation {
+        /**
+         * Advances the simulation
+         * @param stepDuration always the same duration, in seconds
+         */
+        void step(float stepDuration);
+
+        /**
+         * Writes the transformations after a step. Slots which are not written keep their values.
+         * @param snapshot the snapshot to fill
+         */
+        void writeSnapshot(@NonNull TransformSnapshot snapshot);
+    }
+
+    private final Simulation mSimulation;
+    private final long mStepNanos;
+    private final float mStepDuration;
+    private final TransformSnapshot[] mSnapshots = new TransformSnapshot[3];
+    private final AtomicInteger mReady = new AtomicInteger(0);
+    private final float[] mLastState;
+    private Thread mThread;
+    private volatile boolean mRunning;
+    private boolean mStarted;
+
+    // simulation thread
+    private int mBackIndex = 1;
+    private volatile long mNbSteps;
+
+    // OpenGL thread
+    private int mFrontIndex = 2;
+    private boolean mHasSnapshot;
+    private float mAlpha;
+    private final RenderObject[] mBindings;
+    private final float[] mTmpTransform = new float[TransformSnapshot.FLOATS_PER_SLOT];
+
+    /**
+     * @param simulation   the game logic
+     * @param nbSlots      number of transformations in the snapshots
+     * @param stepsPerSecond frequency of the simulation, like 60
+     */
+    public SimulationLoop(@NonNull Simulation simulation, int nbSlots, int stepsPerSecond) {
+        if ((nbSlots <= 0) || (stepsPerSecond <= 0)) {
+            throw new IllegalArgumentException("invalid SimulationLoop " + nbSlots + " slots at " + stepsPerSecond + " steps per second");
+        }
+        mSimulation = simulation;
+        mStepNanos = 1000000000L / stepsPerSecond;
+        mStepDuration = 1f / stepsPerSecond;
+        for (int i = 0; i < mSnapshots.length; ++i) {
+            mSnapshots[i] = new TransformSnapshot(nbSlots);
+        }
+        mLastState = mSnapshots[0].getCurrent().clone();
+        mBindings = new RenderObject[nbSlots];
+    }
+
+    public float getStepDuration() {
+        return mStepDuration;
+    }
+
+    /**
+     * @return the number of steps since the creation
+     */
+    public long getNbSteps() {
+        return mNbSteps;
+    }
+
+    /**
+     * Links a slot of the snapshots to an object. Call it from the OpenGL thread, or before setting the loop in the renderer.
+     * @param slot   index of the transformation
+     * @param object a Sprite, an Object3D or a RenderObjectContainer, null to unbind
+     */
+    public void bind(int slot, @Nullable RenderObject object) {
+        mBindings[slot] = object;
+    }
+
+    /**
+     * Starts the simulation thread
+     */
+    public synchronized void start() {
+        mStarted = true;
+        startThread();
+    }
+
+    /**
+     * Stops the simulation thread, and waits for the end of the current step
+     */
+    public synchronized void stop() {
+        mStarted = false;
+        stopThread();
+    }
+
+    public synchronized boolean isRunning() {
+        return mRunning;
+    }
+
+    // Called when the view is paused / resumed: the simulation doesn't run in background
+    /* package */ synchronized void pause() {
+        stopThread();
+    }
+
+    /* package */ synchronized void resume() {
+        if (mStarted) {
+            startThread();
+        }
+    }
+
+    private void startThread() {
+        if (mThread != null) {
+            return;
+        }
+        mRunning = true;
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runLoop();
+            }
+        }, "SmartGL-Simulation");
+        mThread.start();
+    }
+
+    private void stopThread() {
+        Thread thread = mThread;
+        if (thread == null) {
+            return;
+        }
+        mRunning = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Log.w(TAG, "interrupted while stopping the simulation");
+            Thread.currentThread().interrupt();
+        }
+        mThread = null;
+    }
+
+    private void runLoop() {
+        long nextStep = System.nanoTime();
+        while (mRunning) {
+            final long now = System.nanoTime();
+            if (now < nextStep) {
+                LockSupport.parkNanos(nextStep - now);
+                continue;
+            }
+            mSimulation.step(mStepDuration);
+            ++mNbSteps;
+            publish(nextStep);
+            nextStep += mStepNanos;
+            if (now - nextStep > MAX_STEPS_LATE * mStepNanos) {
+                nextStep = now;     // too slow (or the thread was suspended): drop the late steps
+            }
+        }
+    }
+
+    // Fills the back snapshot and exchanges it with the ready one
+    private void publish(long time) {
+        TransformSnapshot snapshot = mSnapshots[mBackIndex];
+        snapshot.begin(mLastState, time);
+        mSimulation.writeSnapshot(snapshot);
+        System.arraycopy(snapshot.getCurrent(), 0, mLastState, 0, mLastState.length);
+        mBackIndex = mReady.getAndSet(mBackIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * @return where the last frame was between the two last steps, from 0 to 1
+     */
+    public float getInterpolation() {
+        return mAlpha;
+    }
+
+    /**
+     * Applies the interpolated transformations of the last snapshot to the bound objects.
+     * Called by the renderer on the OpenGL thread at the beginning of each frame.
+     * @param now System.nanoTime() of the frame
+     */
+    /* package */ void apply(long now) {
+        if ((mReady.get() & FRESH) != 0) {
+            mFrontIndex = mReady.getAndSet(mFrontIndex) & INDEX_MASK;
+            mHasSnapshot = true;
+        }
+        if (!mHasSnapshot) {
+            return;
+        }
+        TransformSnapshot snapshot = mSnapshots[mFrontIndex];
+        float alpha = (now - snapshot.getTime()) / (float) mStepNanos;
+        alpha = Math.max(0, Math.min(1, alpha));
+        mAlpha = alpha;
+        final float[] t = mTmpTransform;
+        for (int slot = 0; slot < mBindings.length; ++slot) {
+            RenderObject object = mBindings[slot];
+            if (object == null) {
+                continue;
+            }
+            snapshot.interpolate(slot, alpha, t);
+            if (object instanceof Sprite) {
+                Sprite sprite = (Sprite) object;
+                sprite.setPos(t[0], t[1]);
+                sprite.setRotation(t[5]);
+                sprite.setScale(t[6], t[7]);
+            } else if (object instanceof Object3D) {
+                Object3D object3D = (Object3D) object;
+                object3D.setPos(t[0], t[1], t[2]);
+                object3D.setRotation(t[3], t[4], t[5]);
+                object3D.setScale(t[6], t[7], t[8]);
+            } else if (object instanceof RenderObjectContainer) {
+                RenderObjectContainer container = (RenderObjectContainer) object;
+                container.setPos(t[0], t[1], t[2]);
+                container.setRotation(t[3], t[4], t[5]);
+                container.setScale(t[6], t[7], t[8]);
+            }
+        }
+    }
+}
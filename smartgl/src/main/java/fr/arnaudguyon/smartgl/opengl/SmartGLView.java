@@ -130,35 +130,18 @@ public class SmartGLView extends OpenGLView {
     public void onPreRender(OpenGLRenderer renderer) {
         super.onPreRender(renderer);
 
-        // Handle Touch Events: skip several moves in a row and send OnTouchEvent (on OpenGLThread)
-        if (mTouchHelper != null) {
-            TouchHelperEvent event = mTouchHelper.getNextEvent();
-            if (event != null) {
-                Vector<TouchHelperEvent> touchEvents = new Vector<TouchHelperEvent>();
-                while (event != null) {
-                    //Log.i(TAG, "Touch " + event.getX(0) + " ; " + event.getY(0));
-                    int tabSize = touchEvents.size();
-                    TouchHelperEvent.TouchEventType newType = event.getType();
-                    if ((tabSize > 0) && (newType == TouchHelperEvent.TouchEventType.SINGLEMOVE || newType == TouchHelperEvent.TouchEventType.MULTIMOVE) && (touchEvents.get(tabSize - 1).getType() == newType)) {
-                        touchEvents.remove(tabSize - 1);
-                    }
-                    touchEvents.add(event);
-                    event = mTouchHelper.getNextEvent();
-                }
-
-                float frameDuration = renderer.getFrameDuration();
-
-                for (int eventIndex = 0; eventIndex < touchEvents.size(); ++eventIndex) {
-                    event = touchEvents.get(eventIndex);
-
-                    boolean handledBySprites = touchEventOnSprites(event, frameDuration);
-                    if (handledBySprites) {
-                        continue;
-                    }
-
+        // Handle Touch Events and send OnTouchEvent (on OpenGLThread). Several moves in a row are merged by the TouchHelper.
+        TouchHelper touchHelper = mTouchHelper;
+        if (touchHelper != null) {
+            float frameDuration = renderer.getFrameDuration();
+            TouchHelperEvent event = touchHelper.getNextEvent();
+            while (event != null) {
+                //Log.i(TAG, "Touch " + event.getX(0) + " ; " + event.getY(0));
+                boolean handledBySprites = touchEventOnSprites(event, frameDuration);
+                if (!handledBySprites) {
                     onTouchEvent(event);
                 }
-
+                event = touchHelper.getNextEvent();
             }
         }
 
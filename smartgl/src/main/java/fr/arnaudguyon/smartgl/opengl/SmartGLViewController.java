@@ -52,7 +52,7 @@ public interface SmartGLViewController {
     /**
      * called after a user touch interaction
      * @param smartGLView
-     * @param event
+     * @param event reused after this call, copy its values to keep them
      */
     void onTouchEvent(SmartGLView smartGLView, TouchHelperEvent event);
 }
@@ -16,14 +16,15 @@
 package fr.arnaudguyon.smartgl.opengl;
 
 import android.graphics.Bitmap;
-import android.opengl.Matrix;
 import android.util.SparseArray;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.Vector;
 
+import fr.arnaudguyon.smartgl.math.Mat4;
 import fr.arnaudguyon.smartgl.touch.SpriteTouchListener;
 import fr.arnaudguyon.smartgl.touch.TouchHelperEvent;
 
@@ -78,8 +79,9 @@ public class Sprite extends RenderObject {
 		return false;
 	}
 
+	// uses the cached screen rectangle, which follows the pivot, scale, rotation and containers
 	final public boolean touchedBy(float x, float y) {
-		return (x >= getPosX() && x < getPosX() + getWidth() && y >= getPosY() && y < getPosY() + getHeight());
+		return containsScreenPoint(x, y);
 	}
 
 	private Sprite() {
@@ -115,6 +117,15 @@ public class Sprite extends RenderObject {
 		}
 	}
 
+	/**
+	 * Displays a picture of a TextureAtlas: uses the page Texture and the UVs of the region
+	 * @param region the region, see TextureAtlas.getRegion
+	 */
+	public void setRegion(@NonNull AtlasRegion region) {
+		setTexture(region.getTexture());
+		setUVs(region.getUMin(), region.getVMin(), region.getUMax(), region.getVMax());
+	}
+
     public void setScale(float scaleX, float scaleY) {
         mScaleX = scaleX;
         mScaleY = scaleY;
@@ -250,19 +261,9 @@ public class Sprite extends RenderObject {
 
 	@Override
 	final public void computeMatrix(float[] matrix) {
-		Matrix.setIdentityM(matrix, 0);
         final float shiftX = mPivotX * mWidth * mScaleX;
         final float shiftY = mPivotY * mHeight * mScaleY;
-		if (mRotAngle != 0) {
-            Matrix.translateM(matrix, 0, mPosX, mPosY, 0);
-			Matrix.rotateM(matrix, 0, mRotAngle, 0, 0, 1);
-			Matrix.translateM(matrix, 0, -shiftX, -shiftY, 0);
-		} else {
-			Matrix.translateM(matrix, 0, mPosX - shiftX, mPosY - shiftY, 0);
-		}
-        if ((mScaleX != 1) || (mScaleY != 1)) {
-            Matrix.scaleM(matrix, 0, mScaleX, mScaleY, 1);
-        }
+		Mat4.setTransform2D(matrix, mPosX, mPosY, mRotAngle, shiftX, shiftY, mScaleX, mScaleY);
 	}
 
 	public void resetUVs() {
@@ -291,19 +292,17 @@ public class Sprite extends RenderObject {
 			internalBuffer[6] = mWidth - internalBuffer[6];
 			internalBuffer[9] = mWidth - internalBuffer[9];
 
-			vertexList.getFloatBuffer().put(internalBuffer).position(0);
+			vertexList.updateBuffer();
 		}
     }
 
 	public void rebindUVs(int xMin, int xMax, int yMin, int yMax, float texWidth, float texHeight) {
+		setUVs(xMin / texWidth, yMin / texHeight, xMax / texWidth, yMax / texHeight);
+	}
 
+	private void setUVs(float uMin, float vMin, float uMax, float vMax) {
 		Face3D face = getFace();
-		if (face != null) {
-			float uMin = xMin / texWidth;
-			float uMax = xMax / texWidth;
-			float vMin = yMin / texHeight;
-			float vMax = yMax / texHeight;
-
+		if ((face != null) && (face.getUVList() != null)) {	// AnimatedSprite UVs are in its frames
 			UVList uvList = face.getUVList();
 			float[] internal = uvList.getInternalBuffer();
 			int index = 0;
@@ -320,7 +319,7 @@ public class Sprite extends RenderObject {
 			internal[index++] = uMax;
 			internal[index++] = vMax;
 
-			uvList.getFloatBuffer().put(internal).position(0);
+			uvList.updateBuffer();
 		}
 	}
 
@@ -353,7 +352,7 @@ public class Sprite extends RenderObject {
 		internalBuffer[10] = height;
 		//internalBuffer[11] = 0;
 
-		vertexList.getFloatBuffer().put(internalBuffer).position(0);
+		vertexList.updateBuffer();
         invalidMatrix();
 	}
 
@@ -0,0 +1,163 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.opengl.GLES20;
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Dynamic vertex stream used by RenderPassSprite in batching mode.
+ * Sprites are transformed on the CPU and appended as x,y,u,v quads. Consecutive sprites sharing
+ * the same Texture are drawn with a single indexed glDrawElements.
+ * Used from the OpenGL Thread only.
+ */
+/* package */ class SpriteBatch {
+
+    private static final GL sGL = GLBackend.get();
+
+    /* package */ static final int MAX_SPRITES = 4096;    // 4 vertices per sprite must fit in unsigned short indices
+
+    private static final int VERTICES_PER_SPRITE = 4;
+    private static final int INDICES_PER_SPRITE = 6;
+    private static final int FLOATS_PER_VERTEX = 4;    // x, y, u, v
+    private static final int FLOATS_PER_SPRITE = VERTICES_PER_SPRITE * FLOATS_PER_VERTEX;
+    private static final int STRIDE = FLOATS_PER_VERTEX * Display.BYTES_PER_FLOAT;
+
+    private final float[] mVertices = new float[MAX_SPRITES * FLOATS_PER_SPRITE];
+    private final FloatBuffer mStream;
+    private final FloatBuffer mStreamUV;    // view on mStream starting at the first u
+    private final ShortBuffer mIndices;
+
+    private Texture mTexture;
+    private int mNbSprites;
+    private int mNbDrawCalls;
+
+    /* package */ SpriteBatch() {
+        mStream = ByteBuffer.allocateDirect(mVertices.length * Display.BYTES_PER_FLOAT).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        mStream.position(2);
+        mStreamUV = mStream.slice();
+        mStream.position(0);
+
+        // Same winding as the TRIANGLE_STRIP of a single Sprite: (0,1,2) (2,1,3)
+        short[] indices = new short[MAX_SPRITES * INDICES_PER_SPRITE];
+        int index = 0;
+        for (int i = 0; i < MAX_SPRITES; ++i) {
+            final short base = (short) (i * VERTICES_PER_SPRITE);
+            indices[index++] = base;
+            indices[index++] = (short) (base + 1);
+            indices[index++] = (short) (base + 2);
+            indices[index++] = (short) (base + 2);
+            indices[index++] = (short) (base + 1);
+            indices[index++] = (short) (base + 3);
+        }
+        mIndices = ByteBuffer.allocateDirect(indices.length * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+        mIndices.put(indices).position(0);
+    }
+
+    /**
+     * Starts a new frame for a RenderPass
+     */
+    /* package */ void begin() {
+        mTexture = null;
+        mNbSprites = 0;
+        mNbDrawCalls = 0;
+    }
+
+    /* package */ Texture getTexture() {
+        return mTexture;
+    }
+
+    /* package */ void setTexture(Texture texture) {
+        mTexture = texture;
+    }
+
+    /* package */ boolean isEmpty() {
+        return (mNbSprites == 0);
+    }
+
+    /* package */ boolean isFull() {
+        return (mNbSprites == MAX_SPRITES);
+    }
+
+    /**
+     * @return the number of glDrawElements issued since begin()
+     */
+    /* package */ int getNbDrawCalls() {
+        return mNbDrawCalls;
+    }
+
+    /**
+     * Appends a quad to the stream, after transformation of its 4 vertices by the model matrix.
+     * @param matrix    model matrix of the Sprite (column major)
+     * @param vertices  4 vertices, 3 floats each, in TRIANGLE_STRIP order
+     * @param uvs       4 UVs, 2 floats each
+     */
+    /* package */ void add(@NonNull float[] matrix, @NonNull float[] vertices, @NonNull float[] uvs) {
+        int dst = mNbSprites * FLOATS_PER_SPRITE;
+        int srcVertex = 0;
+        int srcUV = 0;
+        for (int i = 0; i < VERTICES_PER_SPRITE; ++i) {
+            final float x = vertices[srcVertex];
+            final float y = vertices[srcVertex + 1];
+            final float z = vertices[srcVertex + 2];
+            mVertices[dst++] = matrix[0] * x + matrix[4] * y + matrix[8] * z + matrix[12];
+            mVertices[dst++] = matrix[1] * x + matrix[5] * y + matrix[9] * z + matrix[13];
+            mVertices[dst++] = uvs[srcUV];
+            mVertices[dst++] = uvs[srcUV + 1];
+            srcVertex += 3;
+            srcUV += 2;
+        }
+        ++mNbSprites;
+    }
+
+    /**
+     * Draws the pending sprites with the current texture, then empties the stream.
+     * The program must be in use with the 2D projection matrix (sprites are already transformed),
+     * and GL_ARRAY_BUFFER unbound.
+     * @param stateCache     OpenGL state tracker of the renderer
+     * @param defaultSampler sampler of the renderer, for textures without their own
+     * @param capabilities   what the OpenGL context supports
+     * @param vertexAttribId position attribute of the shader
+     * @param uvAttribId     uv attribute of the shader
+     * @return the number of sprites drawn
+     */
+    /* package */ int flush(@NonNull GLStateCache stateCache, @NonNull TextureSampler defaultSampler, @NonNull GLCapabilities capabilities, int vertexAttribId, int uvAttribId) {
+        final int nbSprites = mNbSprites;
+        if (nbSprites == 0) {
+            return 0;
+        }
+        mNbSprites = 0;
+        if (mTexture != null) {
+            mTexture.bind(stateCache, defaultSampler, capabilities);
+
+            mStream.position(0);
+            mStream.put(mVertices, 0, nbSprites * FLOATS_PER_SPRITE).position(0);
+            sGL.glVertexAttribPointer(vertexAttribId, 2, GLES20.GL_FLOAT, false, STRIDE, mStream);
+            sGL.glVertexAttribPointer(uvAttribId, 2, GLES20.GL_FLOAT, false, STRIDE, mStreamUV);
+
+            mIndices.position(0);
+            sGL.glDrawElements(GLES20.GL_TRIANGLES, nbSprites * INDICES_PER_SPRITE, GLES20.GL_UNSIGNED_SHORT, mIndices);
+            ++mNbDrawCalls;
+            return nbSprites;
+        }
+        return 0;
+    }
+}
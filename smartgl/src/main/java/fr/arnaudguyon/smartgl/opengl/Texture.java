@@ -21,21 +21,36 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.Matrix;
 import android.media.ExifInterface;
+import android.opengl.GLES11Ext;
 import android.opengl.GLES20;
-import android.opengl.GLUtils;
 
 import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import fr.arnaudguyon.smartgl.tools.Tracer;
+
 public class Texture {
 
+    private static final GL sGL = GLBackend.get();
+
     private final static int UNBIND_VALUE = 0;
 
     private int[] mId;
     private int mWidth;
     private int mHeight;
     private Bitmap mBitmap;
+    private TextureSampler mSampler;    // null to use the one of the renderer
+    private volatile boolean mLoading;  // decoded or uploaded by the TextureLoader, not drawn meanwhile
+    private boolean mHasMipmaps;
+    private int mByteSize;
+    private GLCapabilities mUploadCapabilities;   // only during bindTexture()
+    // parameters currently set on the OpenGL texture
+    private int mAppliedMinFilter;
+    private int mAppliedMagFilter;
+    private int mAppliedWrapS;
+    private int mAppliedWrapT;
+    private float mAppliedAnisotropy;
 
     public final int getId() {
         return mId[0];
@@ -53,6 +68,35 @@ public class Texture {
         return (mId[0] != UNBIND_VALUE);
     }
 
+    /**
+     * @return true if the texture is being decoded or uploaded in the background by a TextureLoader
+     */
+    public final boolean isLoading() {
+        return mLoading;
+    }
+
+    /**
+     * @return true if the texture is uploaded to the GPU, and can be drawn without any delay
+     */
+    public final boolean isReady() {
+        return !mLoading && isBinded();
+    }
+
+    /**
+     * @return the estimated GPU memory used by the texture, 0 if it is not uploaded
+     */
+    public final int getByteSize() {
+        return mByteSize;
+    }
+
+    protected void setByteSize(int byteSize) {
+        mByteSize = byteSize;
+    }
+
+    /* package */ void setLoading(boolean loading) {
+        mLoading = loading;
+    }
+
     private Texture() {
         mId = new int[1];
         mId[0] = UNBIND_VALUE;
@@ -91,15 +135,153 @@ public class Texture {
         }
     }
 
+    /**
+     * @param sampler filtering, mipmaps and wrapping of this texture, or null to use the quality preset of the renderer
+     */
+    public void setSampler(@Nullable TextureSampler sampler) {
+        mSampler = sampler;
+    }
+
+    public @Nullable TextureSampler getSampler() {
+        return mSampler;
+    }
+
+    protected void setSize(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    /**
+     * Generates the OpenGL texture, binds it on the current texture unit and sets its default parameters.
+     * Subclasses call it from bindTexture() before uploading their own data.
+     */
+    protected final void createGLTexture() {
+        sGL.glGenTextures(1, mId, 0);
+        sGL.glBindTexture(GLES20.GL_TEXTURE_2D, mId[0]);
+        sGL.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        sGL.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        sGL.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        sGL.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        mHasMipmaps = false;
+        mAppliedMinFilter = GLES20.GL_LINEAR;
+        mAppliedMagFilter = GLES20.GL_LINEAR;
+        mAppliedWrapS = GLES20.GL_CLAMP_TO_EDGE;
+        mAppliedWrapT = GLES20.GL_CLAMP_TO_EDGE;
+        mAppliedAnisotropy = 1;
+    }
+
+    /**
+     * For subclasses which upload their own mipmap levels in bindTexture()
+     * @param hasMipmaps true if all the mipmap levels have been uploaded
+     */
+    protected void setHasMipmaps(boolean hasMipmaps) {
+        mHasMipmaps = hasMipmaps;
+    }
+
+    /**
+     * @return false if glGenerateMipmap can't be used on the data of this texture, like compressed formats
+     */
+    protected boolean canGenerateMipmaps() {
+        return true;
+    }
+
+    /**
+     * Uploads the texture the first time, binds it and applies its sampler. Called from the OpenGL Thread.
+     * @param stateCache     OpenGL state tracker of the renderer
+     * @param defaultSampler sampler of the renderer, used if the texture has none
+     * @param capabilities   what the OpenGL context supports
+     */
+    /* package */ final void bind(@NonNull GLStateCache stateCache, @NonNull TextureSampler defaultSampler, @NonNull GLCapabilities capabilities) {
+        onBind();
+        if (!isBinded()) {
+            upload(defaultSampler, capabilities);
+            stateCache.invalidateTexture(); // bound by the Texture itself
+        }
+        stateCache.bindTexture(mId[0]);
+        if (isBinded()) {
+            applySampler((mSampler != null) ? mSampler : defaultSampler, capabilities);
+        }
+    }
+
+    /**
+     * Called each time the texture is bound for drawing, from the OpenGL Thread
+     */
+    /* package */ void onBind() {
+    }
+
+    /**
+     * Uploads the texture if needed, and generates its mipmaps. Called from the OpenGL Thread, or from the
+     * thread of the TextureLoader with a shared context. Leaves the texture bound on the current texture unit.
+     * @param defaultSampler sampler of the renderer, used if the texture has none
+     * @param capabilities   what the OpenGL context supports
+     */
+    /* package */ final void upload(@NonNull TextureSampler defaultSampler, @NonNull GLCapabilities capabilities) {
+        if (!isBinded()) {
+            Tracer.begin("Texture.bindTexture");
+            mUploadCapabilities = capabilities;
+            try {
+                bindTexture();
+            } finally {
+                mUploadCapabilities = null;
+                Tracer.end();
+            }
+        }
+        if (isBinded()) {
+            applySampler((mSampler != null) ? mSampler : defaultSampler, capabilities);
+        }
+    }
+
+    /**
+     * @return what the OpenGL context supports, only while bindTexture() is called by the renderer or the TextureLoader
+     */
+    /* package */ final @Nullable GLCapabilities getUploadCapabilities() {
+        return mUploadCapabilities;
+    }
+
+    private void applySampler(TextureSampler sampler, GLCapabilities capabilities) {
+        // OpenGL ES 2 only allows mipmaps and repeat on non power of 2 textures with an extension
+        final boolean fullNPOT = (isPowerOfTwo(mWidth) && isPowerOfTwo(mHeight)) || capabilities.supportsFullNPOT();
+        if (sampler.usesMipmaps() && !mHasMipmaps && canGenerateMipmaps() && fullNPOT) {
+            sGL.glGenerateMipmap(GLES20.GL_TEXTURE_2D);
+            mHasMipmaps = true;
+            mByteSize += mByteSize / 3;
+        }
+        final int minFilter = sampler.getMinFilter(sampler.usesMipmaps() && mHasMipmaps);
+        if (minFilter != mAppliedMinFilter) {
+            sGL.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, minFilter);
+            mAppliedMinFilter = minFilter;
+        }
+        final int magFilter = sampler.getMagFilter();
+        if (magFilter != mAppliedMagFilter) {
+            sGL.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, magFilter);
+            mAppliedMagFilter = magFilter;
+        }
+        final int wrapS = fullNPOT ? sampler.getWrapS().getGLValue() : GLES20.GL_CLAMP_TO_EDGE;
+        if (wrapS != mAppliedWrapS) {
+            sGL.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, wrapS);
+            mAppliedWrapS = wrapS;
+        }
+        final int wrapT = fullNPOT ? sampler.getWrapT().getGLValue() : GLES20.GL_CLAMP_TO_EDGE;
+        if (wrapT != mAppliedWrapT) {
+            sGL.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, wrapT);
+            mAppliedWrapT = wrapT;
+        }
+        final float anisotropy = Math.min(sampler.getAnisotropy(), capabilities.getMaxAnisotropy());
+        if (anisotropy != mAppliedAnisotropy) {
+            sGL.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES11Ext.GL_TEXTURE_MAX_ANISOTROPY_EXT, anisotropy);
+            mAppliedAnisotropy = anisotropy;
+        }
+    }
+
+    private static boolean isPowerOfTwo(int value) {
+        return (value > 0) && ((value & (value - 1)) == 0);
+    }
+
     protected boolean bindTexture() {
         if ((mBitmap != null) && (!mBitmap.isRecycled())) {
-            GLES20.glGenTextures(1, mId, 0);
-            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mId[0]);
-            GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
-            GLES20.glTexParameterf(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
-            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
-            GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
-            GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, mBitmap, 0); // GLES20.GL_RGBA
+            createGLTexture();
+            sGL.texImage2D(GLES20.GL_TEXTURE_2D, 0, mBitmap, 0); // GLES20.GL_RGBA
+            mByteSize = mBitmap.getWidth() * mBitmap.getHeight() * 4;
             mBitmap.recycle();
             mBitmap = null;
             return true;
@@ -117,8 +299,9 @@ public class Texture {
 
     protected void unbindTexture() {
         if (isBinded()) {
-            GLES20.glDeleteTextures(1, mId, 0);
+            sGL.glDeleteTextures(1, mId, 0);
             mId[0] = UNBIND_VALUE;
+            mByteSize = 0;
         }
     }
 
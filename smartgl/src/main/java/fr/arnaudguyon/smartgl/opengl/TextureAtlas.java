@@ -0,0 +1,84 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.util.SparseArray;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Pages (Textures) containing many pictures, and the regions of these pictures. Created by AtlasBuilder.
+ * Sprites using regions of the same page share the same Texture, so they can be drawn together.
+ */
+public class TextureAtlas {
+
+    private final ArrayList<Texture> mPages = new ArrayList<>();
+    private final HashMap<String, AtlasRegion> mRegions = new HashMap<>();
+    private final SparseArray<AtlasRegion> mResourceRegions = new SparseArray<>();
+
+    public TextureAtlas() {
+    }
+
+    public void addPage(@NonNull Texture page) {
+        mPages.add(page);
+    }
+
+    /**
+     * @param region     the region to add
+     * @param resourceId the drawable it comes from, 0 if none
+     */
+    public void addRegion(@NonNull AtlasRegion region, @DrawableRes int resourceId) {
+        if (region.getName() != null) {
+            mRegions.put(region.getName(), region);
+        }
+        if (resourceId != 0) {
+            mResourceRegions.put(resourceId, region);
+        }
+    }
+
+    public int getNbPages() {
+        return mPages.size();
+    }
+
+    public @NonNull Texture getPage(int index) {
+        return mPages.get(index);
+    }
+
+    public @Nullable AtlasRegion getRegion(String name) {
+        return mRegions.get(name);
+    }
+
+    public @Nullable AtlasRegion getRegion(@DrawableRes int resourceId) {
+        return mResourceRegions.get(resourceId);
+    }
+
+    /**
+     * Releases the Textures of all the pages
+     */
+    public void release() {
+        for (Texture page : mPages) {
+            page.release();
+        }
+        mPages.clear();
+        mRegions.clear();
+        mResourceRegions.clear();
+    }
+}
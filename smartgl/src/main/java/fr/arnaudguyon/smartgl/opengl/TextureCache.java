@@ -0,0 +1,239 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Shares the Textures of the same picture, instead of decoding and uploading a copy for each user.
+ * <p>
+ * acquire() returns a shared Texture and adds a reference to it, Texture.release() removes the reference.
+ * Textures without any reference stay on the GPU until the memory budget is exceeded, then the least recently
+ * used ones are deleted. A deleted texture stays in the cache: it is decoded and uploaded again the next time it is
+ * acquired or drawn, and counted in the budget again.
+ * <p>
+ * Give the cache to the renderer with OpenGLRenderer.setTextureCache(): the textures are deleted at the start
+ * of a frame, on the OpenGL Thread, and the recency is updated when they are drawn. Otherwise call trim() yourself.
+ */
+public class TextureCache {
+
+    private static final String TAG = "TextureCache";
+
+    public static final long DEFAULT_BUDGET = 64 * 1024 * 1024;
+
+    /**
+     * Creates the Bitmap of a texture. Can be called several times, if the texture is evicted then used again.
+     */
+    public interface BitmapProvider {
+        @Nullable Bitmap createBitmap();
+    }
+
+    private final Context mContext;
+    private long mBudget;
+    private TextureLoader mTextureLoader;
+    private GLStateCache mStateCache;       // of the renderer using the cache, null if none
+    private boolean mTrimNeeded;
+    private long mFrameNumber;              // OpenGL Thread only
+    private final LinkedHashMap<String, CachedTexture> mTextures = new LinkedHashMap<>(16, 0.75f, true);  // least recently used first
+
+    public TextureCache(@NonNull Context context) {
+        this(context, DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param context any context
+     * @param budget  max GPU memory in bytes used by the textures, before the unreferenced ones are deleted
+     */
+    public TextureCache(@NonNull Context context, long budget) {
+        mContext = context.getApplicationContext();
+        mBudget = budget;
+    }
+
+    public synchronized void setBudget(long budget) {
+        mBudget = budget;
+        mTrimNeeded = true;
+    }
+
+    public synchronized long getBudget() {
+        return mBudget;
+    }
+
+    /**
+     * @param textureLoader if not null, the textures are decoded and uploaded in the background when acquired
+     */
+    public synchronized void setTextureLoader(@Nullable TextureLoader textureLoader) {
+        mTextureLoader = textureLoader;
+    }
+
+    /**
+     * @param resourceId a drawable
+     * @return the shared texture, with one more reference
+     */
+    public Texture acquire(@DrawableRes final int resourceId) {
+        return acquire("res:" + resourceId, new BitmapProvider() {
+            @Override
+            public Bitmap createBitmap() {
+                return BitmapFactory.decodeResource(mContext.getResources(), resourceId);
+            }
+        });
+    }
+
+    /**
+     * @param assetPath a picture in the assets of the application
+     * @return the shared texture, with one more reference
+     */
+    public Texture acquire(@NonNull final String assetPath) {
+        return acquire("asset:" + assetPath, new BitmapProvider() {
+            @Override
+            public Bitmap createBitmap() {
+                InputStream inputStream = null;
+                try {
+                    inputStream = mContext.getAssets().open(assetPath);
+                    return BitmapFactory.decodeStream(inputStream);
+                } catch (IOException e) {
+                    Log.e(TAG, "Can't read asset " + assetPath);
+                    return null;
+                } finally {
+                    if (inputStream != null) {
+                        try {
+                            inputStream.close();
+                        } catch (IOException e) {
+                            // nothing to do
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @param key      unique name of the picture, like a file path or an url
+     * @param provider creates the Bitmap when the texture needs to be uploaded
+     * @return the shared texture, with one more reference
+     */
+    public synchronized Texture acquire(@NonNull String key, @NonNull BitmapProvider provider) {
+        CachedTexture texture = mTextures.get(key);
+        if (texture == null) {
+            texture = new CachedTexture(this, key, provider);
+            mTextures.put(key, texture);
+        }
+        texture.setRefCount(texture.getRefCount() + 1);
+        if ((mTextureLoader != null) && !texture.isBinded() && !texture.isLoading()) {
+            mTextureLoader.load(texture);
+        }
+        return texture;
+    }
+
+    /* package */ synchronized void release(@NonNull CachedTexture texture) {
+        final int refCount = texture.getRefCount();
+        if (refCount <= 0) {
+            Log.w(TAG, "Texture " + texture.getKey() + " released too many times");
+            return;
+        }
+        texture.setRefCount(refCount - 1);
+        if ((refCount == 1) && !texture.isBinded() && !texture.isLoading()) {
+            mTextures.remove(texture.getKey());     // never uploaded, nothing to keep
+        }
+    }
+
+    /**
+     * @return the GPU memory used by the textures of the cache, in bytes
+     */
+    public synchronized long getUsedBytes() {
+        long usedBytes = 0;
+        for (CachedTexture texture : mTextures.values()) {
+            usedBytes += texture.getByteSize();
+        }
+        return usedBytes;
+    }
+
+    /**
+     * @param key a key given to acquire(), see also "res:" + resourceId and "asset:" + assetPath
+     * @return the number of references to the texture, 0 if it is not in the cache
+     */
+    public synchronized int getRefCount(@NonNull String key) {
+        CachedTexture texture = mTextures.get(key);
+        return (texture != null) ? texture.getRefCount() : 0;
+    }
+
+    // Called from a thread with an OpenGL context (OpenGL Thread or TextureLoader).
+    // The TextureLoader must not delete textures: the state cache of the OpenGL Thread would still see them bound.
+    /* package */ synchronized void onUploaded(@NonNull CachedTexture texture) {
+        if (mTextures.get(texture.getKey()) == null) {      // most recently used
+            mTextures.put(texture.getKey(), texture);       // released before its first upload, but still drawn
+        }
+        mTrimNeeded = true;
+    }
+
+    // Called from the OpenGL Thread each time a texture of the cache is bound for drawing
+    /* package */ void onDrawn(@NonNull CachedTexture texture) {
+        if (texture.getDrawnFrame() != mFrameNumber) {  // once per frame, to keep the lock out of the draw loop
+            texture.setDrawnFrame(mFrameNumber);
+            synchronized (this) {
+                mTextures.get(texture.getKey());    // most recently used
+            }
+        }
+    }
+
+    // Called by the renderer using the cache, from the OpenGL Thread
+    /* package */ synchronized void setStateCache(@Nullable GLStateCache stateCache) {
+        mStateCache = stateCache;
+    }
+
+    // Called by the renderer at the start of each frame, from the OpenGL Thread
+    /* package */ void onFrameStart() {
+        ++mFrameNumber;
+        synchronized (this) {
+            if (mTrimNeeded) {
+                trim(mBudget);
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used textures without reference from the GPU, until the used memory fits in the budget.
+     * They stay in the cache, so that a face still drawing one uploads it again under the budget.
+     * Must be called from the OpenGL Thread.
+     * @param budget max GPU memory to keep, in bytes. 0 deletes all the unreferenced textures.
+     */
+    public synchronized void trim(long budget) {
+        mTrimNeeded = false;
+        long usedBytes = getUsedBytes();
+        Iterator<CachedTexture> iterator = mTextures.values().iterator();
+        while ((usedBytes > budget) && iterator.hasNext()) {
+            CachedTexture texture = iterator.next();
+            if ((texture.getRefCount() == 0) && texture.isBinded() && !texture.isLoading()) {
+                usedBytes -= texture.getByteSize();
+                texture.unbindTexture();
+                if (mStateCache != null) {
+                    mStateCache.invalidateTexture();    // the id can be given again to another texture
+                }
+            }
+        }
+    }
+}
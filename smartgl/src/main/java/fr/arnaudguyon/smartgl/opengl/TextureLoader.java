@@ -0,0 +1,282 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.opengl.GLES30;
+import android.util.Log;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.microedition.khronos.egl.EGL10;
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.egl.EGLContext;
+import javax.microedition.khronos.egl.EGLDisplay;
+import javax.microedition.khronos.egl.EGLSurface;
+
+/**
+ * Decodes textures on a background thread, then uploads them on another thread which owns an OpenGL context
+ * shared with the one of the view. The OpenGL Thread never waits for a decoding or an upload, and the faces
+ * which use a texture are not drawn until it is ready (see {@link Texture#isReady()}).
+ * <p>
+ * If the device can't create the shared context, the textures are still decoded in the background,
+ * and uploaded by the OpenGL Thread the first time they are drawn.
+ */
+public class TextureLoader {
+
+    private static final String TAG = "TextureLoader";
+    private static final GL sGL = GLBackend.get();
+
+    private static final int EGL_CONTEXT_CLIENT_VERSION = 0x3098;
+    private static final long FENCE_TIMEOUT_NS = 1000000000L;
+    private static final long DESTROY_TIMEOUT_MS = 1000;
+
+    private final OpenGLRenderer mRenderer;
+    private ExecutorService mDecodeExecutor;
+    private volatile ExecutorService mUploadExecutor;
+
+    // Only used by the upload thread
+    private EGL10 mEGL;
+    private EGLDisplay mDisplay;
+    private EGLContext mSharedContext;
+    private EGLSurface mSurface;
+    private GLCapabilities mCapabilities;
+    private boolean mContextFailed;
+    private final ArrayList<Texture> mWaitingTextures = new ArrayList<>();    // loaded before the view has a context
+
+    private volatile MainContext mMainContext;
+
+    // The context of the view, which the upload thread shares
+    private static class MainContext {
+        final EGL10 mEGL;
+        final EGLDisplay mDisplay;
+        final EGLConfig mConfig;
+        final EGLContext mContext;
+
+        MainContext(EGL10 egl, EGLDisplay display, EGLConfig config, EGLContext context) {
+            mEGL = egl;
+            mDisplay = display;
+            mConfig = config;
+            mContext = context;
+        }
+    }
+
+    /* package */ TextureLoader(@NonNull OpenGLRenderer renderer) {
+        mRenderer = renderer;
+    }
+
+    /**
+     * Decodes a picture and uploads it in the background
+     * @param context    any context
+     * @param resourceId the picture
+     * @return a texture which can be given to Sprites and Object3D right away, and is drawn when ready
+     */
+    public Texture load(@NonNull Context context, @DrawableRes final int resourceId) {
+        final Context appContext = context.getApplicationContext();
+        final Texture texture = new Texture(0, 0, null);
+        texture.setLoading(true);
+        getDecodeExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap bitmap = BitmapFactory.decodeResource(appContext.getResources(), resourceId);
+                if (bitmap == null) {
+                    Log.e(TAG, "Can't decode resource " + resourceId);
+                    texture.setLoading(false);
+                    return;
+                }
+                texture.setBitmap(bitmap.getWidth(), bitmap.getHeight(), bitmap);
+                upload(texture);
+            }
+        });
+        return texture;
+    }
+
+    /**
+     * Uploads a texture in the background, for example a Texture created from a Bitmap, or a CompressedTexture
+     * (whose file is also read in the background)
+     * @param texture a texture which is not bound yet
+     * @return the same texture, drawn when ready
+     */
+    public <T extends Texture> T load(@NonNull final T texture) {
+        if (!texture.isBinded()) {
+            texture.setLoading(true);
+            upload(texture);
+        }
+        return texture;
+    }
+
+    private void upload(@NonNull final Texture texture) {
+        getUploadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                MainContext mainContext = mMainContext;
+                if ((mSharedContext == null) && !mContextFailed && (mainContext != null)) {
+                    createSharedContext(mainContext);
+                    mContextFailed = (mSharedContext == null);
+                }
+                if (mSharedContext != null) {
+                    uploadNow(texture);
+                } else if (mainContext == null) {
+                    mWaitingTextures.add(texture);
+                } else {
+                    texture.setLoading(false);  // no shared context: uploaded when first drawn
+                }
+            }
+        });
+    }
+
+    // Called from the OpenGL Thread, by the EGL context factory of the view
+    /* package */ void onMainContextCreated(@NonNull EGL10 egl, @NonNull EGLDisplay display, @NonNull EGLConfig config, @NonNull EGLContext context) {
+        mMainContext = new MainContext(egl, display, config, context);
+        if (mUploadExecutor == null) {
+            return; // the shared context is created with the first upload
+        }
+        mUploadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Texture texture : mWaitingTextures) {
+                    upload(texture);
+                }
+                mWaitingTextures.clear();
+            }
+        });
+    }
+
+    // Called from the OpenGL Thread before the main context is destroyed: the display may be terminated just after
+    /* package */ void onMainContextDestroyed() {
+        mMainContext = null;
+        if (mUploadExecutor == null) {
+            return;
+        }
+        Future<?> future = mUploadExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                destroySharedContext();
+            }
+        });
+        try {
+            future.get(DESTROY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.e(TAG, "Can't destroy the shared context: " + e);
+        }
+    }
+
+    // Upload thread
+    private void createSharedContext(@NonNull MainContext mainContext) {
+        final EGL10 egl = mainContext.mEGL;
+        final EGLDisplay display = mainContext.mDisplay;
+        final EGLConfig config = mainContext.mConfig;
+        final int[] contextAttribs = { EGL_CONTEXT_CLIENT_VERSION, 2, EGL10.EGL_NONE };
+        EGLContext context = egl.eglCreateContext(display, config, mainContext.mContext, contextAttribs);
+        if ((context == null) || (context == EGL10.EGL_NO_CONTEXT)) {
+            Log.e(TAG, "Can't create a shared context, error " + egl.eglGetError());
+            return;
+        }
+        // A 1x1 pbuffer if the config allows it, otherwise no surface at all (EGL_KHR_surfaceless_context)
+        final int[] surfaceAttribs = { EGL10.EGL_WIDTH, 1, EGL10.EGL_HEIGHT, 1, EGL10.EGL_NONE };
+        EGLSurface surface = egl.eglCreatePbufferSurface(display, config, surfaceAttribs);
+        if (surface == null) {
+            surface = EGL10.EGL_NO_SURFACE;
+        }
+        if (!egl.eglMakeCurrent(display, surface, surface, context)) {
+            Log.e(TAG, "Can't use the shared context, error " + egl.eglGetError());
+            if (surface != EGL10.EGL_NO_SURFACE) {
+                egl.eglDestroySurface(display, surface);
+            }
+            egl.eglDestroyContext(display, context);
+            return;
+        }
+        mEGL = egl;
+        mDisplay = display;
+        mSharedContext = context;
+        mSurface = surface;
+        mCapabilities = new GLCapabilities();
+        mCapabilities.load();
+    }
+
+    // Upload thread
+    private void destroySharedContext() {
+        mContextFailed = false;     // a new context will be created when the view resumes
+        if (mSharedContext == null) {
+            return;
+        }
+        mEGL.eglMakeCurrent(mDisplay, EGL10.EGL_NO_SURFACE, EGL10.EGL_NO_SURFACE, EGL10.EGL_NO_CONTEXT);
+        if (mSurface != EGL10.EGL_NO_SURFACE) {
+            mEGL.eglDestroySurface(mDisplay, mSurface);
+        }
+        mEGL.eglDestroyContext(mDisplay, mSharedContext);
+        mEGL = null;
+        mDisplay = null;
+        mSharedContext = null;
+        mSurface = null;
+    }
+
+    // Upload thread, with the shared context current
+    private void uploadNow(@NonNull Texture texture) {
+        texture.upload(mRenderer.getDefaultSampler(), mCapabilities);
+        // the OpenGL Thread must not sample the texture before the upload is complete
+        if (mCapabilities.isGLES30()) {
+            final long fence = sGL.glFenceSync(GLES30.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+            sGL.glClientWaitSync(fence, GLES30.GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT_NS);
+            sGL.glDeleteSync(fence);
+        } else {
+            sGL.glFinish();
+        }
+        texture.setLoading(false);
+    }
+
+    private synchronized ExecutorService getDecodeExecutor() {
+        if (mDecodeExecutor == null) {
+            final int nbThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+            mDecodeExecutor = Executors.newFixedThreadPool(nbThreads, new LoaderThreadFactory("SmartGL-TextureDecode"));
+        }
+        return mDecodeExecutor;
+    }
+
+    private synchronized ExecutorService getUploadExecutor() {
+        if (mUploadExecutor == null) {
+            mUploadExecutor = Executors.newSingleThreadExecutor(new LoaderThreadFactory("SmartGL-TextureUpload"));
+        }
+        return mUploadExecutor;
+    }
+
+    private static class LoaderThreadFactory implements ThreadFactory {
+
+        private final String mName;
+
+        LoaderThreadFactory(String name) {
+            mName = name;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, mName);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
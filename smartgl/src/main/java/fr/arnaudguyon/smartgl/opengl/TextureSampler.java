@@ -0,0 +1,161 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import android.opengl.GLES20;
+
+import androidx.annotation.NonNull;
+
+/**
+ * How a Texture is sampled: filtering, mipmaps, wrapping and anisotropy.
+ * A sampler can be shared by several textures, changes are applied the next time they are drawn.
+ * Textures without their own sampler use the one of the renderer, see {@link OpenGLRenderer#setTextureQuality(Quality)}.
+ */
+public class TextureSampler {
+
+    public enum Filter {
+        NEAREST,
+        BILINEAR,
+        TRILINEAR   // blends 2 mipmap levels, needs mipmaps
+    }
+
+    public enum Wrap {
+        CLAMP(GLES20.GL_CLAMP_TO_EDGE),
+        REPEAT(GLES20.GL_REPEAT),
+        MIRRORED_REPEAT(GLES20.GL_MIRRORED_REPEAT);
+
+        private final int mGLValue;
+
+        Wrap(int glValue) {
+            mGLValue = glValue;
+        }
+
+        public int getGLValue() {
+            return mGLValue;
+        }
+    }
+
+    /**
+     * Renderer wide presets.
+     * LOW: bilinear without mipmaps (the historical behavior, best for 2D sprites drawn at their size).
+     * MEDIUM: trilinear with mipmaps, for minified 3D textures.
+     * HIGH: trilinear with mipmaps and 4x anisotropy when the device supports it, for surfaces seen at grazing angles.
+     */
+    public enum Quality {
+        LOW,
+        MEDIUM,
+        HIGH
+    }
+
+    private Filter mFilter = Filter.BILINEAR;
+    private boolean mMipmaps = false;
+    private Wrap mWrapS = Wrap.CLAMP;
+    private Wrap mWrapT = Wrap.CLAMP;
+    private float mAnisotropy = 1;
+
+    public TextureSampler() {
+    }
+
+    public static TextureSampler fromQuality(@NonNull Quality quality) {
+        TextureSampler sampler = new TextureSampler();
+        switch (quality) {
+            case HIGH:
+                sampler.setAnisotropy(4);
+                // fall through
+            case MEDIUM:
+                sampler.setFilter(Filter.TRILINEAR);
+                break;
+            case LOW:
+            default:
+                break;
+        }
+        return sampler;
+    }
+
+    /**
+     * @param filter the filter. TRILINEAR also enables mipmaps.
+     */
+    public TextureSampler setFilter(@NonNull Filter filter) {
+        mFilter = filter;
+        if (filter == Filter.TRILINEAR) {
+            mMipmaps = true;
+        }
+        return this;
+    }
+
+    public Filter getFilter() {
+        return mFilter;
+    }
+
+    /**
+     * Mipmaps are generated with glGenerateMipmap when a texture is first drawn with this sampler,
+     * or come from the file for a CompressedTexture.
+     * @param mipmaps true to use mipmaps when the texture is smaller on screen than its size
+     */
+    public TextureSampler setMipmaps(boolean mipmaps) {
+        mMipmaps = mipmaps || (mFilter == Filter.TRILINEAR);
+        return this;
+    }
+
+    public boolean usesMipmaps() {
+        return mMipmaps;
+    }
+
+    public TextureSampler setWrap(@NonNull Wrap wrapS, @NonNull Wrap wrapT) {
+        mWrapS = wrapS;
+        mWrapT = wrapT;
+        return this;
+    }
+
+    public Wrap getWrapS() {
+        return mWrapS;
+    }
+
+    public Wrap getWrapT() {
+        return mWrapT;
+    }
+
+    /**
+     * @param anisotropy max anisotropy, 1 to disable. Clamped to what the device supports.
+     */
+    public TextureSampler setAnisotropy(float anisotropy) {
+        mAnisotropy = Math.max(1, anisotropy);
+        return this;
+    }
+
+    public float getAnisotropy() {
+        return mAnisotropy;
+    }
+
+    /* package */ int getMinFilter(boolean mipmaps) {
+        if (!mipmaps) {
+            return (mFilter == Filter.NEAREST) ? GLES20.GL_NEAREST : GLES20.GL_LINEAR;
+        }
+        switch (mFilter) {
+            case NEAREST:
+                return GLES20.GL_NEAREST_MIPMAP_NEAREST;
+            case TRILINEAR:
+                return GLES20.GL_LINEAR_MIPMAP_LINEAR;
+            case BILINEAR:
+            default:
+                return GLES20.GL_LINEAR_MIPMAP_NEAREST;
+        }
+    }
+
+    /* package */ int getMagFilter() {
+        return (mFilter == Filter.NEAREST) ? GLES20.GL_NEAREST : GLES20.GL_LINEAR;
+    }
+}
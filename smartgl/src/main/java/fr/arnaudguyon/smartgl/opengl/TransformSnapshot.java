@@ -0,0 +1,115 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+/**
+ * Transformations of the objects of a simulation at the end of a step, and at the end of the step before,
+ * so that the rendering can interpolate between both. Filled by the simulation thread of a SimulationLoop.
+ * Each slot holds a position, a rotation (in degrees) and a scale. Slots that are not written during a step
+ * keep their previous values.
+ */
+public class TransformSnapshot {
+
+    /* package */ static final int FLOATS_PER_SLOT = 9;   // x, y, z, rotX, rotY, rotZ, scaleX, scaleY, scaleZ
+
+    private final int mNbSlots;
+    private final float[] mPrevious;
+    private final float[] mCurrent;
+    private long mTime;     // System.nanoTime() when the step was due: the previous state is shown at that time, the current one a step later
+
+    /* package */ TransformSnapshot(int nbSlots) {
+        mNbSlots = nbSlots;
+        mPrevious = new float[nbSlots * FLOATS_PER_SLOT];
+        mCurrent = new float[nbSlots * FLOATS_PER_SLOT];
+        for (int slot = 0; slot < nbSlots; ++slot) {
+            final int index = slot * FLOATS_PER_SLOT;
+            mCurrent[index + 6] = 1;
+            mCurrent[index + 7] = 1;
+            mCurrent[index + 8] = 1;
+        }
+        System.arraycopy(mCurrent, 0, mPrevious, 0, mCurrent.length);
+    }
+
+    public int getNbSlots() {
+        return mNbSlots;
+    }
+
+    /**
+     * Transformation of a 3D object (Object3D or 3D container)
+     */
+    public void set(int slot, float x, float y, float z, float rotX, float rotY, float rotZ, float scaleX, float scaleY, float scaleZ) {
+        final int index = slot * FLOATS_PER_SLOT;
+        final float[] current = mCurrent;
+        current[index] = x;
+        current[index + 1] = y;
+        current[index + 2] = z;
+        current[index + 3] = rotX;
+        current[index + 4] = rotY;
+        current[index + 5] = rotZ;
+        current[index + 6] = scaleX;
+        current[index + 7] = scaleY;
+        current[index + 8] = scaleZ;
+    }
+
+    /**
+     * Transformation of a 2D object (Sprite or 2D container)
+     * @param angle rotation around Z, in degrees
+     */
+    public void set2D(int slot, float x, float y, float angle, float scaleX, float scaleY) {
+        set(slot, x, y, 0, 0, 0, angle, scaleX, scaleY, 1);
+    }
+
+    /**
+     * @param slot  the slot
+     * @param index 0 for x, 1 for y, ... see set()
+     * @return the value written during this step, or kept from the previous step
+     */
+    public float get(int slot, int index) {
+        return mCurrent[slot * FLOATS_PER_SLOT + index];
+    }
+
+    // Starts a new step from the last state: previous and current are both that state
+    /* package */ void begin(float[] lastState, long time) {
+        System.arraycopy(lastState, 0, mPrevious, 0, lastState.length);
+        System.arraycopy(lastState, 0, mCurrent, 0, lastState.length);
+        mTime = time;
+    }
+
+    /* package */ float[] getCurrent() {
+        return mCurrent;
+    }
+
+    /* package */ long getTime() {
+        return mTime;
+    }
+
+    /**
+     * Linear interpolation of the positions and scales, shortest path for the angles
+     * @param alpha  0 for the previous state, 1 for the current state
+     * @param result receives FLOATS_PER_SLOT floats
+     */
+    /* package */ void interpolate(int slot, float alpha, float[] result) {
+        final int index = slot * FLOATS_PER_SLOT;
+        for (int i = 0; i < FLOATS_PER_SLOT; ++i) {
+            final float previous = mPrevious[index + i];
+            float delta = mCurrent[index + i] - previous;
+            if ((i >= 3) && (i < 6)) {
+                delta = ((delta % 360) + 540) % 360 - 180;
+            }
+            result[i] = previous + delta * alpha;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which version of a value each uniform of a program holds, to skip the glUniform calls which would
+ * upload the same value again. Values (lights, matrices...) get a new version from {@link #newVersion()} each
+ * time they change. Versions are unique across all the values, so a uniform switching from one object to another
+ * is always uploaded.
+ * <p>
+ * There is one cache per linked program (see ProgramRegistry), shared by all the Shaders using the program.
+ */
+public class UniformCache {
+
+    public static final long NO_VERSION = 0;
+
+    private static final AtomicLong sVersionCounter = new AtomicLong(NO_VERSION);
+    private static long sNbUploads;     // OpenGL threads only, approximate if several contexts render at the same time
+
+    // indexed by uniform location
+    private long[] mVersions = new long[8];
+    private long[] mSecondVersions = new long[8];
+
+    /**
+     * @return a version never returned before
+     */
+    public static long newVersion() {
+        return sVersionCounter.incrementAndGet();
+    }
+
+    /**
+     * @param location location of the uniform in the program, ignored if negative
+     * @param version  version of the value to upload
+     * @return true if the uniform doesn't hold this version yet: the caller must upload the value.
+     * The uniform is then considered as holding this version.
+     */
+    public boolean needsUpload(int location, long version) {
+        return needsUpload(location, version, NO_VERSION);
+    }
+
+    /**
+     * For values computed from 2 others, like a projection * model matrix
+     * @param location      location of the uniform in the program, ignored if negative
+     * @param version       version of the first value
+     * @param secondVersion version of the second value
+     * @return true if the uniform doesn't hold this combination yet: the caller must upload the value
+     */
+    public boolean needsUpload(int location, long version, long secondVersion) {
+        if (location < 0) {
+            return false;
+        }
+        if (location >= mVersions.length) {
+            final int size = Math.max(location + 1, mVersions.length * 2);
+            mVersions = Arrays.copyOf(mVersions, size);
+            mSecondVersions = Arrays.copyOf(mSecondVersions, size);
+        }
+        if ((version != NO_VERSION) && (mVersions[location] == version) && (mSecondVersions[location] == secondVersion)) {
+            return false;
+        }
+        mVersions[location] = version;
+        mSecondVersions[location] = secondVersion;
+        ++sNbUploads;
+        return true;
+    }
+
+    /**
+     * @return the number of uploads requested by all the caches since the start, for the profiling
+     */
+    public static long getNbUploads() {
+        return sNbUploads;
+    }
+
+    /**
+     * To call after uploading a uniform without checking the cache, so that the next check uploads it again
+     * @param location location of the uniform in the program
+     */
+    public void invalidate(int location) {
+        if ((location >= 0) && (location < mVersions.length)) {
+            mVersions[location] = NO_VERSION;
+            mSecondVersions[location] = NO_VERSION;
+        }
+    }
+
+    public void invalidateAll() {
+        Arrays.fill(mVersions, NO_VERSION);
+        Arrays.fill(mSecondVersions, NO_VERSION);
+    }
+}
@@ -15,11 +15,21 @@
  */
 package fr.arnaudguyon.smartgl.opengl;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import fr.arnaudguyon.smartgl.math.Bounds3D;
+
 /**
  * List of Vertex for a Face3D
  */
 public class VertexList extends AttribList {
 
+	private static final AtomicInteger sBoundsVersion = new AtomicInteger();
+
+	// no field initializer: onBufferChanged can be called from the super constructor
+	private Bounds3D mBounds;
+	private int mBoundsVersion;
+
 	public VertexList() {
 		super(3); // 3 floats per vertex (x,y,z)
 	}
@@ -32,4 +42,27 @@ public class VertexList extends AttribList {
 		super(other, otherElementsPerVector, 3);
 	}
 
+	@Override
+	protected void onBufferChanged() {
+		if (mBounds == null) {
+			mBounds = new Bounds3D();
+		}
+		mBounds.set(getInternalBuffer(), getNbFloatsPerElement(), getNbElements());
+		mBoundsVersion = sBoundsVersion.incrementAndGet();
+	}
+
+	/**
+	 * @return the bounds of the vertices, computed by finalizeBuffer and updateBuffer. Null before.
+	 */
+	public final Bounds3D getBounds() {
+		return mBounds;
+	}
+
+	/**
+	 * @return a number which increases every time the bounds change, unique among all the VertexLists
+	 */
+	public final int getBoundsVersion() {
+		return mBoundsVersion;
+	}
+
 }
@@ -0,0 +1,180 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+
+import fr.arnaudguyon.smartgl.opengl.AtlasRegion;
+import fr.arnaudguyon.smartgl.opengl.Texture;
+import fr.arnaudguyon.smartgl.opengl.TextureAtlas;
+
+/**
+ * Packs many pictures into one or more Texture pages (see AtlasPacker), and creates the regions used by the Sprites.
+ * The border pixels of each picture are repeated around it (extrusion), so that the linear filtering doesn't
+ * bleed the neighbour pictures at the edges, and some empty pixels are kept between the pictures (padding).
+ */
+public class AtlasBuilder {
+
+    private static class Entry {
+        String mName;
+        int mResourceId;
+        Bitmap mBitmap;
+        boolean mOwnBitmap;   // decoded here, recycled once drawn in its page
+    }
+
+    private final int mPageWidth;
+    private final int mPageHeight;
+    private int mPadding = 2;
+    private int mExtrusion = 1;
+    private final ArrayList<Entry> mEntries = new ArrayList<>();
+
+    /**
+     * @param pageWidth  width of the pages, in pixels (power of 2 recommended, 2048 max for old devices)
+     * @param pageHeight height of the pages, in pixels
+     */
+    public AtlasBuilder(int pageWidth, int pageHeight) {
+        mPageWidth = pageWidth;
+        mPageHeight = pageHeight;
+    }
+
+    /**
+     * @param padding number of empty pixels between two pictures (default 2)
+     * @return the AtlasBuilder
+     */
+    public AtlasBuilder setPadding(int padding) {
+        mPadding = padding;
+        return this;
+    }
+
+    /**
+     * @param extrusion number of times the border pixels are repeated around each picture (default 1)
+     * @return the AtlasBuilder
+     */
+    public AtlasBuilder setExtrusion(int extrusion) {
+        mExtrusion = extrusion;
+        return this;
+    }
+
+    /**
+     * Adds a picture. The bitmap is not recycled by the builder.
+     * @param name   name of the region, see TextureAtlas.getRegion(String)
+     * @param bitmap the picture
+     * @return the AtlasBuilder
+     */
+    public AtlasBuilder add(@NonNull String name, @NonNull Bitmap bitmap) {
+        Entry entry = new Entry();
+        entry.mName = name;
+        entry.mBitmap = bitmap;
+        mEntries.add(entry);
+        return this;
+    }
+
+    /**
+     * Adds a picture from the drawables (jpg or png, not a vector)
+     * @param context    a Context
+     * @param resourceId the drawable, see TextureAtlas.getRegion(int)
+     * @return the AtlasBuilder
+     */
+    public AtlasBuilder add(@NonNull Context context, @DrawableRes int resourceId) {
+        Entry entry = new Entry();
+        entry.mName = context.getResources().getResourceEntryName(resourceId);
+        entry.mResourceId = resourceId;
+        entry.mBitmap = BitmapFactory.decodeResource(context.getResources(), resourceId);
+        entry.mOwnBitmap = true;
+        mEntries.add(entry);
+        return this;
+    }
+
+    /**
+     * Packs the pictures and draws the pages. The pages are uploaded to the GPU the first time they are drawn.
+     * @return the atlas
+     * @throws IllegalArgumentException if a picture is bigger than a page
+     */
+    public TextureAtlas create() {
+        final int border = mExtrusion;
+        AtlasPacker packer = new AtlasPacker(mPageWidth, mPageHeight);
+        packer.setPadding(mPadding);
+        packer.setExtrusion(border);
+        for (Entry entry : mEntries) {
+            packer.add(entry.mBitmap.getWidth(), entry.mBitmap.getHeight());
+        }
+        final int nbPages = packer.pack();
+
+        TextureAtlas atlas = new TextureAtlas();
+        Bitmap[] pageBitmaps = new Bitmap[nbPages];
+        Canvas[] canvases = new Canvas[nbPages];
+        Texture[] pages = new Texture[nbPages];
+        for (int page = 0; page < nbPages; ++page) {
+            pageBitmaps[page] = Bitmap.createBitmap(mPageWidth, mPageHeight, Bitmap.Config.ARGB_8888);
+            canvases[page] = new Canvas(pageBitmaps[page]);
+            pages[page] = new Texture(pageBitmaps[page]);
+            atlas.addPage(pages[page]);
+        }
+
+        Paint paint = new Paint();
+        paint.setFilterBitmap(false);
+        Rect src = new Rect();
+        Rect dst = new Rect();
+        for (int i = 0; i < mEntries.size(); ++i) {
+            Entry entry = mEntries.get(i);
+            final int page = packer.getPage(i);
+            final int x = packer.getX(i);
+            final int y = packer.getY(i);
+            final Bitmap bitmap = entry.mBitmap;
+            final int width = bitmap.getWidth();
+            final int height = bitmap.getHeight();
+            Canvas canvas = canvases[page];
+            canvas.drawBitmap(bitmap, x, y, paint);
+            if (border > 0) {
+                // edges
+                drawStretched(canvas, bitmap, paint, src, dst, 0, 0, 1, height, x - border, y, x, y + height);
+                drawStretched(canvas, bitmap, paint, src, dst, width - 1, 0, width, height, x + width, y, x + width + border, y + height);
+                drawStretched(canvas, bitmap, paint, src, dst, 0, 0, width, 1, x, y - border, x + width, y);
+                drawStretched(canvas, bitmap, paint, src, dst, 0, height - 1, width, height, x, y + height, x + width, y + height + border);
+                // corners
+                drawStretched(canvas, bitmap, paint, src, dst, 0, 0, 1, 1, x - border, y - border, x, y);
+                drawStretched(canvas, bitmap, paint, src, dst, width - 1, 0, width, 1, x + width, y - border, x + width + border, y);
+                drawStretched(canvas, bitmap, paint, src, dst, 0, height - 1, 1, height, x - border, y + height, x, y + height + border);
+                drawStretched(canvas, bitmap, paint, src, dst, width - 1, height - 1, width, height, x + width, y + height, x + width + border, y + height + border);
+            }
+            AtlasRegion region = new AtlasRegion(entry.mName, pages[page], x, y, width, height);
+            atlas.addRegion(region, entry.mResourceId);
+            if (entry.mOwnBitmap) {
+                bitmap.recycle();
+            }
+        }
+        mEntries.clear();
+        return atlas;
+    }
+
+    private static void drawStretched(Canvas canvas, Bitmap bitmap, Paint paint, Rect src, Rect dst,
+                                      int srcLeft, int srcTop, int srcRight, int srcBottom,
+                                      int dstLeft, int dstTop, int dstRight, int dstBottom) {
+        src.set(srcLeft, srcTop, srcRight, srcBottom);
+        dst.set(dstLeft, dstTop, dstRight, dstBottom);
+        canvas.drawBitmap(bitmap, src, dst, paint);
+    }
+}
@@ -0,0 +1,287 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Packs rectangles into pages of a fixed size, with a skyline bottom-left algorithm.
+ * Pure Java (no Android dependency) so that it can be tested and benchmarked on a desktop JVM.
+ * The rectangles are sorted by decreasing height before being packed, then each one goes to the first
+ * page where it fits, at the lowest position of the skyline.
+ * Each rectangle takes a cell of its size, plus the extrusion on each side and the padding on the right and bottom.
+ */
+public class AtlasPacker {
+
+	private final int mPageWidth;
+	private final int mPageHeight;
+	private int mPadding;
+	private int mExtrusion;
+
+	private int mNbRects;
+	private int[] mWidths = new int[16];
+	private int[] mHeights = new int[16];
+	private int[] mX = new int[16];
+	private int[] mY = new int[16];
+	private int[] mPage = new int[16];
+	private int mNbPages;
+
+	/**
+	 * Skyline of a page: horizontal segments from left to right, the top of what has been packed below.
+	 */
+	/* package */ static class Skyline {
+		int mSize;
+		int[] mX = new int[16];
+		int[] mY = new int[16];
+		int[] mWidth = new int[16];
+
+		Skyline(int pageWidth) {
+			mSize = 1;
+			mWidth[0] = pageWidth;
+		}
+
+		void insert(int index, int x, int y, int width) {
+			if (mSize == mX.length) {
+				mX = Arrays.copyOf(mX, mSize * 2);
+				mY = Arrays.copyOf(mY, mSize * 2);
+				mWidth = Arrays.copyOf(mWidth, mSize * 2);
+			}
+			System.arraycopy(mX, index, mX, index + 1, mSize - index);
+			System.arraycopy(mY, index, mY, index + 1, mSize - index);
+			System.arraycopy(mWidth, index, mWidth, index + 1, mSize - index);
+			mX[index] = x;
+			mY[index] = y;
+			mWidth[index] = width;
+			++mSize;
+		}
+
+		void remove(int index) {
+			System.arraycopy(mX, index + 1, mX, index, mSize - index - 1);
+			System.arraycopy(mY, index + 1, mY, index, mSize - index - 1);
+			System.arraycopy(mWidth, index + 1, mWidth, index, mSize - index - 1);
+			--mSize;
+		}
+	}
+
+	public AtlasPacker(int pageWidth, int pageHeight) {
+		if ((pageWidth <= 0) || (pageHeight <= 0)) {
+			throw new IllegalArgumentException("invalid page size " + pageWidth + "x" + pageHeight);
+		}
+		mPageWidth = pageWidth;
+		mPageHeight = pageHeight;
+	}
+
+	public int getPageWidth() {
+		return mPageWidth;
+	}
+
+	public int getPageHeight() {
+		return mPageHeight;
+	}
+
+	/**
+	 * To call before add()
+	 * @param padding number of empty pixels between two cells (default 0)
+	 */
+	public void setPadding(int padding) {
+		if (padding < 0) {
+			throw new IllegalArgumentException("invalid padding " + padding);
+		}
+		mPadding = padding;
+	}
+
+	/**
+	 * To call before add()
+	 * @param extrusion number of pixels kept around each rectangle, to repeat its borders (default 0)
+	 */
+	public void setExtrusion(int extrusion) {
+		if (extrusion < 0) {
+			throw new IllegalArgumentException("invalid extrusion " + extrusion);
+		}
+		mExtrusion = extrusion;
+	}
+
+	/**
+	 * Adds a rectangle to pack
+	 * @param width  width in pixels, without padding and extrusion
+	 * @param height height in pixels, without padding and extrusion
+	 * @return the index of the rectangle, to read its position after pack()
+	 */
+	public int add(int width, int height) {
+		if ((width <= 0) || (height <= 0)) {
+			throw new IllegalArgumentException("invalid rectangle " + width + "x" + height);
+		}
+		width += 2 * mExtrusion + mPadding;
+		height += 2 * mExtrusion + mPadding;
+		if ((width > mPageWidth) || (height > mPageHeight)) {
+			throw new IllegalArgumentException("cell " + width + "x" + height + " doesn't fit in a page of " + mPageWidth + "x" + mPageHeight);
+		}
+		if (mNbRects == mWidths.length) {
+			final int capacity = mNbRects * 2;
+			mWidths = Arrays.copyOf(mWidths, capacity);
+			mHeights = Arrays.copyOf(mHeights, capacity);
+			mX = Arrays.copyOf(mX, capacity);
+			mY = Arrays.copyOf(mY, capacity);
+			mPage = Arrays.copyOf(mPage, capacity);
+		}
+		mWidths[mNbRects] = width;
+		mHeights[mNbRects] = height;
+		return mNbRects++;
+	}
+
+	public int getNbRects() {
+		return mNbRects;
+	}
+
+	/**
+	 * Places all the rectangles added so far
+	 * @return the number of pages needed
+	 */
+	public int pack() {
+		Integer[] order = new Integer[mNbRects];
+		for (int i = 0; i < mNbRects; ++i) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer left, Integer right) {
+				final int diff = mHeights[right] - mHeights[left];
+				return (diff != 0) ? diff : (mWidths[right] - mWidths[left]);
+			}
+		});
+
+		ArrayList<Skyline> pages = new ArrayList<>();
+		for (int i = 0; i < mNbRects; ++i) {
+			final int rect = order[i];
+			boolean placed = false;
+			for (int page = 0; page < pages.size() && !placed; ++page) {
+				placed = place(pages.get(page), rect);
+				if (placed) {
+					mPage[rect] = page;
+				}
+			}
+			if (!placed) {
+				Skyline skyline = new Skyline(mPageWidth);
+				pages.add(skyline);
+				place(skyline, rect);	// always fits in an empty page, see add()
+				mPage[rect] = pages.size() - 1;
+			}
+		}
+		mNbPages = pages.size();
+		return mNbPages;
+	}
+
+	public int getNbPages() {
+		return mNbPages;
+	}
+
+	/**
+	 * @param rect index returned by add()
+	 * @return the left of the rectangle, inside its extrusion
+	 */
+	public int getX(int rect) {
+		return mX[rect] + mExtrusion;
+	}
+
+	/**
+	 * @param rect index returned by add()
+	 * @return the top of the rectangle, inside its extrusion
+	 */
+	public int getY(int rect) {
+		return mY[rect] + mExtrusion;
+	}
+
+	public int getPage(int rect) {
+		return mPage[rect];
+	}
+
+	// Bottom-left: the lowest top, then the leftmost position
+	private boolean place(Skyline skyline, int rect) {
+		final int width = mWidths[rect];
+		final int height = mHeights[rect];
+		int bestIndex = -1;
+		int bestTop = Integer.MAX_VALUE;
+		int bestY = 0;
+		for (int i = 0; i < skyline.mSize; ++i) {
+			final int y = fit(skyline, i, width);
+			if (y < 0) {
+				continue;
+			}
+			final int top = y + height;
+			if ((top <= mPageHeight) && (top < bestTop)) {
+				bestTop = top;
+				bestIndex = i;
+				bestY = y;
+			}
+		}
+		if (bestIndex < 0) {
+			return false;
+		}
+		final int x = skyline.mX[bestIndex];
+		mX[rect] = x;
+		mY[rect] = bestY;
+		addSkylineLevel(skyline, bestIndex, x, bestTop, width);
+		return true;
+	}
+
+	// y where a rectangle of this width can start at segment index, -1 if it goes past the right of the page
+	private int fit(Skyline skyline, int index, int width) {
+		final int x = skyline.mX[index];
+		if (x + width > mPageWidth) {
+			return -1;
+		}
+		int remaining = width;
+		int y = 0;
+		while (remaining > 0) {
+			y = Math.max(y, skyline.mY[index]);
+			remaining -= skyline.mWidth[index];
+			++index;
+		}
+		return y;
+	}
+
+	/* package */ static void addSkylineLevel(Skyline skyline, int index, int x, int y, int width) {
+		skyline.insert(index, x, y, width);
+		// shrink or remove the segments now under the new one
+		int i = index + 1;
+		while (i < skyline.mSize) {
+			final int previousEnd = skyline.mX[i - 1] + skyline.mWidth[i - 1];
+			if (skyline.mX[i] >= previousEnd) {
+				break;
+			}
+			final int shrink = previousEnd - skyline.mX[i];
+			if (skyline.mWidth[i] <= shrink) {
+				skyline.remove(i);
+			} else {
+				skyline.mX[i] += shrink;
+				skyline.mWidth[i] -= shrink;
+				break;
+			}
+		}
+		// merge neighbours at the same level
+		i = 0;
+		while (i < skyline.mSize - 1) {
+			if (skyline.mY[i] == skyline.mY[i + 1]) {
+				skyline.mWidth[i] += skyline.mWidth[i + 1];
+				skyline.remove(i + 1);
+			} else {
+				++i;
+			}
+		}
+	}
+}
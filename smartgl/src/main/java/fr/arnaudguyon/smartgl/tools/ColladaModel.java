@@ -19,6 +19,7 @@ import android.content.Context;
 import android.util.Log;
 
 import androidx.annotation.FloatRange;
+import androidx.annotation.NonNull;
 
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
@@ -53,7 +54,9 @@ public class ColladaModel {
     public static class Builder {
         private Context mContext;
         private int mRawResourceId;
+        private InputStream mInputStream;
         private boolean mOptimizeModel = true;
+        private boolean mUseBufferObjects = false;
         private HashMap<String, Texture> mTextures = new HashMap<>();
         private float[] mColor = {1, 1, 1};
 
@@ -61,10 +64,28 @@ public class ColladaModel {
             mContext = context;
             mRawResourceId = rawFileResourceId;
         }
+
+        /**
+         * Reads the model from a stream instead of a raw resource, for example a file or an asset
+         * @param inputStream the content of the file, read by create() and not closed
+         */
+        public Builder(@NonNull InputStream inputStream) {
+            mInputStream = inputStream;
+        }
         public Builder optimize(boolean optimizeModel) {
             mOptimizeModel = optimizeModel;
             return this;
         }
+        /**
+         * Uploads the geometry once to GPU Buffer Objects (VBO) instead of sending it at every frame.
+         * Recommended for static models, especially big ones.
+         * @param useBufferObjects true to use Buffer Objects
+         * @return the Builder
+         */
+        public Builder useBufferObjects(boolean useBufferObjects) {
+            mUseBufferObjects = useBufferObjects;
+            return this;
+        }
         public Builder addTexture(String textureName, Texture texture) {
             mTextures.put(textureName, texture);
             return this;
@@ -78,12 +99,19 @@ public class ColladaModel {
 
         public ColladaModel create() {
             ColladaModel collada = new ColladaModel();
-            collada.loadObject(mContext, mRawResourceId);
+            Tracer.begin("ColladaModel.load");
+            try {
+                InputStream inputStream = (mInputStream != null) ? mInputStream : mContext.getResources().openRawResource(mRawResourceId);
+                collada.loadObject(inputStream);
+            } finally {
+                Tracer.end();
+            }
             if (mOptimizeModel) {
                 //wavefront.mergeStrips();
             }
             collada.mTextures = mTextures;
             collada.mColor = mColor;
+            collada.mUseBufferObjects = mUseBufferObjects;
             return collada;
         }
     }
@@ -94,8 +122,7 @@ public class ColladaModel {
     private ColladaModel() {
         //
     }
-    private void loadObject(Context context, int rawResId) throws RuntimeException {
-        InputStream inputStream = context.getResources().openRawResource(rawResId);
+    private void loadObject(InputStream inputStream) throws RuntimeException {
         BufferedReader reader = null;
         try {
             XmlPullParserFactory parserFactory = XmlPullParserFactory.newInstance();
@@ -121,9 +148,11 @@ public class ColladaModel {
         }
         Log.d("@COLLADA", "done but did it load?");
         validate3D();
+        Tracer.counter("ColladaModel.vertices", mVertex.size());
     }
 
     private float[] mColor = {1,0,0};
+    private boolean mUseBufferObjects;
     private ArrayList<Face3D> mFaces = new ArrayList<>();
     private ArrayList<Vertex> mVertex = new ArrayList<>();
     private ArrayList<UV> mUVs = new ArrayList<>(); //DAE's TEXCOORD (Texture Coordinate)
@@ -186,7 +215,7 @@ public class ColladaModel {
             if (library_geometries.geometry.get(0).mesh.source.get(i).id.equals((library_geometries.geometry.get(0).id + "-positions"))) {
                 Assert.assertNotNull(library_geometries.geometry.get(0).mesh.source.get(i).technique_common);
                 Assert.assertNotNull(library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor);
-                Log.i("COLLADA", "populating Vertex count " + library_geometries.geometry.get(0).mesh.source.get(i).float_array.count + " stride " + library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride);
+                Tracer.counter("ColladaModel.positions", library_geometries.geometry.get(0).mesh.source.get(i).float_array.count / library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride);
                 for (int j = 0; j < library_geometries.geometry.get(0).mesh.source.get(i).float_array.count; j += library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride) {
                     Vertex l_vertex = new Vertex(
                             library_geometries.geometry.get(0).mesh.source.get(i).float_array.value.get(j),
@@ -198,7 +227,7 @@ public class ColladaModel {
             } else if (library_geometries.geometry.get(0).mesh.source.get(i).id.equals((library_geometries.geometry.get(0).id + "-normals"))) {
                 Assert.assertNotNull(library_geometries.geometry.get(0).mesh.source.get(i).technique_common);
                 Assert.assertNotNull(library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor);
-                Log.i("COLLADA", "populating Normals count " + library_geometries.geometry.get(0).mesh.source.get(i).float_array.count + " stride " + library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride);
+                Tracer.counter("ColladaModel.normals", library_geometries.geometry.get(0).mesh.source.get(i).float_array.count / library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride);
                 for (int j = 0; j < library_geometries.geometry.get(0).mesh.source.get(i).float_array.count; j += library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride) {
                     Normal l_normal = new Normal(
                             library_geometries.geometry.get(0).mesh.source.get(i).float_array.value.get(j),
@@ -210,7 +239,7 @@ public class ColladaModel {
             } else if (library_geometries.geometry.get(0).mesh.source.get(i).id.equals((library_geometries.geometry.get(0).id + "-map-0"))) {
                 Assert.assertNotNull(library_geometries.geometry.get(0).mesh.source.get(i).technique_common);
                 Assert.assertNotNull(library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor);
-                Log.i("COLLADA", "populating UVs count " + library_geometries.geometry.get(0).mesh.source.get(i).float_array.count + " stride " + library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride);
+                Tracer.counter("ColladaModel.uvs", library_geometries.geometry.get(0).mesh.source.get(i).float_array.count / library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride);
                 for (int j = 0; j < library_geometries.geometry.get(0).mesh.source.get(i).float_array.count; j += library_geometries.geometry.get(0).mesh.source.get(i).technique_common.accessor.stride) {
                     UV l_uv = new UV(
                             library_geometries.geometry.get(0).mesh.source.get(i).float_array.value.get(j),
@@ -273,6 +302,15 @@ public class ColladaModel {
     private int triangleIndex = 0;
 
     public Object3D toObject3D() {
+        Tracer.begin("ColladaModel.toObject3D");
+        try {
+            return buildObject3D();
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    private Object3D buildObject3D() {
         final boolean hasUV = (mUVs.size() > 0);
         final boolean hasNormals = (mNormals.size() > 0);
 
@@ -349,6 +387,9 @@ public class ColladaModel {
             }
             object3D.addFace(face3D);
         }
+        if (mUseBufferObjects) {
+            object3D.setUseBufferObjects(true);
+        }
         return object3D;
     }
 
@@ -0,0 +1,124 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+/**
+ * OpenGL internal formats of compressed textures, and which one to use on a device.
+ * Pure Java (no Android dependency) so that the selection can be tested on a desktop JVM.
+ */
+public final class CompressedFormat {
+
+	public static final int ETC1_RGB8 = 0x8D64;
+	public static final int ETC2_RGB8 = 0x9274;
+	public static final int ETC2_SRGB8 = 0x9275;
+	public static final int ETC2_RGB8_PUNCHTHROUGH_ALPHA1 = 0x9276;
+	public static final int ETC2_SRGB8_PUNCHTHROUGH_ALPHA1 = 0x9277;
+	public static final int ETC2_RGBA8_EAC = 0x9278;
+	public static final int ETC2_SRGB8_ALPHA8_EAC = 0x9279;
+	public static final int ASTC_RGBA_4x4 = 0x93B0;
+	public static final int ASTC_RGBA_12x12 = 0x93BD;
+	public static final int ASTC_SRGB8_ALPHA8_4x4 = 0x93D0;
+	public static final int ASTC_SRGB8_ALPHA8_12x12 = 0x93DD;
+
+	public static final String EXTENSION_ETC1 = "GL_OES_compressed_ETC1_RGB8_texture";
+	public static final String EXTENSION_ASTC = "GL_KHR_texture_compression_astc_ldr";
+
+	private CompressedFormat() {
+	}
+
+	public static boolean isETC1(int format) {
+		return (format == ETC1_RGB8);
+	}
+
+	public static boolean isETC2(int format) {
+		return (format >= ETC2_RGB8) && (format <= ETC2_SRGB8_ALPHA8_EAC);
+	}
+
+	public static boolean isASTC(int format) {
+		return ((format >= ASTC_RGBA_4x4) && (format <= ASTC_RGBA_12x12))
+				|| ((format >= ASTC_SRGB8_ALPHA8_4x4) && (format <= ASTC_SRGB8_ALPHA8_12x12));
+	}
+
+	/**
+	 * @param format         OpenGL internal format
+	 * @param glMajorVersion major version of the OpenGL ES context
+	 * @param extensions     the GL_EXTENSIONS string of the context
+	 * @return true if the context can use textures of this format
+	 */
+	public static boolean isSupported(int format, int glMajorVersion, String extensions) {
+		if (isASTC(format)) {
+			return hasExtension(extensions, EXTENSION_ASTC);
+		} else if (isETC2(format)) {
+			return (glMajorVersion >= 3);	// mandatory in OpenGL ES 3.0
+		} else if (isETC1(format)) {
+			// ETC2 decoders also decode ETC1, and ETC1 is available on all the OpenGL ES 2 Android devices
+			return (glMajorVersion >= 3) || hasExtension(extensions, EXTENSION_ETC1) || (extensions == null) || extensions.isEmpty();
+		}
+		return false;
+	}
+
+	/**
+	 * Best is ASTC (quality, alpha), then ETC2, then ETC1 (no alpha channel)
+	 * @param format OpenGL internal format
+	 * @return a higher number for better formats, 0 if the format is unknown
+	 */
+	public static int getPreference(int format) {
+		if (isASTC(format)) {
+			return 3;
+		} else if (isETC2(format)) {
+			return 2;
+		} else if (isETC1(format)) {
+			return 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * @param formats        the formats available for the same picture
+	 * @param glMajorVersion major version of the OpenGL ES context
+	 * @param extensions     the GL_EXTENSIONS string of the context
+	 * @return the index of the best supported format, -1 if none is supported
+	 */
+	public static int chooseBest(int[] formats, int glMajorVersion, String extensions) {
+		int best = -1;
+		int bestPreference = 0;
+		for (int i = 0; i < formats.length; ++i) {
+			final int preference = getPreference(formats[i]);
+			if ((preference > bestPreference) && isSupported(formats[i], glMajorVersion, extensions)) {
+				best = i;
+				bestPreference = preference;
+			}
+		}
+		return best;
+	}
+
+	private static boolean hasExtension(String extensions, String extension) {
+		if (extensions == null) {
+			return false;
+		}
+		int index = extensions.indexOf(extension);
+		while (index >= 0) {
+			final int end = index + extension.length();
+			final boolean startOk = (index == 0) || (extensions.charAt(index - 1) == ' ');
+			final boolean endOk = (end == extensions.length()) || (extensions.charAt(end) == ' ');
+			if (startOk && endOk) {
+				return true;
+			}
+			index = extensions.indexOf(extension, end);
+		}
+		return false;
+	}
+}
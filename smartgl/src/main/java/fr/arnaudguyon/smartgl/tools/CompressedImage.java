@@ -0,0 +1,262 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Compressed picture read from a KTX (version 1) or PKM container, with its mipmap levels.
+ * The levels are views on the buffer of the file, nothing is copied or decoded.
+ * Pure Java (no Android dependency) so that the parsing can be tested on a desktop JVM.
+ */
+public class CompressedImage {
+
+	private static final byte[] KTX_IDENTIFIER = {
+			(byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+	};
+	private static final int KTX_HEADER_SIZE = 64;
+	private static final int KTX_ENDIANNESS = 0x04030201;
+
+	private static final byte[] PKM_IDENTIFIER = { 'P', 'K', 'M', ' ' };
+	private static final int PKM_HEADER_SIZE = 16;
+	// PKM 2.0 data types
+	private static final int PKM_ETC1_RGB = 0;
+	private static final int PKM_ETC2_RGB = 1;
+	private static final int PKM_ETC2_RGBA = 3;
+	private static final int PKM_ETC2_RGBA1 = 4;
+
+	/**
+	 * Size of the header to read to know the format of a file, see {@link #parseHeader(ByteBuffer)}
+	 */
+	public static final int HEADER_SIZE = KTX_HEADER_SIZE;
+
+	private final int mFormat;
+	private final int mWidth;
+	private final int mHeight;
+	private final ByteBuffer[] mLevels;
+
+	private CompressedImage(int format, int width, int height, ByteBuffer[] levels) {
+		mFormat = format;
+		mWidth = width;
+		mHeight = height;
+		mLevels = levels;
+	}
+
+	/**
+	 * @return the OpenGL internal format, see {@link CompressedFormat}
+	 */
+	public int getFormat() {
+		return mFormat;
+	}
+
+	public int getWidth() {
+		return mWidth;
+	}
+
+	public int getHeight() {
+		return mHeight;
+	}
+
+	public int getNbLevels() {
+		return mLevels.length;
+	}
+
+	public int getLevelWidth(int level) {
+		return Math.max(1, mWidth >> level);
+	}
+
+	public int getLevelHeight(int level) {
+		return Math.max(1, mHeight >> level);
+	}
+
+	/**
+	 * @param level mipmap level, 0 is the full size picture
+	 * @return the compressed data of the level, position 0 and limit at the end of the data
+	 */
+	public ByteBuffer getLevel(int level) {
+		return mLevels[level].duplicate();
+	}
+
+	/**
+	 * Parses a KTX or a PKM file
+	 * @param data the whole file, from its position to its limit. Use a direct buffer to upload it to OpenGL.
+	 * @return the image
+	 * @throws IOException if the container is not recognized or is truncated
+	 */
+	public static CompressedImage parse(ByteBuffer data) throws IOException {
+		ByteBuffer buffer = data.slice();
+		if (startsWith(buffer, KTX_IDENTIFIER)) {
+			return parseKTX(buffer);
+		} else if (startsWith(buffer, PKM_IDENTIFIER)) {
+			return parsePKM(buffer);
+		}
+		throw new IOException("unknown compressed texture container");
+	}
+
+	/**
+	 * Reads the format and the size of a file without parsing all of it
+	 * @param header the start of a KTX or PKM file, at least {@link #HEADER_SIZE} bytes
+	 * @return an image without any level
+	 * @throws IOException if the container is not recognized
+	 */
+	public static CompressedImage parseHeader(ByteBuffer header) throws IOException {
+		ByteBuffer buffer = header.slice();
+		if (startsWith(buffer, KTX_IDENTIFIER)) {
+			check(buffer.remaining() >= KTX_HEADER_SIZE, "truncated KTX header");
+			setKTXOrder(buffer);
+			return new CompressedImage(buffer.getInt(28), buffer.getInt(36), buffer.getInt(40), new ByteBuffer[0]);
+		} else if (startsWith(buffer, PKM_IDENTIFIER)) {
+			check(buffer.remaining() >= PKM_HEADER_SIZE, "truncated PKM header");
+			final int format = readPKMFormat(buffer);
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			return new CompressedImage(format, buffer.getShort(12) & 0xFFFF, buffer.getShort(14) & 0xFFFF, new ByteBuffer[0]);
+		}
+		throw new IOException("unknown compressed texture container");
+	}
+
+	/**
+	 * Reads a whole stream in a direct buffer, ready to be parsed and uploaded
+	 * @param inputStream the stream, closed by the caller
+	 * @param sizeHint    expected size in bytes, or 0 if unknown
+	 * @return a direct buffer in native order, from 0 to the size of the stream
+	 * @throws IOException if the stream can't be read
+	 */
+	public static ByteBuffer read(InputStream inputStream, int sizeHint) throws IOException {
+		ReadableByteChannel channel = Channels.newChannel(inputStream);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(sizeHint, 16 * 1024)).order(ByteOrder.nativeOrder());
+		while (true) {
+			if (!buffer.hasRemaining()) {
+				ByteBuffer bigger = ByteBuffer.allocateDirect(buffer.capacity() * 2).order(ByteOrder.nativeOrder());
+				buffer.flip();
+				bigger.put(buffer);
+				buffer = bigger;
+			}
+			if (channel.read(buffer) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static CompressedImage parseKTX(ByteBuffer buffer) throws IOException {
+		check(buffer.remaining() >= KTX_HEADER_SIZE, "truncated KTX header");
+		setKTXOrder(buffer);
+		final int glType = buffer.getInt(16);
+		final int glFormat = buffer.getInt(24);
+		final int internalFormat = buffer.getInt(28);
+		final int width = buffer.getInt(36);
+		final int height = buffer.getInt(40);
+		final int depth = buffer.getInt(44);
+		final int nbArrayElements = buffer.getInt(48);
+		final int nbFaces = buffer.getInt(52);
+		final int nbLevels = Math.max(1, buffer.getInt(56));
+		final int keyValueSize = buffer.getInt(60);
+		check((glType == 0) && (glFormat == 0), "KTX file is not compressed");
+		check((width > 0) && (height > 0) && (depth <= 1) && (nbArrayElements == 0) && (nbFaces == 1), "only 2D KTX textures are supported");
+		check(nbLevels <= 32, "invalid number of KTX mipmap levels");
+
+		check((keyValueSize >= 0) && (keyValueSize <= buffer.limit() - KTX_HEADER_SIZE), "truncated KTX file");
+		int position = KTX_HEADER_SIZE + keyValueSize;
+		ByteBuffer[] levels = new ByteBuffer[nbLevels];
+		for (int level = 0; level < nbLevels; ++level) {
+			// sizes compared to what remains, so that huge values can't overflow the position
+			check(position <= buffer.limit() - 4, "truncated KTX file");
+			final int imageSize = buffer.getInt(position);
+			position += 4;
+			check((imageSize >= 0) && (imageSize <= buffer.limit() - position), "truncated KTX file");
+			levels[level] = slice(buffer, position, imageSize);
+			position += (imageSize + 3) & ~3;	// mipPadding
+		}
+		return new CompressedImage(internalFormat, width, height, levels);
+	}
+
+	private static CompressedImage parsePKM(ByteBuffer buffer) throws IOException {
+		check(buffer.remaining() >= PKM_HEADER_SIZE, "truncated PKM header");
+		final int format = readPKMFormat(buffer);
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		final int paddedWidth = buffer.getShort(8) & 0xFFFF;
+		final int paddedHeight = buffer.getShort(10) & 0xFFFF;
+		final int width = buffer.getShort(12) & 0xFFFF;
+		final int height = buffer.getShort(14) & 0xFFFF;
+		check((width > 0) && (height > 0), "invalid PKM size");
+		final int blockSize = (format == CompressedFormat.ETC2_RGBA8_EAC) ? 16 : 8;
+		final long dataSize = (long) ((paddedWidth + 3) / 4) * ((paddedHeight + 3) / 4) * blockSize;	// up to 4GB for 65535x65535
+		check(PKM_HEADER_SIZE + dataSize <= buffer.limit(), "truncated PKM file");
+		ByteBuffer[] levels = { slice(buffer, PKM_HEADER_SIZE, (int) dataSize) };
+		return new CompressedImage(format, width, height, levels);
+	}
+
+	private static int readPKMFormat(ByteBuffer buffer) throws IOException {
+		final byte major = buffer.get(4);
+		if (major == '1') {
+			return CompressedFormat.ETC1_RGB8;
+		}
+		check(major == '2', "unknown PKM version");
+		final int type = ((buffer.get(6) & 0xFF) << 8) | (buffer.get(7) & 0xFF);
+		switch (type) {
+			case PKM_ETC1_RGB:
+				return CompressedFormat.ETC1_RGB8;
+			case PKM_ETC2_RGB:
+				return CompressedFormat.ETC2_RGB8;
+			case PKM_ETC2_RGBA:
+				return CompressedFormat.ETC2_RGBA8_EAC;
+			case PKM_ETC2_RGBA1:
+				return CompressedFormat.ETC2_RGB8_PUNCHTHROUGH_ALPHA1;
+			default:
+				throw new IOException("unsupported PKM data type " + type);
+		}
+	}
+
+	private static void setKTXOrder(ByteBuffer buffer) throws IOException {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		final int endianness = buffer.getInt(12);
+		if (endianness != KTX_ENDIANNESS) {
+			check(Integer.reverseBytes(endianness) == KTX_ENDIANNESS, "invalid KTX endianness");
+			buffer.order(ByteOrder.BIG_ENDIAN);
+		}
+	}
+
+	private static boolean startsWith(ByteBuffer buffer, byte[] identifier) {
+		if (buffer.remaining() < identifier.length) {
+			return false;
+		}
+		for (int i = 0; i < identifier.length; ++i) {
+			if (buffer.get(i) != identifier[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int position, int size) {
+		ByteBuffer view = buffer.duplicate();
+		view.limit(position + size);
+		view.position(position);
+		return view.slice();
+	}
+
+	private static void check(boolean condition, String message) throws IOException {
+		if (!condition) {
+			throw new IOException(message);
+		}
+	}
+}
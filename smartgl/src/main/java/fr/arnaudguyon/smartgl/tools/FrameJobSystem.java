@@ -0,0 +1,218 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a job over a range of indices on several threads, and returns when the whole range is done.
+ * The range is cut in chunks that the threads claim one after the other, so that a thread which finishes early
+ * takes more chunks (work stealing from a shared queue). The calling thread works too.
+ * Worker threads are started once and sleep between jobs, and nothing is allocated per job.
+ * Pure Java (no Android dependency) so that it can be tested and benchmarked on a desktop JVM.
+ */
+public class FrameJobSystem {
+
+	/**
+	 * Part of a job. Called concurrently for different ranges, so it must only modify what belongs to its range.
+	 */
+	public interface RangeJob {
+		void run(int from, int to);
+	}
+
+	private final Thread[] mWorkers;
+	private final Object mLock = new Object();
+	private final AtomicInteger mNextChunk = new AtomicInteger();
+	private volatile boolean mSerial;
+
+	// current job, guarded by mLock
+	private RangeJob mJob;
+	private int mCount;
+	private int mChunkSize;
+	private int mGeneration;
+	private int mActiveWorkers;
+	private boolean mShutdown;
+	private Throwable mError;
+
+	/**
+	 * Creates one worker thread per core but one, the calling thread being the last worker
+	 */
+	public FrameJobSystem() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param parallelism number of threads working on a job, including the calling thread. 1 runs everything serially.
+	 */
+	public FrameJobSystem(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("invalid parallelism " + parallelism);
+		}
+		mWorkers = new Thread[parallelism - 1];
+		for (int i = 0; i < mWorkers.length; ++i) {
+			Thread worker = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					workerLoop();
+				}
+			}, "FrameJob-" + (i + 1));
+			worker.setDaemon(true);
+			worker.start();
+			mWorkers[i] = worker;
+		}
+	}
+
+	public int getParallelism() {
+		return mSerial ? 1 : (mWorkers.length + 1);
+	}
+
+	/**
+	 * Serial mode runs the jobs on the calling thread only, to debug or compare with the parallel mode
+	 * @param serial true to stop using the worker threads
+	 */
+	public void setSerial(boolean serial) {
+		mSerial = serial;
+	}
+
+	public boolean isSerial() {
+		return mSerial;
+	}
+
+	/**
+	 * Runs a job over [0, count[ and waits for the end. An exception thrown by the job is thrown again here.
+	 * Not reentrant: jobs can't start other jobs.
+	 * @param count     number of indices
+	 * @param chunkSize number of indices per chunk, large enough so that a chunk takes some microseconds
+	 * @param job       the job
+	 */
+	public void run(int count, int chunkSize, RangeJob job) {
+		if (count <= 0) {
+			return;
+		}
+		if (chunkSize < 1) {
+			chunkSize = 1;
+		}
+		if (mSerial || (mWorkers.length == 0) || (count <= chunkSize)) {
+			job.run(0, count);
+			return;
+		}
+		synchronized (mLock) {
+			if (mShutdown) {
+				throw new IllegalStateException("FrameJobSystem already shut down");
+			}
+			mJob = job;
+			mCount = count;
+			mChunkSize = chunkSize;
+			mError = null;
+			mNextChunk.set(0);
+			++mGeneration;
+			mLock.notifyAll();
+		}
+		try {
+			runChunks(job, count, chunkSize);
+		} finally {
+			Throwable error;
+			boolean interrupted = false;
+			synchronized (mLock) {
+				while (mActiveWorkers > 0) {
+					try {
+						mLock.wait();
+					} catch (InterruptedException e) {
+						interrupted = true;		// the workers must finish anyway
+					}
+				}
+				mJob = null;
+				error = mError;
+				mError = null;
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			} else if (error instanceof Error) {
+				throw (Error) error;
+			} else if (error != null) {
+				throw new RuntimeException(error);
+			}
+		}
+	}
+
+	/**
+	 * Stops the worker threads. The jobs run serially afterwards.
+	 */
+	public void shutdown() {
+		synchronized (mLock) {
+			mShutdown = true;
+			mLock.notifyAll();
+		}
+		mSerial = true;
+	}
+
+	private void runChunks(RangeJob job, int count, int chunkSize) {
+		final int nbChunks = (count + chunkSize - 1) / chunkSize;
+		int chunk;
+		while ((chunk = mNextChunk.getAndIncrement()) < nbChunks) {
+			final int from = chunk * chunkSize;
+			job.run(from, Math.min(from + chunkSize, count));
+		}
+	}
+
+	private void workerLoop() {
+		int generation = 0;
+		while (true) {
+			RangeJob job;
+			int count;
+			int chunkSize;
+			synchronized (mLock) {
+				while (!mShutdown && (mGeneration == generation)) {
+					try {
+						mLock.wait();
+					} catch (InterruptedException e) {
+						// only stopped by shutdown()
+					}
+				}
+				if (mShutdown) {
+					return;
+				}
+				generation = mGeneration;
+				job = mJob;
+				if (job == null) {
+					continue;   // woke up after the end of the job
+				}
+				count = mCount;
+				chunkSize = mChunkSize;
+				++mActiveWorkers;
+			}
+			try {
+				runChunks(job, count, chunkSize);
+			} catch (Throwable error) {
+				synchronized (mLock) {
+					if (mError == null) {
+						mError = error;
+					}
+				}
+				mNextChunk.set(Integer.MAX_VALUE / 2);	// no need to run the other chunks
+			} finally {
+				synchronized (mLock) {
+					if (--mActiveWorkers == 0) {
+						mLock.notifyAll();
+					}
+				}
+			}
+		}
+	}
+}
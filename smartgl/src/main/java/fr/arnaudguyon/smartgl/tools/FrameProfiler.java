@@ -0,0 +1,275 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Records the timings (in nanoseconds) and the counters of each frame in ring buffers allocated once,
+ * and gives their percentiles over the last frames. Disabled by default: the renderer then only tests a boolean.
+ * The recording is done by the OpenGL thread. The results can be read from any thread.
+ * Pure Java (no Android dependency) so that it can be tested and benchmarked on a desktop JVM.
+ */
+public class FrameProfiler {
+
+	// Timings, in nanoseconds
+	public static final int FRAME = 0;				// the whole onDrawFrame
+	public static final int PRE_RENDER = 1;			// scene mutations, onTick, camera and onPreRender
+	public static final int TICK = 2;				// tick and culling of the objects
+	public static final int SUBMISSION = 3;			// faces collected, sorted and sent to OpenGL, without the ticks
+	public static final int SCREENSHOT = 4;
+	// Counters
+	public static final int DRAW_CALLS = 5;
+	public static final int VERTICES = 6;
+	public static final int TEXTURE_BINDS = 7;
+	public static final int PROGRAM_SWITCHES = 8;
+	public static final int UNIFORM_UPLOADS = 9;
+	private static final int NB_METRICS = 10;
+
+	private static final String[] METRIC_NAMES = {"frame", "pre render", "tick", "submission", "screenshot",
+			"draw calls", "vertices", "texture binds", "program switches", "uniform uploads"};
+
+	public static final int MAX_PASSES = 8;		// passes after this one are only counted in the frame
+	public static final int DEFAULT_CAPACITY = 240;
+
+	private final int mCapacity;
+	private final long[][] mSamples;			// [metric][frame % capacity]
+	private final long[][] mPassSamples;		// [pass][frame % capacity]
+	private final long[] mSorted;
+	private long mNbFrames;
+	private volatile boolean mEnabled;
+
+	// frame being recorded, OpenGL thread only
+	private boolean mRecording;
+	private final long[] mCurrent = new long[NB_METRICS];
+	private final long[] mCurrentPasses = new long[MAX_PASSES];
+	private long mFrameStart;
+	private long mTickAtPassStart;
+
+	public FrameProfiler() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity number of frames kept for the percentiles
+	 */
+	public FrameProfiler(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("invalid capacity " + capacity);
+		}
+		mCapacity = capacity;
+		mSamples = new long[NB_METRICS][capacity];
+		mPassSamples = new long[MAX_PASSES][capacity];
+		mSorted = new long[capacity];
+	}
+
+	/**
+	 * Takes effect at the beginning of the next frame
+	 * @param enabled true to record the frames
+	 */
+	public void setEnabled(boolean enabled) {
+		mEnabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return mEnabled;
+	}
+
+	public int getCapacity() {
+		return mCapacity;
+	}
+
+	/**
+	 * Starts recording a frame if the profiler is enabled
+	 */
+	public void beginFrame() {
+		mRecording = mEnabled;
+		if (!mRecording) {
+			return;
+		}
+		Arrays.fill(mCurrent, 0);
+		Arrays.fill(mCurrentPasses, 0);
+		mFrameStart = System.nanoTime();
+	}
+
+	/**
+	 * @return the start time to give to end(), 0 if the frame is not recorded
+	 */
+	public long start() {
+		return mRecording ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Adds the time elapsed since start() to a timing
+	 * @param metric FRAME, PRE_RENDER, TICK, SUBMISSION or SCREENSHOT
+	 * @param start  the value returned by start()
+	 */
+	public void end(int metric, long start) {
+		if (mRecording) {
+			mCurrent[metric] += System.nanoTime() - start;
+		}
+	}
+
+	public long startPass() {
+		mTickAtPassStart = mCurrent[TICK];
+		return start();
+	}
+
+	/**
+	 * Records the time of a pass. The ticks done during the pass are counted in TICK, the rest in SUBMISSION.
+	 * @param passIndex index of the pass in the renderer, from 0
+	 * @param start     the value returned by startPass()
+	 */
+	public void endPass(int passIndex, long start) {
+		if (!mRecording) {
+			return;
+		}
+		final long duration = System.nanoTime() - start;
+		if (passIndex < MAX_PASSES) {
+			mCurrentPasses[passIndex] += duration;
+		}
+		mCurrent[SUBMISSION] += duration - (mCurrent[TICK] - mTickAtPassStart);
+	}
+
+	/**
+	 * @param metric a counter, like DRAW_CALLS
+	 * @param value  added to the counter of the frame
+	 */
+	public void count(int metric, long value) {
+		if (mRecording) {
+			mCurrent[metric] += value;
+		}
+	}
+
+	public void countDrawCall(int nbVertices) {
+		if (mRecording) {
+			++mCurrent[DRAW_CALLS];
+			mCurrent[VERTICES] += nbVertices;
+		}
+	}
+
+	/**
+	 * Forgets the frame being recorded, for a frame which is not drawn
+	 */
+	public void cancelFrame() {
+		mRecording = false;
+	}
+
+	/**
+	 * Stores the frame in the ring buffers
+	 */
+	public void endFrame() {
+		if (!mRecording) {
+			return;
+		}
+		mRecording = false;
+		mCurrent[FRAME] = System.nanoTime() - mFrameStart;
+		synchronized (this) {
+			final int slot = (int) (mNbFrames % mCapacity);
+			for (int metric = 0; metric < NB_METRICS; ++metric) {
+				mSamples[metric][slot] = mCurrent[metric];
+			}
+			for (int pass = 0; pass < MAX_PASSES; ++pass) {
+				mPassSamples[pass][slot] = mCurrentPasses[pass];
+			}
+			++mNbFrames;
+		}
+	}
+
+	/**
+	 * @return the number of frames recorded since the creation or the last reset
+	 */
+	public synchronized long getNbFrames() {
+		return mNbFrames;
+	}
+
+	public synchronized void reset() {
+		mNbFrames = 0;
+	}
+
+	/**
+	 * @param metric a timing or a counter
+	 * @param age    0 for the last recorded frame, 1 for the one before...
+	 * @return the value, 0 if this frame is not recorded
+	 */
+	public synchronized long getSample(int metric, int age) {
+		if ((age < 0) || (age >= mCapacity) || (age >= mNbFrames)) {
+			return 0;
+		}
+		return mSamples[metric][(int) ((mNbFrames - 1 - age) % mCapacity)];
+	}
+
+	/**
+	 * @param metric     a timing or a counter
+	 * @param percentile from 0 to 100, like 50, 95 or 99
+	 * @return the value of the metric under which are this percentage of the last frames, 0 if nothing is recorded
+	 */
+	public synchronized long getPercentile(int metric, int percentile) {
+		return percentile(mSamples[metric], percentile);
+	}
+
+	/**
+	 * @param passIndex  index of the pass in the renderer, from 0 to MAX_PASSES - 1
+	 * @param percentile from 0 to 100
+	 * @return the time of the pass in nanoseconds, ticks included
+	 */
+	public synchronized long getPassPercentile(int passIndex, int percentile) {
+		return percentile(mPassSamples[passIndex], percentile);
+	}
+
+	// Nearest rank, sorted in a buffer allocated once
+	private long percentile(long[] samples, int percentile) {
+		final int count = (int) Math.min(mNbFrames, mCapacity);
+		if (count == 0) {
+			return 0;
+		}
+		System.arraycopy(samples, 0, mSorted, 0, count);
+		Arrays.sort(mSorted, 0, count);
+		int rank = (int) Math.ceil(count * Math.max(0, Math.min(100, percentile)) / 100.0) - 1;
+		return mSorted[Math.max(0, rank)];
+	}
+
+	/**
+	 * @return p50 / p95 / p99 of every metric over the last frames, the timings in milliseconds. Allocates.
+	 */
+	public synchronized String getReport() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(Math.min(mNbFrames, mCapacity)).append(" frames, p50 / p95 / p99\n");
+		for (int metric = 0; metric < NB_METRICS; ++metric) {
+			builder.append(METRIC_NAMES[metric]).append(": ");
+			appendPercentiles(builder, mSamples[metric], metric < DRAW_CALLS);
+		}
+		for (int pass = 0; pass < MAX_PASSES; ++pass) {
+			if (percentile(mPassSamples[pass], 100) > 0) {
+				builder.append("pass ").append(pass).append(": ");
+				appendPercentiles(builder, mPassSamples[pass], true);
+			}
+		}
+		return builder.toString();
+	}
+
+	private void appendPercentiles(StringBuilder builder, long[] samples, boolean isTime) {
+		final long p50 = percentile(samples, 50);
+		final long p95 = percentile(samples, 95);
+		final long p99 = percentile(samples, 99);
+		if (isTime) {
+			builder.append(String.format(Locale.US, "%.2f / %.2f / %.2f ms\n", p50 / 1e6, p95 / 1e6, p99 / 1e6));
+		} else {
+			builder.append(p50).append(" / ").append(p95).append(" / ").append(p99).append('\n');
+		}
+	}
+}
@@ -0,0 +1,268 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Lightweight tracing of spans (begin / end on the same thread) and counters, to see where the loading time
+ * and the hitches come from. Disabled by default: each call then only tests a static boolean.
+ * When enabled, the events are stored in a ring buffer allocated once, exportable as a Chrome trace JSON
+ * (chrome://tracing, ui.perfetto.dev). On Android, they are also forwarded to android.os.Trace, so they show up
+ * in systrace / Perfetto captures next to the system events.
+ * The names must be constant strings: they are kept as references, not copied.
+ * Works on a desktop JVM, where nothing is forwarded.
+ */
+public final class Tracer {
+
+	private static final int BEGIN = 0;
+	private static final int END = 1;
+	private static final int COUNTER = 2;
+
+	public static final int DEFAULT_CAPACITY = 16384;
+
+	private static boolean sEnabled;		// not volatile: read on every call, visible to the other threads soon enough
+	private static boolean sSystrace = "Dalvik".equals(System.getProperty("java.vm.name"));	// Dalvik and ART
+
+	// Ring buffer, written by any thread: a slot is claimed with the cursor, then filled
+	private static final class Events {
+		final AtomicLong mCursor = new AtomicLong();
+		final int mCapacity;
+		final long[] mTimes;
+		final long[] mValues;
+		final long[] mThreads;
+		final byte[] mTypes;
+		final String[] mNames;
+
+		Events(int capacity) {
+			mCapacity = capacity;
+			mTimes = new long[capacity];
+			mValues = new long[capacity];
+			mThreads = new long[capacity];
+			mTypes = new byte[capacity];
+			mNames = new String[capacity];
+		}
+	}
+
+	private static volatile Events sEvents;
+
+	private Tracer() {
+	}
+
+	/**
+	 * @param enabled true to record the events, with a buffer of DEFAULT_CAPACITY events
+	 */
+	public static void setEnabled(boolean enabled) {
+		setEnabled(enabled, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param enabled  true to record the events
+	 * @param capacity number of events kept, the oldest ones are overwritten
+	 */
+	public static synchronized void setEnabled(boolean enabled, int capacity) {
+		if (enabled && ((sEvents == null) || (sEvents.mCapacity != capacity))) {
+			if (capacity <= 0) {
+				throw new IllegalArgumentException("invalid capacity " + capacity);
+			}
+			sEvents = new Events(capacity);
+		}
+		sEnabled = enabled;
+	}
+
+	public static boolean isEnabled() {
+		return sEnabled;
+	}
+
+	/**
+	 * @param systrace true to forward the events to android.os.Trace. True by default on Android.
+	 */
+	public static void setSystrace(boolean systrace) {
+		sSystrace = systrace;
+	}
+
+	/**
+	 * Starts a span on the current thread. Must be followed by end() on the same thread.
+	 * @param name constant name of the span
+	 */
+	public static void begin(String name) {
+		if (!sEnabled) {
+			return;
+		}
+		record(BEGIN, name, 0);
+		if (sSystrace) {
+			Systrace.begin(name);
+		}
+	}
+
+	/**
+	 * Ends the last span started on the current thread
+	 */
+	public static void end() {
+		if (!sEnabled) {
+			return;
+		}
+		record(END, null, 0);
+		if (sSystrace) {
+			Systrace.end();
+		}
+	}
+
+	/**
+	 * Records the value of a counter, like a number of vertices or a memory size
+	 * @param name  constant name of the counter
+	 * @param value the value
+	 */
+	public static void counter(String name, long value) {
+		if (!sEnabled) {
+			return;
+		}
+		record(COUNTER, name, value);
+		if (sSystrace) {
+			Systrace.counter(name, value);
+		}
+	}
+
+	private static void record(int type, String name, long value) {
+		final Events events = sEvents;
+		if (events == null) {
+			return;
+		}
+		final int slot = (int) (events.mCursor.getAndIncrement() % events.mCapacity);
+		events.mTimes[slot] = System.nanoTime();
+		events.mValues[slot] = value;
+		events.mThreads[slot] = Thread.currentThread().getId();
+		events.mTypes[slot] = (byte) type;
+		events.mNames[slot] = name;
+	}
+
+	/**
+	 * Forgets the recorded events
+	 */
+	public static synchronized void clear() {
+		final Events events = sEvents;
+		if (events != null) {
+			events.mCursor.set(0);
+		}
+	}
+
+	/**
+	 * @return the recorded events in the Chrome trace event format. Allocates.
+	 */
+	public static String exportChromeTrace() {
+		StringWriter writer = new StringWriter();
+		try {
+			exportChromeTrace(writer);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);	// StringWriter doesn't throw
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Writes the recorded events in the Chrome trace event format, oldest first. Better called while nothing is
+	 * traced: events recorded during the export may be incomplete.
+	 * @param writer the destination, not closed
+	 */
+	public static synchronized void exportChromeTrace(Writer writer) throws IOException {
+		writer.write("{\"traceEvents\":[");
+		final Events events = sEvents;
+		if (events != null) {
+			final long end = events.mCursor.get();
+			final long start = Math.max(0, end - events.mCapacity);
+			boolean first = true;
+			for (long i = start; i < end; ++i) {
+				final int slot = (int) (i % events.mCapacity);
+				if (!first) {
+					writer.write(',');
+				}
+				first = false;
+				writeEvent(writer, events, slot);
+			}
+		}
+		writer.write("]}");
+	}
+
+	private static void writeEvent(Writer writer, Events events, int slot) throws IOException {
+		final int type = events.mTypes[slot];
+		writer.write("\n{\"ph\":\"");
+		writer.write((type == BEGIN) ? "B" : ((type == END) ? "E" : "C"));
+		writer.write("\",\"pid\":1,\"tid\":");
+		writer.write(Long.toString(events.mThreads[slot]));
+		writer.write(",\"ts\":");
+		writer.write(Double.toString(events.mTimes[slot] / 1000.0));	// microseconds
+		if (type != END) {
+			writer.write(",\"name\":\"");
+			writeEscaped(writer, events.mNames[slot]);
+			writer.write('"');
+		}
+		if (type == COUNTER) {
+			writer.write(",\"args\":{\"value\":");
+			writer.write(Long.toString(events.mValues[slot]));
+			writer.write('}');
+		}
+		writer.write('}');
+	}
+
+	private static void writeEscaped(Writer writer, String name) throws IOException {
+		if (name == null) {
+			return;
+		}
+		for (int i = 0; i < name.length(); ++i) {
+			final char c = name.charAt(i);
+			if ((c == '"') || (c == '\\')) {
+				writer.write('\\');
+				writer.write(c);
+			} else if (c < ' ') {
+				writer.write(' ');
+			} else {
+				writer.write(c);
+			}
+		}
+	}
+
+	// Only loaded when the events are forwarded, so that the Tracer also works without the Android classes
+	private static final class Systrace {
+
+		private static final int MIN_SDK_SECTIONS = 18;		// Trace.beginSection
+		private static final int MIN_SDK_COUNTERS = 29;		// Trace.setCounter
+		private static final int SDK = Build.VERSION.SDK_INT;
+
+		static void begin(String name) {
+			if (SDK >= MIN_SDK_SECTIONS) {
+				Trace.beginSection(name);
+			}
+		}
+
+		static void end() {
+			if (SDK >= MIN_SDK_SECTIONS) {
+				Trace.endSection();
+			}
+		}
+
+		static void counter(String name, long value) {
+			if (SDK >= MIN_SDK_COUNTERS) {
+				Trace.setCounter(name, value);
+			}
+		}
+	}
+}
@@ -16,9 +16,9 @@
 package fr.arnaudguyon.smartgl.tools;
 
 import android.content.Context;
-import android.util.Log;
 
 import androidx.annotation.FloatRange;
+import androidx.annotation.NonNull;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -48,7 +48,9 @@ public class WavefrontModel {
     public static class Builder {
         private Context mContext;
         private int mRawResourceId;
+        private InputStream mInputStream;
         private boolean mOptimizeModel = true;
+        private boolean mUseBufferObjects = false;
         private HashMap<String, Texture> mTextures = new HashMap<>();
         private float[] mColor = {1,1,1};
 
@@ -56,10 +58,28 @@ public class WavefrontModel {
             mContext = context;
             mRawResourceId = rawFileResourceId;
         }
+
+        /**
+         * Reads the model from a stream instead of a raw resource, for example a file or an asset
+         * @param inputStream the content of the file, read by create() and not closed
+         */
+        public Builder(@NonNull InputStream inputStream) {
+            mInputStream = inputStream;
+        }
         public Builder optimize(boolean optimizeModel) {
             mOptimizeModel = optimizeModel;
             return this;
         }
+        /**
+         * Uploads the geometry once to GPU Buffer Objects (VBO) instead of sending it at every frame.
+         * Recommended for static models, especially big ones.
+         * @param useBufferObjects true to use Buffer Objects
+         * @return the Builder
+         */
+        public Builder useBufferObjects(boolean useBufferObjects) {
+            mUseBufferObjects = useBufferObjects;
+            return this;
+        }
         public Builder addTexture(String textureName, Texture texture) {
             mTextures.put(textureName, texture);
             return this;
@@ -73,12 +93,19 @@ public class WavefrontModel {
 
         public WavefrontModel create() {
             WavefrontModel wavefront = new WavefrontModel();
-            wavefront.loadObject(mContext, mRawResourceId);
-            if (mOptimizeModel) {
-                wavefront.mergeStrips();
+            Tracer.begin("WavefrontModel.load");
+            try {
+                InputStream inputStream = (mInputStream != null) ? mInputStream : mContext.getResources().openRawResource(mRawResourceId);
+                wavefront.loadObject(inputStream);
+                if (mOptimizeModel) {
+                    wavefront.mergeStrips();
+                }
+            } finally {
+                Tracer.end();
             }
             wavefront.mTextures = mTextures;
             wavefront.mColor = mColor;
+            wavefront.mUseBufferObjects = mUseBufferObjects;
             return wavefront;
         }
 
@@ -172,12 +199,12 @@ public class WavefrontModel {
     private ArrayList<Strip> mStrips = new ArrayList<>();
     private HashMap<String, Texture> mTextures = new HashMap<>();
     private float[] mColor;
+    private boolean mUseBufferObjects;
 
     private WavefrontModel() {
     }
 
-    private void loadObject(Context context, int rawResId) throws RuntimeException {
-        InputStream inputStream = context.getResources().openRawResource(rawResId);
+    private void loadObject(InputStream inputStream) throws RuntimeException {
         BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream));
         String line;
         try {
@@ -285,7 +312,7 @@ public class WavefrontModel {
             }
         }
 
-        Log.i("DONE", "DONE");
+        Tracer.counter("WavefrontModel.vertices", mVertex.size());
     }
 
     private void addFaceStrips(int lineNumber, String materialName, String[] elements, int offsetStart, int numberOfVertex) {
@@ -369,6 +396,15 @@ public class WavefrontModel {
      * @return an Object3D
      */
     public Object3D toObject3D() {
+        Tracer.begin("WavefrontModel.toObject3D");
+        try {
+            return buildObject3D();
+        } finally {
+            Tracer.end();
+        }
+    }
+
+    private Object3D buildObject3D() {
 
         final boolean hasUV = (mUVs.size() > 0);
         final boolean hasNormals = (mNormals.size() > 0);
@@ -442,6 +478,9 @@ public class WavefrontModel {
 
             object3D.addFace(face3D);
         }
+        if (mUseBufferObjects) {
+            object3D.setUseBufferObjects(true);
+        }
         return object3D;
     }
 
@@ -0,0 +1,85 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.touch;
+
+/**
+ * Ring buffer of TouchHelperEvent allocated once, from the UI thread (the only producer) to the OpenGL thread
+ * (the only consumer). Without lock: each index is written by one thread only, the volatile writes publish the events.
+ * The events are filled in place in their slot, and reused once released by the consumer.
+ */
+/* package */ final class TouchEventQueue {
+
+	private final TouchHelperEvent[] mEvents;
+	private final int mMask;
+	private volatile int mHead;		// next event to read, written by the consumer
+	private volatile int mTail;		// next slot to fill, written by the producer
+
+	/**
+	 * @param capacity power of 2
+	 */
+	TouchEventQueue(int capacity) {
+		if ((capacity <= 0) || ((capacity & (capacity - 1)) != 0)) {
+			throw new IllegalArgumentException("capacity must be a power of 2: " + capacity);
+		}
+		mEvents = new TouchHelperEvent[capacity];
+		for (int i = 0; i < capacity; ++i) {
+			mEvents[i] = new TouchHelperEvent();
+		}
+		mMask = capacity - 1;
+	}
+
+	// Producer
+
+	/**
+	 * @param reserve number of slots to keep free, for the events more important than this one
+	 * @return the slot to fill, then to publish, or null if the queue is full
+	 */
+	TouchHelperEvent obtain(int reserve) {
+		final int tail = mTail;
+		if (tail - mHead > mMask - reserve) {
+			return null;
+		}
+		return mEvents[tail & mMask];
+	}
+
+	/**
+	 * Makes the slot returned by obtain() visible to the consumer
+	 */
+	void publish() {
+		mTail = mTail + 1;
+	}
+
+	// Consumer
+
+	/**
+	 * @param offset 0 for the next event, 1 for the one after...
+	 * @return the event, or null if it is not published yet
+	 */
+	TouchHelperEvent peek(int offset) {
+		final int head = mHead;
+		if (mTail - head <= offset) {
+			return null;
+		}
+		return mEvents[(head + offset) & mMask];
+	}
+
+	/**
+	 * Gives the next event back to the producer
+	 */
+	void release() {
+		mHead = mHead + 1;
+	}
+}
@@ -118,6 +118,15 @@ class TouchFingerInfo {
 	final void move(float x, float y) {
 		mXMove = x;
 		mYMove = y;
+		if (mLongPressDate > 0) {	// every sample counts, not only the position seen by checkLongPress
+			float dx = x - mXTouch;
+			float dy = y - mYTouch;
+			dx = (dx >= 0) ? dx : -dx;
+			dy = (dy >= 0) ? dy : -dy;
+			if ((dx >= LONGPRESS_TOLERENCE_DISTANCE) || (dy >= LONGPRESS_TOLERENCE_DISTANCE)) {
+				mLongPressDate = 0;
+			}
+		}
 	}
 
 	private final void handleTap(TouchHelper touchHelper) {
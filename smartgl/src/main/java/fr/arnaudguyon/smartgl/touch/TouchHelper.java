@@ -25,8 +25,14 @@ import android.view.View;
 public class TouchHelper {
 	
 	private static final String TAG = "TouchHelper";
-
-	private Vector<TouchHelperEvent> mEvents;
+	private static final int QUEUE_CAPACITY = 128;	// events waiting for the next frame, moves included
+	private static final int MOVE_RESERVE = 16;		// slots that the moves can't take, so that the touch / untouch are not lost
+
+	private final TouchEventQueue mQueue;			// UI thread -> OpenGL thread
+	private final TouchHelperEvent mDroppedEvent;	// filled when the queue is full, never sent
+	private final TouchHelperEvent mLongPressEvent;	// detected on the OpenGL thread
+	private boolean mLongPress;
+	private boolean mEventInUse;					// the event returned by getNextEvent, released at the next call
 	private Vector<TouchFingerInfo> mFingerInfos;
 	private int[] mViewOffset;
 	private VelocityTracker mVelocityTracker;
@@ -34,7 +40,9 @@ public class TouchHelper {
 	private float mMinimumFlingVelocity = Float.MIN_VALUE;
 
 	public TouchHelper() {
-		mEvents = new Vector<>();
+		mQueue = new TouchEventQueue(QUEUE_CAPACITY);
+		mDroppedEvent = new TouchHelperEvent();
+		mLongPressEvent = new TouchHelperEvent();
 		mFingerInfos = new Vector<>();
 		mViewOffset = new int[2];
 	}
@@ -44,27 +52,59 @@ public class TouchHelper {
 	//		mFingerInfos.clear();
 	//	}
 
+	/**
+	 * To call from the OpenGL thread. Several moves in a row are merged: only the last one is returned.
+	 * @return the next event, valid until the next call, or null if there is none
+	 */
 	public TouchHelperEvent getNextEvent() {
-		synchronized (this) {
-			if (mEvents.size() > 0) {
-				TouchHelperEvent result = mEvents.get(0);
-				mEvents.remove(0);
-				return result;
-			} else {
+		if (mEventInUse) {
+			mEventInUse = false;
+			mQueue.release();
+		}
+		TouchHelperEvent event = mQueue.peek(0);
+		if (event == null) {
+			synchronized (this) {	// state of the fingers, shared with the UI thread
 				checkLongPress();
 			}
+			if (mLongPress) {
+				mLongPress = false;
+				return mLongPressEvent;
+			}
+			return null;
 		}
-		return null;
+		if ((event.getType() == TouchHelperEvent.TouchEventType.SINGLEMOVE) || (event.getType() == TouchHelperEvent.TouchEventType.MULTIMOVE)) {
+			TouchHelperEvent next = mQueue.peek(1);
+			while ((next != null) && (next.getType() == event.getType())) {
+				mQueue.release();
+				event = next;
+				next = mQueue.peek(1);
+			}
+		}
+		mEventInUse = true;
+		return event;
+	}
+
+	// UI thread: the slot of the next event, to give to addEvent once filled.
+	// If the OpenGL thread is stalled, the moves are dropped first: the next ones will give the new positions.
+	private TouchHelperEvent obtainEvent(boolean isMove) {
+		TouchHelperEvent event = mQueue.obtain(isMove ? MOVE_RESERVE : 0);
+		if (event == null) {
+			Log.w(TAG, "touch event dropped, the OpenGL thread doesn't consume the events");
+			return mDroppedEvent;
+		}
+		return event;
 	}
 
 	private void addEvent(TouchHelperEvent event) {
-		synchronized (this) {
-			mEvents.add(event);
+		if (event != mDroppedEvent) {
+			mQueue.publish();
 		}
 	}
 
 	public void cancelLongPressEvents() {
-		cancelLongPressDates();
+		synchronized (this) {
+			cancelLongPressDates();
+		}
 	}
 
 	private void checkLongPress() {
@@ -98,9 +138,10 @@ public class TouchHelper {
 		}
 	}
 
+	// OpenGL thread, from getNextEvent
 	void longPress(int finger, float x, float y) {
-		TouchHelperEvent myEvent = new TouchHelperEvent(TouchHelperEvent.TouchEventType.LONGPRESS, x, y, x, y, finger);
-		addEvent(myEvent);
+		mLongPressEvent.set(TouchHelperEvent.TouchEventType.LONGPRESS, x, y, x, y, finger);
+		mLongPress = true;
 	}
 
     private float xFromView(View view, float x) {
@@ -114,6 +155,17 @@ public class TouchHelper {
         return y;
     }
 
+	// The batched samples of a move (high rate digitizers) only update the finger, read from the MotionEvent without copy.
+	// Only the last position is sent, but the long press is cancelled if any of them went too far.
+	private void moveHistory(View view, MotionEvent event, int pointerIndex, TouchFingerInfo fingerInfo, boolean fromOtherView) {
+		final int historySize = event.getHistorySize();
+		for (int historyIt = 0; historyIt < historySize; ++historyIt) {
+			float x = event.getHistoricalX(pointerIndex, historyIt);
+			float y = event.getHistoricalY(pointerIndex, historyIt);
+			fingerInfo.move(fromOtherView ? xFromView(view, x) : x, fromOtherView ? yFromView(view, y) : y);
+		}
+	}
+
 	private float normalizedX(View view, float x) {
 		if (view != null) {
 			view.getLocationOnScreen(mViewOffset);
@@ -141,6 +193,9 @@ public class TouchHelper {
 		return y;
 	}
 
+	/**
+	 * To call from the UI thread only: it is the single producer of the events read by getNextEvent
+	 */
 	public void onTouchEvent(View view, MotionEvent event, boolean fromOtherView) {
 		synchronized (this) {
 
@@ -170,7 +225,8 @@ public class TouchHelper {
 				mFingerInfos.clear();
 				TouchFingerInfo fingerInfo = new TouchFingerInfo(x, y, finger);
 				addFingerInfo(fingerInfo);
-				TouchHelperEvent myEvent = new TouchHelperEvent(TouchHelperEvent.TouchEventType.SINGLETOUCH, x, y, x, y, finger);
+				TouchHelperEvent myEvent = obtainEvent(false);
+				myEvent.set(TouchHelperEvent.TouchEventType.SINGLETOUCH, x, y, x, y, finger);
 				addEvent(myEvent);
 			}
 				break;
@@ -181,7 +237,8 @@ public class TouchHelper {
 				//Log.i(TAG, "ACTION UP OR CANCEL");
 				TouchFingerInfo fingerInfo = getFingerInfo(finger);
 				if (fingerInfo == null) {
-					TouchHelperEvent myEvent = new TouchHelperEvent(TouchHelperEvent.TouchEventType.SINGLEUNTOUCH, x, y, x, y, finger);
+					TouchHelperEvent myEvent = obtainEvent(false);
+					myEvent.set(TouchHelperEvent.TouchEventType.SINGLEUNTOUCH, x, y, x, y, finger);
 					addEvent(myEvent);
 				} else {
 					// fling event
@@ -192,14 +249,16 @@ public class TouchHelper {
 					final float velocityX = velocityTracker.getXVelocity(pointerId);
 
 					if ((Math.abs(velocityY) > mMinimumFlingVelocity) || (Math.abs(velocityX) > mMinimumFlingVelocity)) {
-						TouchHelperEvent myFlingEvent = new TouchHelperEvent(TouchHelperEvent.TouchEventType.FLING, fingerInfo.getXTouch(), fingerInfo.getYTouch(), x, y, velocityX, velocityY, finger);
+						TouchHelperEvent myFlingEvent = obtainEvent(false);
+						myFlingEvent.set(TouchHelperEvent.TouchEventType.FLING, fingerInfo.getXTouch(), fingerInfo.getYTouch(), x, y, velocityX, velocityY, finger);
 						addEvent(myFlingEvent);
 					}
 					mVelocityTracker.recycle();
 					mVelocityTracker = null;
 
 					fingerInfo.unTouch(this, x, y);
-					TouchHelperEvent myEvent = new TouchHelperEvent(TouchHelperEvent.TouchEventType.SINGLEUNTOUCH, fingerInfo.getXTouch(), fingerInfo.getYTouch(), x, y, finger);
+					TouchHelperEvent myEvent = obtainEvent(false);
+					myEvent.set(TouchHelperEvent.TouchEventType.SINGLEUNTOUCH, fingerInfo.getXTouch(), fingerInfo.getYTouch(), x, y, finger);
 					addEvent(myEvent);
 				}
 				mFingerInfos.clear();
@@ -216,7 +275,8 @@ public class TouchHelper {
 					fingerInfo.touch(x, y);
 				}
 
-				TouchHelperEvent myEvent = new TouchHelperEvent(2, TouchHelperEvent.TouchEventType.MULTITOUCH);
+				TouchHelperEvent myEvent = obtainEvent(false);
+				myEvent.set(2, TouchHelperEvent.TouchEventType.MULTITOUCH);
 				int index = 0;
 
 				final int fingerInfosSize = mFingerInfos.size();
@@ -274,7 +334,8 @@ public class TouchHelper {
 				}
 				TouchFingerInfo fingerInfo = getFingerInfo(finger);
 				fingerInfo.unTouch(this, x, y);
-				TouchHelperEvent myEvent = new TouchHelperEvent(TouchHelperEvent.TouchEventType.MULTIUNTOUCH, fingerInfo.getXTouch(), fingerInfo.getYTouch(), x, y, finger);
+				TouchHelperEvent myEvent = obtainEvent(false);
+				myEvent.set(TouchHelperEvent.TouchEventType.MULTIUNTOUCH, fingerInfo.getXTouch(), fingerInfo.getYTouch(), x, y, finger);
 				addEvent(myEvent);
 			}
 				break;
@@ -283,13 +344,16 @@ public class TouchHelper {
 				boolean isSingleMove = (getNbFingersOn() <= 1);
 				if (isSingleMove) { // SINGLE MOVE
 					TouchFingerInfo fingerInfo = getFingerInfo(finger);
+					moveHistory(view, event, pointerIndex, fingerInfo, fromOtherView);
 					fingerInfo.move(x, y);
-					TouchHelperEvent myEvent = new TouchHelperEvent(TouchHelperEvent.TouchEventType.SINGLEMOVE, fingerInfo.getXTouch(), fingerInfo.getYTouch(), x, y, finger);
+					TouchHelperEvent myEvent = obtainEvent(true);
+					myEvent.set(TouchHelperEvent.TouchEventType.SINGLEMOVE, fingerInfo.getXTouch(), fingerInfo.getYTouch(), x, y, finger);
 					addEvent(myEvent);
 				} else { // MULTIPLE MOVE
 
 					// update all fingers and prepare event
-					TouchHelperEvent myEvent = new TouchHelperEvent(2, TouchHelperEvent.TouchEventType.MULTIMOVE);
+					TouchHelperEvent myEvent = obtainEvent(true);
+					myEvent.set(2, TouchHelperEvent.TouchEventType.MULTIMOVE);
 					int index = 0;
 					final int fingerInfosSize = mFingerInfos.size();
 					for (int fingerInfoIt = 0; fingerInfoIt < fingerInfosSize; ++fingerInfoIt) {
@@ -304,6 +368,7 @@ public class TouchHelper {
 //							float newY = normalizeResult ? normalizedY(view, event.getY(infoIndex)) : event.getY(infoIndex);
                             float newX = fromOtherView ? xFromView(view, event.getX(infoIndex)) : event.getX(infoIndex);
                             float newY = fromOtherView ? yFromView(view, event.getY(infoIndex)) : event.getY(infoIndex);
+							moveHistory(view, event, infoIndex, info, fromOtherView);
 							info.move(newX, newY);
 							myEvent.setValues(index, infoFinger, info.getXTouch(), info.getYTouch(), newX, newY);
 							++index;
@@ -356,7 +421,8 @@ public class TouchHelper {
 	}
 
 	void tap(int finger, float x, float y, int nbTaps) {
-		TouchHelperEvent event = new TouchHelperEvent(finger, x, y, nbTaps);
+		TouchHelperEvent event = obtainEvent(false);
+		event.setTap(finger, x, y, nbTaps);
 		addEvent(event);
 	}
 
@@ -17,8 +17,14 @@ package fr.arnaudguyon.smartgl.touch;
 
 import android.os.SystemClock;
 
+/**
+ * A touch event, given to the OpenGL thread. The events are pooled: an event is only valid during the call that
+ * receives it (like onTouchEvent), its values must be copied to be kept.
+ */
 public class TouchHelperEvent {
 
+	/* package */ static final int MAX_FINGERS = 2;
+
 	public enum TouchEventType {
 		SINGLETOUCH, SINGLEMOVE, SINGLEUNTOUCH, MULTITOUCH, MULTIMOVE, MULTIUNTOUCH, TAPPING, LONGPRESS, FLING
 	}
@@ -34,45 +40,41 @@ public class TouchHelperEvent {
 		return mType;
 	}
 
-	TouchHelperEvent(int nbFingers, TouchEventType type) {
+	// Filled in place by TouchHelper: an event is reused once it has been consumed
+	TouchHelperEvent() {
+		mRefPosX = new float[MAX_FINGERS];
+		mRefPosY = new float[MAX_FINGERS];
+		mPosX = new float[MAX_FINGERS];
+		mPosY = new float[MAX_FINGERS];
+		mVelocityX = new float[MAX_FINGERS];
+		mVelocityY = new float[MAX_FINGERS];
+		mFinger = new int[MAX_FINGERS];
+	}
+
+	void set(int nbFingers, TouchEventType type) {
 		mNbFingers = nbFingers;
 		mType = type;
-		mRefPosX = new float[nbFingers];
-		mRefPosY = new float[nbFingers];
-		mPosX = new float[nbFingers];
-		mPosY = new float[nbFingers];
-		mVelocityX = new float[nbFingers];
-		mVelocityY = new float[nbFingers];
-		mFinger = new int[nbFingers];
+		for (int index = 0; index < MAX_FINGERS; ++index) {
+			mVelocityX[index] = 0;
+			mVelocityY[index] = 0;
+		}
 		mTime = SystemClock.uptimeMillis();
 		mNbTaps = 0;
 	}
 
-	TouchHelperEvent(TouchEventType type, float xRef, float yRef, float newX, float newY, int finger) {
-		this(1, type);
-		mRefPosX[0] = xRef;
-		mRefPosY[0] = yRef;
-		mPosX[0] = newX;
-		mPosY[0] = newY;
-		mFinger[0] = finger;
+	void set(TouchEventType type, float xRef, float yRef, float newX, float newY, int finger) {
+		set(1, type);
+		setValues(0, finger, xRef, yRef, newX, newY);
 	}
 
-	TouchHelperEvent(TouchEventType type, float xRef, float yRef, float newX, float newY, float veloX, float veloY, int finger) {
-		this(1, type);
-		mRefPosX[0] = xRef;
-		mRefPosY[0] = yRef;
-		mPosX[0] = newX;
-		mPosY[0] = newY;
+	void set(TouchEventType type, float xRef, float yRef, float newX, float newY, float veloX, float veloY, int finger) {
+		set(type, xRef, yRef, newX, newY, finger);
 		mVelocityX[0] = veloX;
 		mVelocityY[0] = veloY;
-		mFinger[0] = finger;
 	}
 
-	TouchHelperEvent(int finger, float x, float y, int nbTaps) {
-		this(1, TouchEventType.TAPPING);
-		mRefPosX[0] = mPosX[0] = x;
-		mRefPosY[0] = mPosY[0] = y;
-		mFinger[0] = finger;
+	void setTap(int finger, float x, float y, int nbTaps) {
+		set(TouchEventType.TAPPING, x, y, x, y, finger);
 		mNbTaps = nbTaps;
 	}
 
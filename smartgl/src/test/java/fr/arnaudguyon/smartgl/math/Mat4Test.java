@@ -0,0 +1,279 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.math;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The expected matrices are computed by hand: the android.opengl.Matrix of the unit tests is a stub and can't be
+ * used as a reference. They are written row by row, and transposed to the column major order of Mat4.
+ */
+public class Mat4Test {
+
+    private static final float DELTA = 1e-5f;
+
+    @Test
+    public void composesTranslationOnly() {
+        float[] m = new float[16];
+        Mat4.setTRS(m, 1, 2, 3, 0, 0, 0, 1, 1, 1);
+        assertArrayEquals(rows(
+                1, 0, 0, 1,
+                0, 1, 0, 2,
+                0, 0, 1, 3,
+                0, 0, 0, 1), m, DELTA);
+    }
+
+    @Test
+    public void composesEachRotation() {
+        float[] m = new float[16];
+        Mat4.setTRS(m, 0, 0, 0, 90, 0, 0, 1, 1, 1);
+        assertArrayEquals(rows(
+                1, 0, 0, 0,
+                0, 0, -1, 0,
+                0, 1, 0, 0,
+                0, 0, 0, 1), m, DELTA);
+        Mat4.setTRS(m, 0, 0, 0, 0, 90, 0, 1, 1, 1);
+        assertArrayEquals(rows(
+                0, 0, 1, 0,
+                0, 1, 0, 0,
+                -1, 0, 0, 0,
+                0, 0, 0, 1), m, DELTA);
+        Mat4.setTRS(m, 0, 0, 0, 0, 0, 90, 1, 1, 1);
+        assertArrayEquals(rows(
+                0, -1, 0, 0,
+                1, 0, 0, 0,
+                0, 0, 1, 0,
+                0, 0, 0, 1), m, DELTA);
+    }
+
+    @Test
+    public void composesTranslateRotateScale() {
+        // translate(1, 2, 3) * rotateX(90) * rotateY(90) * scale(2, 3, 4)
+        float[] m = new float[16];
+        Mat4.setTRS(m, 1, 2, 3, 90, 90, 0, 2, 3, 4);
+        assertArrayEquals(rows(
+                0, 0, 4, 1,
+                2, 0, 0, 2,
+                0, 3, 0, 3,
+                0, 0, 0, 1), m, DELTA);
+    }
+
+    @Test
+    public void composesLikeSeparateMatrices() {
+        // the fused TRS must give the product of the separate matrices, in the order of android.opengl.Matrix
+        final float angle = 30;
+        final float cos = (float) Math.cos(Math.toRadians(angle));
+        final float sin = (float) Math.sin(Math.toRadians(angle));
+        float[] expected = rows(
+                1, 0, 0, 5,
+                0, 1, 0, -1,
+                0, 0, 1, 2,
+                0, 0, 0, 1);
+        Mat4.multiply(expected, expected, rows(
+                1, 0, 0, 0,
+                0, cos, -sin, 0,
+                0, sin, cos, 0,
+                0, 0, 0, 1));
+        Mat4.multiply(expected, expected, rows(
+                cos, 0, sin, 0,
+                0, 1, 0, 0,
+                -sin, 0, cos, 0,
+                0, 0, 0, 1));
+        Mat4.multiply(expected, expected, rows(
+                cos, -sin, 0, 0,
+                sin, cos, 0, 0,
+                0, 0, 1, 0,
+                0, 0, 0, 1));
+        Mat4.multiply(expected, expected, rows(
+                0.5f, 0, 0, 0,
+                0, 2, 0, 0,
+                0, 0, 3, 0,
+                0, 0, 0, 1));
+        float[] m = new float[16];
+        Mat4.setTRS(m, 5, -1, 2, angle, angle, angle, 0.5f, 2, 3);
+        assertArrayEquals(expected, m, DELTA);
+    }
+
+    @Test
+    public void multiplies() {
+        float[] lhs = rows(
+                1, 2, 0, 0,
+                0, 1, 0, 3,
+                0, 0, 2, 0,
+                0, 0, 0, 1);
+        float[] rhs = rows(
+                0, 1, 0, 0,
+                1, 0, 0, 0,
+                0, 0, 1, 5,
+                0, 0, 0, 1);
+        float[] expected = rows(
+                2, 1, 0, 0,
+                1, 0, 0, 3,
+                0, 0, 2, 10,
+                0, 0, 0, 1);
+        float[] result = new float[16];
+        Mat4.multiply(result, lhs, rhs);
+        assertArrayEquals(expected, result, 0);
+
+        // in place, on both sides
+        float[] left = lhs.clone();
+        Mat4.multiply(left, left, rhs);
+        assertArrayEquals(expected, left, 0);
+        float[] right = rhs.clone();
+        Mat4.multiply(right, lhs, right);
+        assertArrayEquals(expected, right, 0);
+    }
+
+    @Test
+    public void multipliesWithOffsets() {
+        float[] lhs = rows(
+                1, 2, 0, 0,
+                0, 1, 0, 3,
+                0, 0, 2, 0,
+                0, 0, 0, 1);
+        float[] rhs = rows(
+                0, 1, 0, 0,
+                1, 0, 0, 0,
+                0, 0, 1, 5,
+                0, 0, 0, 1);
+        float[] data = new float[48];
+        System.arraycopy(lhs, 0, data, 0, 16);
+        System.arraycopy(rhs, 0, data, 16, 16);
+        Mat4.multiply(data, 32, data, 0, data, 16);
+        float[] result = new float[16];
+        System.arraycopy(data, 32, result, 0, 16);
+        assertArrayEquals(rows(
+                2, 1, 0, 0,
+                1, 0, 0, 3,
+                0, 0, 2, 10,
+                0, 0, 0, 1), result, 0);
+    }
+
+    @Test
+    public void multipliesVectors() {
+        float[] m = new float[16];
+        Mat4.setTRS(m, 1, 2, 3, 90, 90, 0, 2, 3, 4);
+        float[] result = new float[4];
+        Mat4.multiplyVector(result, m, 1, 1, 1, 1);
+        assertArrayEquals(new float[] { 5, 4, 6, 1 }, result, DELTA);
+    }
+
+    @Test
+    public void invertsTranslateRotateScale() {
+        // scale(1/2, 1/3, 1/4) * transposed rotation * translate(-1, -2, -3)
+        float[] m = new float[16];
+        Mat4.setTRS(m, 1, 2, 3, 90, 90, 0, 2, 3, 4);
+        float[] inverse = new float[16];
+        assertTrue(Mat4.invert(inverse, m));
+        assertArrayEquals(rows(
+                0, 0.5f, 0, -1,
+                0, 0, 1 / 3f, -1,
+                0.25f, 0, 0, -0.25f,
+                0, 0, 0, 1), inverse, DELTA);
+    }
+
+    @Test
+    public void invertsGeneralMatrices() {
+        float[] m = rows(
+                2, 0, 0, 1,
+                0, 1, 0, 0,
+                0, 0, 1, 0,
+                1, 0, 0, 1);
+        assertTrue(Mat4.invert(m, m));      // in place
+        assertArrayEquals(rows(
+                1, 0, 0, -1,
+                0, 1, 0, 0,
+                0, 0, 1, 0,
+                -1, 0, 0, 2), m, DELTA);
+
+        Random random = new Random(7);
+        float[] identity = new float[16];
+        Mat4.setIdentity(identity);
+        float[] inverse = new float[16];
+        float[] product = new float[16];
+        for (int i = 0; i < 100; ++i) {
+            for (int j = 0; j < 16; ++j) {
+                m[j] = random.nextFloat() * 2 - 1;
+            }
+            if (Mat4.invert(inverse, m)) {
+                Mat4.multiply(product, m, inverse);
+                assertArrayEquals(identity, product, 1e-2f);
+            }
+        }
+    }
+
+    @Test
+    public void doesntInvertSingularMatrices() {
+        float[] m = new float[16];
+        Mat4.setTRS(m, 1, 2, 3, 10, 20, 30, 1, 0, 1);
+        float[] result = new float[16];
+        result[0] = 42;
+        assertFalse(Mat4.invert(result, m));
+        assertArrayEquals(new float[] { 42, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, result, 0);
+    }
+
+    @Test
+    public void translatesInLocalSpace() {
+        float[] m = new float[16];
+        Mat4.setTRS(m, 1, 2, 3, 0, 0, 90, 2, 2, 2);
+        Mat4.translate(m, 1, 0, 0);
+        assertArrayEquals(rows(
+                0, -2, 0, 1,
+                2, 0, 0, 4,
+                0, 0, 2, 3,
+                0, 0, 0, 1), m, DELTA);
+    }
+
+    @Test
+    public void setsOrtho() {
+        float[] m = new float[16];
+        Mat4.setOrtho(m, 0, 100, 50, 0, -1, 1);
+        assertArrayEquals(rows(
+                0.02f, 0, 0, -1,
+                0, -0.04f, 0, 1,
+                0, 0, -1, 0,
+                0, 0, 0, 1), m, DELTA);
+    }
+
+    @Test
+    public void setsPerspective() {
+        // fovY 90: f = 1 / tan(45) = 1
+        float[] m = new float[16];
+        Mat4.setPerspective(m, 90, 2, 1, 3);
+        assertArrayEquals(rows(
+                0.5f, 0, 0, 0,
+                0, 1, 0, 0,
+                0, 0, -2, -3,
+                0, 0, -1, 0), m, DELTA);
+    }
+
+    // Written row by row, returned in column major order
+    private static float[] rows(float... values) {
+        float[] m = new float[16];
+        for (int row = 0; row < 4; ++row) {
+            for (int column = 0; column < 4; ++column) {
+                m[column * 4 + row] = values[row * 4 + column];
+            }
+        }
+        return m;
+    }
+}
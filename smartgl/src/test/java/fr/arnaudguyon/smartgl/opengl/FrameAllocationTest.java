@@ -0,0 +1,181 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.opengl;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Draws frames against the NullGL and checks that, once the scene is loaded, a frame doesn't allocate anything
+ * on the rendering thread: every allocation ends up in a GC pause, seen as a dropped frame on Android.
+ * The escape analysis of the desktop JIT is disabled in build.gradle, so that the allocations that ART would do are not hidden.
+ * Before the first C2 compilation of a method, HotSpot resolves the String constants of its class and loads the classes
+ * of its signature (like GL10, null here) in the calling thread: the warm-up is long enough to compile the frame with C2,
+ * and the compilations are not in background (build.gradle), so that they happen when the thresholds are reached.
+ */
+public class FrameAllocationTest {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final int NB_WARMUP_FRAMES = 10000;     // first uploads, class loading and JIT
+    private static final int NB_FRAMES = 1000;
+
+    static {
+        if (System.getProperty(GLBackend.PROPERTY) == null) {
+            System.setProperty(GLBackend.PROPERTY, "null");     // before GLBackend is loaded, when not run by gradle
+        }
+    }
+
+    // Uploaded to the NullGL, so that the sprites are drawn without any Bitmap
+    private static class NullTexture extends Texture {
+        NullTexture() {
+            super(32, 32, null);
+        }
+
+        @Override
+        protected boolean bindTexture() {
+            createGLTexture();
+            return true;
+        }
+    }
+
+    @Test
+    public void sprites() {
+        SmartGLRenderer renderer = createRenderer();
+        renderer.addRenderPass(createSpritePass(false));
+        assertNoAllocation(renderer);
+    }
+
+    @Test
+    public void batchedSprites() {
+        SmartGLRenderer renderer = createRenderer();
+        renderer.addRenderPass(createSpritePass(true));
+        assertNoAllocation(renderer);
+    }
+
+    @Test
+    public void animatedSpritesAndContainers() {
+        SmartGLRenderer renderer = createRenderer();
+        RenderPassSprite renderPass = new RenderPassSprite();
+        Texture texture = new NullTexture();
+        for (int i = 0; i < 20; ++i) {
+            AnimatedSprite sprite = new AnimatedSprite(32, 32);
+            sprite.setTexture(texture);
+            sprite.addFrame(0.001f, 0, 0, 0.5f, 0.5f);      // changes of frame during the test
+            sprite.addFrame(0.002f, 0.5f, 0.5f, 1, 1);
+            sprite.setPos(i * 40, 100);
+            renderPass.addSprite(sprite);
+        }
+        RenderObjectContainer container = new RenderObjectContainer(false);
+        for (int i = 0; i < 20; ++i) {
+            Sprite sprite = new Sprite(16, 16);
+            sprite.setTexture(texture);
+            sprite.setPos(i * 20, 0);
+            container.addChild(sprite);
+        }
+        container.setPos(0, 300);
+        renderPass.addContainer(container);
+        renderer.addRenderPass(renderPass);
+        assertNoAllocation(renderer);
+    }
+
+    @Test
+    public void objects3D() {
+        SmartGLRenderer renderer = createRenderer();
+        RenderPassObject3D renderPass = new RenderPassObject3D(RenderPassObject3D.ShaderType.SHADER_COLOR, true, false);
+        for (int i = 0; i < 200; ++i) {
+            Object3D object3D = createQuad();
+            object3D.setPos((i % 20) - 10, (i / 20) - 5, -20);
+            renderPass.addObject(object3D);
+        }
+        renderer.addRenderPass(renderPass);
+        assertNoAllocation(renderer);
+    }
+
+    @Test
+    public void profiledFrames() {
+        SmartGLRenderer renderer = createRenderer();
+        renderer.addRenderPass(createSpritePass(false));
+        renderer.getProfiler().setEnabled(true);
+        assertNoAllocation(renderer);
+    }
+
+    private static SmartGLRenderer createRenderer() {
+        SmartGLRenderer renderer = new SmartGLRenderer(null);
+        renderer.onSurfaceCreated(null, null);
+        renderer.onSurfaceChanged(null, WIDTH, HEIGHT);
+        return renderer;
+    }
+
+    private static RenderPassSprite createSpritePass(boolean batching) {
+        RenderPassSprite renderPass = new RenderPassSprite();
+        renderPass.setBatching(batching);
+        Texture texture = new NullTexture();
+        for (int i = 0; i < 200; ++i) {
+            Sprite sprite = new Sprite(32, 32);
+            sprite.setTexture(texture);
+            sprite.setPos((i * 37) % WIDTH, (i * 53) % HEIGHT);
+            sprite.setDisplayPriority(i % 3);
+            renderPass.addSprite(sprite);
+        }
+        return renderPass;
+    }
+
+    private static Object3D createQuad() {
+        VertexList vertexList = new VertexList();
+        vertexList.init(4);
+        vertexList.add(-0.5f, -0.5f, 0);
+        vertexList.add(0.5f, -0.5f, 0);
+        vertexList.add(-0.5f, 0.5f, 0);
+        vertexList.add(0.5f, 0.5f, 0);
+        vertexList.finalizeBuffer();
+        ColorList colorList = new ColorList();
+        colorList.init(4);
+        for (int i = 0; i < 4; ++i) {
+            colorList.add(1, 0.5f, 0, 1);
+        }
+        colorList.finalizeBuffer();
+        Face3D face = new Face3D();
+        face.setVertexList(vertexList);
+        face.setColorList(colorList);
+        Object3D object3D = new Object3D();
+        object3D.addFace(face);
+        return object3D;
+    }
+
+    private static void assertNoAllocation(SmartGLRenderer renderer) {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("allocations not measurable on this JVM", threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        Assume.assumeTrue("allocations not measurable on this JVM", allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        for (int frame = 0; frame < NB_WARMUP_FRAMES; ++frame) {
+            renderer.onDrawFrame(null);
+        }
+        final long threadId = Thread.currentThread().getId();
+        final long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int frame = 0; frame < NB_FRAMES; ++frame) {
+            renderer.onDrawFrame(null);
+        }
+        final long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+        assertEquals("bytes allocated by " + NB_FRAMES + " frames", 0, allocated);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AtlasPackerTest {
+
+    @Test
+    public void cellsDontOverlapAndStayInTheirPage() {
+        final int padding = 2;
+        final int extrusion = 1;
+        AtlasPacker packer = new AtlasPacker(256, 256);
+        packer.setPadding(padding);
+        packer.setExtrusion(extrusion);
+        Random random = new Random(42);
+        final int nbRects = 300;
+        int[] widths = new int[nbRects];
+        int[] heights = new int[nbRects];
+        for (int i = 0; i < nbRects; ++i) {
+            widths[i] = 1 + random.nextInt(60);
+            heights[i] = 1 + random.nextInt(60);
+            packer.add(widths[i], heights[i]);
+        }
+        final int nbPages = packer.pack();
+        assertTrue(nbPages > 1);
+
+        final int margin = 2 * extrusion + padding;
+        for (int i = 0; i < nbRects; ++i) {
+            final int left = packer.getX(i) - extrusion;
+            final int top = packer.getY(i) - extrusion;
+            assertTrue(packer.getPage(i) < nbPages);
+            assertTrue(left >= 0);
+            assertTrue(top >= 0);
+            assertTrue(left + widths[i] + margin <= 256);
+            assertTrue(top + heights[i] + margin <= 256);
+            for (int j = i + 1; j < nbRects; ++j) {
+                if (packer.getPage(i) != packer.getPage(j)) {
+                    continue;
+                }
+                final int otherLeft = packer.getX(j) - extrusion;
+                final int otherTop = packer.getY(j) - extrusion;
+                final boolean overlap = (left < otherLeft + widths[j] + margin) && (otherLeft < left + widths[i] + margin)
+                        && (top < otherTop + heights[j] + margin) && (otherTop < top + heights[i] + margin);
+                assertFalse("rects " + i + " and " + j + " overlap", overlap);
+            }
+        }
+    }
+
+    @Test
+    public void overflowsToNewPages() {
+        AtlasPacker packer = new AtlasPacker(64, 64);
+        for (int i = 0; i < 5; ++i) {
+            packer.add(32, 32);
+        }
+        assertEquals(2, packer.pack());
+        int nbOnFirstPage = 0;
+        for (int i = 0; i < 5; ++i) {
+            if (packer.getPage(i) == 0) {
+                ++nbOnFirstPage;
+            }
+        }
+        assertEquals(4, nbOnFirstPage);
+        assertEquals(0, packer.getX(4));
+        assertEquals(0, packer.getY(4));
+        assertEquals(1, packer.getPage(4));
+    }
+
+    @Test
+    public void appliesPaddingAndExtrusion() {
+        AtlasPacker packer = new AtlasPacker(100, 100);
+        packer.setPadding(3);
+        packer.setExtrusion(2);
+        packer.add(10, 10);
+        packer.add(10, 10);
+        assertEquals(1, packer.pack());
+        // cells of 10 + 2 * 2 + 3 = 17 pixels, the rectangles start after the extrusion
+        assertEquals(2, packer.getX(0));
+        assertEquals(2, packer.getY(0));
+        assertEquals(19, packer.getX(1));
+        assertEquals(2, packer.getY(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCellsBiggerThanAPage() {
+        AtlasPacker packer = new AtlasPacker(64, 64);
+        packer.setExtrusion(1);
+        packer.add(63, 10);     // 65 pixels with the extrusion
+    }
+
+    @Test
+    public void placesBottomLeft() {
+        AtlasPacker packer = new AtlasPacker(100, 100);
+        packer.add(60, 50);
+        packer.add(40, 20);
+        packer.add(40, 20);
+        packer.pack();
+        assertEquals(60, packer.getX(1));
+        assertEquals(0, packer.getY(1));
+        assertEquals(60, packer.getX(2));      // on the lowest segment, right of the first one
+        assertEquals(20, packer.getY(2));
+    }
+
+    @Test
+    public void skylineShrinksCoveredSegments() {
+        AtlasPacker.Skyline skyline = new AtlasPacker.Skyline(100);
+        AtlasPacker.addSkylineLevel(skyline, 0, 0, 20, 30);
+        assertEquals(2, skyline.mSize);
+        assertEquals(30, skyline.mX[1]);
+        assertEquals(70, skyline.mWidth[1]);
+        assertEquals(0, skyline.mY[1]);
+    }
+
+    @Test
+    public void skylineMergesSegmentsAtTheSameLevel() {
+        AtlasPacker.Skyline skyline = new AtlasPacker.Skyline(100);
+        AtlasPacker.addSkylineLevel(skyline, 0, 0, 10, 50);
+        AtlasPacker.addSkylineLevel(skyline, 1, 50, 10, 50);
+        assertEquals(1, skyline.mSize);
+        assertEquals(0, skyline.mX[0]);
+        assertEquals(10, skyline.mY[0]);
+        assertEquals(100, skyline.mWidth[0]);
+    }
+}
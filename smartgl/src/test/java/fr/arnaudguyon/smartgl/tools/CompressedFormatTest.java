@@ -0,0 +1,66 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedFormatTest {
+
+    private static final int[] ALL_FORMATS = {
+            CompressedFormat.ETC1_RGB8, CompressedFormat.ASTC_RGBA_4x4, CompressedFormat.ETC2_RGBA8_EAC
+    };
+    private static final String ES2_EXTENSIONS = "GL_OES_texture_npot " + CompressedFormat.EXTENSION_ETC1 + " GL_OES_depth24";
+    private static final String ES3_ASTC_EXTENSIONS = "GL_EXT_texture_filter_anisotropic " + CompressedFormat.EXTENSION_ASTC;
+
+    @Test
+    public void choosesETC1OnOpenGLES2() {
+        assertEquals(0, CompressedFormat.chooseBest(ALL_FORMATS, 2, ES2_EXTENSIONS));
+    }
+
+    @Test
+    public void choosesETC2OnOpenGLES3WithoutASTC() {
+        assertEquals(2, CompressedFormat.chooseBest(ALL_FORMATS, 3, ES2_EXTENSIONS));
+    }
+
+    @Test
+    public void choosesASTCWhenSupported() {
+        assertEquals(1, CompressedFormat.chooseBest(ALL_FORMATS, 3, ES3_ASTC_EXTENSIONS));
+    }
+
+    @Test
+    public void returnsMinusOneWhenNothingIsSupported() {
+        int[] formats = { CompressedFormat.ASTC_RGBA_12x12, CompressedFormat.ETC2_RGB8, 0 };
+        assertEquals(-1, CompressedFormat.chooseBest(formats, 2, ES2_EXTENSIONS));
+        assertEquals(-1, CompressedFormat.chooseBest(new int[0], 3, ES3_ASTC_EXTENSIONS));
+    }
+
+    @Test
+    public void matchesWholeExtensionNames() {
+        final String extensions = CompressedFormat.EXTENSION_ASTC + "_hdr_only GL_OES_foo";
+        assertFalse(CompressedFormat.isSupported(CompressedFormat.ASTC_SRGB8_ALPHA8_4x4, 3, extensions));
+        assertTrue(CompressedFormat.isSupported(CompressedFormat.ASTC_SRGB8_ALPHA8_4x4, 3, "GL_OES_foo " + CompressedFormat.EXTENSION_ASTC));
+    }
+
+    @Test
+    public void assumesETC1WithoutExtensionString() {
+        assertTrue(CompressedFormat.isSupported(CompressedFormat.ETC1_RGB8, 2, ""));
+        assertFalse(CompressedFormat.isSupported(CompressedFormat.ETC1_RGB8, 2, "GL_OES_depth24"));
+    }
+}
@@ -0,0 +1,223 @@
+/*
+    Copyright 2026 Arnaud Guyon
+
+    Licensed under the Apache License, Version 2.0 (the "License");
+    you may not use this file except in compliance with the License.
+    You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+    Unless required by applicable law or agreed to in writing, software
+    distributed under the License is distributed on an "AS IS" BASIS,
+    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+    See the License for the specific language governing permissions and
+    limitations under the License.
+ */
+package fr.arnaudguyon.smartgl.tools;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CompressedImageTest {
+
+    private static final byte[] KTX_IDENTIFIER = {
+            (byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+    };
+
+    @Test
+    public void parsesLittleEndianKTX() throws IOException {
+        checkKTXLevels(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void parsesBigEndianKTX() throws IOException {
+        checkKTXLevels(ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void skipsKTXKeyValueData() throws IOException {
+        byte[][] levels = { bytes(8, 1) };
+        CompressedImage image = CompressedImage.parse(ktx(ByteOrder.LITTLE_ENDIAN, 4, 4, 12, levels));
+        assertEquals(1, image.getNbLevels());
+        assertArrayEquals(levels[0], toArray(image.getLevel(0)));
+    }
+
+    @Test
+    public void parsesKTXHeader() throws IOException {
+        ByteBuffer file = ktx(ByteOrder.BIG_ENDIAN, 64, 32, 0, new byte[][] { bytes(8, 0) });
+        file.limit(CompressedImage.HEADER_SIZE);
+        CompressedImage image = CompressedImage.parseHeader(file);
+        assertEquals(CompressedFormat.ETC2_RGB8, image.getFormat());
+        assertEquals(64, image.getWidth());
+        assertEquals(32, image.getHeight());
+        assertEquals(0, image.getNbLevels());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedKTXHeader() throws IOException {
+        ByteBuffer file = ktx(ByteOrder.LITTLE_ENDIAN, 4, 4, 0, new byte[][] { bytes(8, 0) });
+        file.limit(40);
+        CompressedImage.parse(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedKTXLevel() throws IOException {
+        ByteBuffer file = ktx(ByteOrder.LITTLE_ENDIAN, 4, 4, 0, new byte[][] { bytes(8, 0) });
+        file.limit(file.limit() - 1);
+        CompressedImage.parse(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMissingKTXLevel() throws IOException {
+        ByteBuffer file = ktx(ByteOrder.LITTLE_ENDIAN, 4, 4, 0, new byte[][] { bytes(8, 0) });
+        file.putInt(56, 2);     // 2 levels announced, only 1 in the file
+        CompressedImage.parse(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsHugeKTXImageSize() throws IOException {
+        ByteBuffer file = ktx(ByteOrder.LITTLE_ENDIAN, 4, 4, 0, new byte[][] { bytes(8, 0) });
+        file.putInt(64, Integer.MAX_VALUE - 2);    // the end of the level overflows an int
+        CompressedImage.parse(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsHugeKTXKeyValueSize() throws IOException {
+        ByteBuffer file = ktx(ByteOrder.LITTLE_ENDIAN, 4, 4, 0, new byte[][] { bytes(8, 0) });
+        file.putInt(60, Integer.MAX_VALUE - 64);
+        CompressedImage.parse(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUncompressedKTX() throws IOException {
+        ByteBuffer file = ktx(ByteOrder.LITTLE_ENDIAN, 4, 4, 0, new byte[][] { bytes(8, 0) });
+        file.putInt(16, 0x1401);   // GL_UNSIGNED_BYTE
+        CompressedImage.parse(file);
+    }
+
+    @Test
+    public void parsesPKMVersion1() throws IOException {
+        // 7x5 picture, padded to 8x8: 2x2 blocks of 8 bytes
+        byte[] data = bytes(32, 3);
+        CompressedImage image = CompressedImage.parse(pkm('1', 0, 8, 8, 7, 5, data));
+        assertEquals(CompressedFormat.ETC1_RGB8, image.getFormat());
+        assertEquals(7, image.getWidth());
+        assertEquals(5, image.getHeight());
+        assertEquals(1, image.getNbLevels());
+        assertArrayEquals(data, toArray(image.getLevel(0)));
+    }
+
+    @Test
+    public void parsesPKMVersion2() throws IOException {
+        // ETC2 RGBA uses blocks of 16 bytes
+        byte[] data = bytes(64, 5);
+        CompressedImage image = CompressedImage.parse(pkm('2', 3, 8, 8, 8, 8, data));
+        assertEquals(CompressedFormat.ETC2_RGBA8_EAC, image.getFormat());
+        assertArrayEquals(data, toArray(image.getLevel(0)));
+
+        image = CompressedImage.parse(pkm('2', 1, 4, 4, 4, 4, bytes(8, 0)));
+        assertEquals(CompressedFormat.ETC2_RGB8, image.getFormat());
+        image = CompressedImage.parse(pkm('2', 4, 4, 4, 4, 4, bytes(8, 0)));
+        assertEquals(CompressedFormat.ETC2_RGB8_PUNCHTHROUGH_ALPHA1, image.getFormat());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownPKMType() throws IOException {
+        CompressedImage.parse(pkm('2', 2, 4, 4, 4, 4, bytes(8, 0)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedPKM() throws IOException {
+        CompressedImage.parse(pkm('1', 0, 8, 8, 8, 8, bytes(31, 0)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsHugePKM() throws IOException {
+        // 65535x65535 in 16 bytes blocks is more than 4GB of data, which overflows an int
+        CompressedImage.parse(pkm('2', 3, 65535, 65535, 65535, 65535, bytes(16, 0)));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownContainer() throws IOException {
+        CompressedImage.parse(ByteBuffer.wrap(bytes(64, 0)));
+    }
+
+    private static void checkKTXLevels(ByteOrder order) throws IOException {
+        // sizes which are not multiples of 4, to check the mipPadding
+        byte[][] levels = { bytes(5, 10), bytes(6, 20), bytes(4, 30) };
+        CompressedImage image = CompressedImage.parse(ktx(order, 4, 2, 0, levels));
+        assertEquals(CompressedFormat.ETC2_RGB8, image.getFormat());
+        assertEquals(4, image.getWidth());
+        assertEquals(2, image.getHeight());
+        assertEquals(3, image.getNbLevels());
+        assertEquals(1, image.getLevelWidth(2));
+        assertEquals(1, image.getLevelHeight(2));
+        for (int level = 0; level < levels.length; ++level) {
+            assertArrayEquals(levels[level], toArray(image.getLevel(level)));
+        }
+    }
+
+    private static ByteBuffer ktx(ByteOrder order, int width, int height, int keyValueSize, byte[][] levels) {
+        int size = 64 + keyValueSize;
+        for (byte[] level : levels) {
+            size += 4 + ((level.length + 3) & ~3);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(order);
+        buffer.put(KTX_IDENTIFIER);
+        buffer.putInt(0x04030201);              // endianness, written in the order of the file
+        buffer.putInt(0);                       // glType
+        buffer.putInt(1);                       // glTypeSize
+        buffer.putInt(0);                       // glFormat
+        buffer.putInt(CompressedFormat.ETC2_RGB8);
+        buffer.putInt(0x1907);                  // glBaseInternalFormat GL_RGB
+        buffer.putInt(width);
+        buffer.putInt(height);
+        buffer.putInt(0);                       // depth
+        buffer.putInt(0);                       // array elements
+        buffer.putInt(1);                       // faces
+        buffer.putInt(levels.length);
+        buffer.putInt(keyValueSize);
+        buffer.position(buffer.position() + keyValueSize);
+        for (byte[] level : levels) {
+            buffer.putInt(level.length);
+            buffer.put(level);
+            buffer.position((buffer.position() + 3) & ~3);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer pkm(char version, int type, int paddedWidth, int paddedHeight, int width, int height, byte[] data) {
+        ByteBuffer buffer = ByteBuffer.allocate(16 + data.length).order(ByteOrder.BIG_ENDIAN);
+        buffer.put((byte) 'P').put((byte) 'K').put((byte) 'M').put((byte) ' ');
+        buffer.put((byte) version).put((byte) '0');
+        buffer.putShort((short) type);
+        buffer.putShort((short) paddedWidth);
+        buffer.putShort((short) paddedHeight);
+        buffer.putShort((short) width);
+        buffer.putShort((short) height);
+        buffer.put(data);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] bytes(int size, int first) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            bytes[i] = (byte) (first + i);
+        }
+        return bytes;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -30,6 +30,7 @@ import fr.arnaudguyon.smartgl.opengl.SmartGLView;
 import fr.arnaudguyon.smartgl.opengl.SmartGLViewController;
 import fr.arnaudguyon.smartgl.opengl.Sprite;
 import fr.arnaudguyon.smartgl.opengl.Texture;
+import fr.arnaudguyon.smartgl.opengl.TextureLoader;
 import fr.arnaudguyon.smartgl.tools.WavefrontModel;
 import fr.arnaudguyon.smartgl.touch.TouchHelperEvent;
 
@@ -92,10 +93,12 @@ public class GLViewController implements SmartGLViewController {
         LightParallel lightParallel = new LightParallel(lightColor, lightDirection);
         renderer.setLightParallel(lightParallel);
 
-        mSpriteTexture = new Texture(context, R.drawable.planet);
-        mObjectTexture = new Texture(context, R.drawable.coloredbg);
-        mSpaceFrigateTexture = new Texture(context, R.drawable.space_frigate_6_color);
-        mSpaceCruiserTexture = new Texture(context, R.drawable.space_cruiser_4_color);
+        // decoded and uploaded in the background, switching models doesn't wait for them
+        TextureLoader textureLoader = renderer.getTextureLoader();
+        mSpriteTexture = textureLoader.load(context, R.drawable.planet);
+        mObjectTexture = textureLoader.load(context, R.drawable.coloredbg);
+        mSpaceFrigateTexture = textureLoader.load(context, R.drawable.space_frigate_6_color);
+        mSpaceCruiserTexture = textureLoader.load(context, R.drawable.space_cruiser_4_color);
 
 
         mSprite = new Sprite(120, 120);